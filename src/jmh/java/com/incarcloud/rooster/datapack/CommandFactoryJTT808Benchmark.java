@@ -0,0 +1,128 @@
+package com.incarcloud.rooster.datapack;
+
+import com.incarcloud.rooster.gather.cmd.CommandType;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommandFactoryJTT808.createCommand性能测试<br>
+ *     每种命令类型使用与CommandFactoryJTT808Test相同的参数
+ *
+ * @author Aaric, created on 2017-09-11T11:30.
+ * @since 2.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandFactoryJTT808Benchmark {
+
+    /**
+     * 命令类型
+     */
+    @Param({"REISSUE_PACK", "SET_PARAMS", "QUERY_ALL_PARAMS", "TERMINAL_CONTROL", "QUERY_CUSTOM_PARAMS",
+            "QUERY_ALL_ATTRS", "UPGRADE", "QUERY_POSITION", "TRACKING_POSITION", "CONFIRM_ALARM", "SEND_TEXT",
+            "SET_EVENT", "QUIZ", "SET_INFO_DEMAND_MENU", "INFO_SERVICE", "PHONE_DIAL", "SET_PHONE_LIST",
+            "VEHICLE_CONTROL", "SET_AREA_CIRCULAR", "DELETE_AREA_CIRCULAR", "SET_AREA_RECTANGLE",
+            "DELETE_AREA_RECTANGLE", "SET_AREA_POLYGON", "DELETE_AREA_POLYGON", "SET_LINE", "DELETE_LINE",
+            "SEND_DRIVER_ID", "TAKE_PHOTO", "QUERY_MEDIA", "UPDATE_MEDIA", "SOUND_RECORDING",
+            "UPDATE_SINGLE_MEDIA", "RSA"})
+    public String commandType;
+
+    private CommandFactoryJTT808 commandFactory;
+
+    private CommandType type;
+
+    private Object[] args;
+
+    @Setup
+    public void setup() {
+        commandFactory = new CommandFactoryJTT808();
+        type = CommandType.valueOf(commandType);
+        args = args(type);
+    }
+
+    @Benchmark
+    public int createCommand() throws Exception {
+        ByteBuf command = commandFactory.createCommand(type, args);
+        int length = command.readableBytes();
+        ReferenceCountUtil.release(command);
+        return length;
+    }
+
+    /**
+     * 命令参数
+     *
+     * @param type 命令类型
+     * @return 参数
+     */
+    private static Object[] args(CommandType type) {
+        String deviceId = "013300312707";
+        Date now = new Date();
+        switch (type) {
+            case REISSUE_PACK:
+                return new Object[]{deviceId, 2, 2, new int[]{1, 2}};
+            case SET_PARAMS:
+                return new Object[]{deviceId, 1, new byte[]{0x00, 0x00, 0x00, 0x01, 0x04, 0x00, 0x00, 0x00, 0x0A}};
+            case TERMINAL_CONTROL:
+                return new Object[]{deviceId, 3, ""};
+            case QUERY_CUSTOM_PARAMS:
+                return new Object[]{deviceId, 3, new int[]{1, 2, 3}};
+            case UPGRADE:
+                return new Object[]{deviceId, 0, new byte[]{0x01, 0x02, 0x03, 0x04, 0x05}, "V2.0.0", new byte[]{0x00, 0x00, 0x00}};
+            case TRACKING_POSITION:
+                return new Object[]{deviceId, 10, 30000};
+            case CONFIRM_ALARM:
+                return new Object[]{deviceId, 1, 1};
+            case SEND_TEXT:
+                return new Object[]{deviceId, 1, "Hello Driver!"};
+            case SET_EVENT:
+                return new Object[]{deviceId, 1, 2, new int[]{1, 2}, new String[]{"aa", "bb"}};
+            case QUIZ:
+                return new Object[]{deviceId, 1, "你喝酒吗？", new int[]{1, 2}, new String[]{"是", "否"}};
+            case SET_INFO_DEMAND_MENU:
+                return new Object[]{deviceId, 1, 2, new int[]{1, 2}, new String[]{"天气", "新闻"}};
+            case INFO_SERVICE:
+                return new Object[]{deviceId, 1, "吸烟有害健康"};
+            case PHONE_DIAL:
+                return new Object[]{deviceId, 1, "16688889999"};
+            case SET_PHONE_LIST:
+                return new Object[]{deviceId, 1, 2, new int[]{2, 3}, new String[]{"110", "119"}, new String[]{"报警", "消防"}};
+            case VEHICLE_CONTROL:
+                return new Object[]{deviceId, 1};
+            case SET_AREA_CIRCULAR:
+            case SET_AREA_RECTANGLE:
+                return new Object[]{deviceId, 1, 1, new byte[]{0x00, 0x01, 0x02}};
+            case DELETE_AREA_CIRCULAR:
+            case DELETE_AREA_RECTANGLE:
+            case DELETE_AREA_POLYGON:
+            case DELETE_LINE:
+                return new Object[]{deviceId, 2, new int[]{1, 2}};
+            case SET_AREA_POLYGON:
+                return new Object[]{deviceId, 1, 1, now, now, 90, 100, 2, new double[]{100.0, 110.0}, new double[]{30.0, 33.0}};
+            case SET_LINE:
+                return new Object[]{deviceId, 1, 0, now, now, 1, new byte[]{0x00, 0x01, 0x02}};
+            case TAKE_PHOTO:
+                return new Object[]{deviceId, 1, 1, 0, 0, 4, 8, 128, 64, 64, 128};
+            case QUERY_MEDIA:
+                return new Object[]{deviceId, 0, 0, 0, now, now};
+            case UPDATE_MEDIA:
+                return new Object[]{deviceId, 0, 0, 0, now, now, 1};
+            case SOUND_RECORDING:
+                return new Object[]{deviceId, 1, 10, 0, 1};
+            case UPDATE_SINGLE_MEDIA:
+                return new Object[]{deviceId, 1, 1};
+            case RSA:
+                return new Object[]{deviceId, 1, new byte[128]};
+            default:
+                // QUERY_ALL_PARAMS、QUERY_ALL_ATTRS、QUERY_POSITION、SEND_DRIVER_ID
+                return new Object[]{deviceId};
+        }
+    }
+}
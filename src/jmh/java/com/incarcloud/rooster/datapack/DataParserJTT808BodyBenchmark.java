@@ -0,0 +1,72 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataParserJTT808.extractBody、createResponse和getMetaData性能测试<br>
+ *     按消息ID分别测试，数据包在Setup阶段完成extract
+ *
+ * @author Aaric, created on 2017-09-11T10:55.
+ * @since 2.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataParserJTT808BodyBenchmark {
+
+    /**
+     * 消息ID(十六进制)
+     */
+    @Param({"0200", "0704", "0801", "0104", "0107", "0702"})
+    public String msgId;
+
+    private DataParserJTT808 parser;
+
+    private ByteBuf buffer;
+
+    private DataPack dataPack;
+
+    @Setup
+    public void setup() {
+        parser = new DataParserJTT808();
+        buffer = Unpooled.wrappedBuffer(JTT808Samples.frame(Integer.parseInt(msgId, 16)));
+        List<DataPack> dataPackList = parser.extract(buffer);
+        if (1 != dataPackList.size()) {
+            throw new IllegalStateException("invalid sample: " + msgId);
+        }
+        dataPack = dataPackList.get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+    }
+
+    @Benchmark
+    public Map<String, Object> getMetaData() {
+        buffer.readerIndex(0);
+        return parser.getMetaData(buffer);
+    }
+
+    @Benchmark
+    public List<DataPackTarget> extractBody() {
+        return parser.extractBody(dataPack);
+    }
+
+    @Benchmark
+    public int createResponse() {
+        ByteBuf response = parser.createResponse(dataPack, ERespReason.OK);
+        int length = response.readableBytes();
+        parser.destroyResponse(response);
+        return length;
+    }
+}
@@ -0,0 +1,110 @@
+package com.incarcloud.rooster.datapack;
+
+import com.incarcloud.rooster.util.JTT808TrafficGenerator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataParserJTT808.extract性能测试<br>
+ *     单帧、多帧(64帧一次到达)、拆分帧(一帧分两次到达)和模拟终端混合数据(1000个终端，
+ *     约10000帧，包含异常数据)四种场景
+ *
+ * @author Aaric, created on 2017-09-11T10:20.
+ * @since 2.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataParserJTT808ExtractBenchmark {
+
+    /**
+     * 多帧场景的帧数
+     */
+    private static final int FRAMES_PER_BUFFER = 64;
+
+    /**
+     * 模拟终端混合数据的有效帧数
+     */
+    private static final int TRAFFIC_FRAMES = 10000;
+
+    private DataParserJTT808 parser;
+
+    private ByteBuf single;
+    private ByteBuf many;
+    private ByteBuf split;
+    private ByteBuf traffic;
+
+    private byte[] splitHead;
+    private byte[] splitTail;
+
+    @Setup
+    public void setup() {
+        parser = new DataParserJTT808();
+
+        // 1.单帧：位置信息汇报
+        byte[] position = JTT808Samples.frame(0x0200);
+        single = Unpooled.wrappedBuffer(position);
+
+        // 2.多帧：心跳和位置信息汇报交替
+        byte[][] frames = new byte[FRAMES_PER_BUFFER][];
+        for (int i = 0; i < FRAMES_PER_BUFFER; i++) {
+            frames[i] = 0 == i % 2 ? JTT808Samples.heartbeat() : position;
+        }
+        many = Unpooled.wrappedBuffer(JTT808Samples.concat(frames));
+
+        // 3.拆分帧：定位数据批量上传在中间断开
+        byte[] batch = JTT808Samples.frame(0x0704);
+        splitHead = new byte[batch.length / 2];
+        splitTail = new byte[batch.length - splitHead.length];
+        System.arraycopy(batch, 0, splitHead, 0, splitHead.length);
+        System.arraycopy(batch, splitHead.length, splitTail, 0, splitTail.length);
+        split = Unpooled.buffer(batch.length);
+
+        // 4.模拟终端混合数据
+        traffic = Unpooled.buffer();
+        new JTT808TrafficGenerator(1000).generate(traffic, TRAFFIC_FRAMES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        single.release();
+        many.release();
+        split.release();
+        traffic.release();
+    }
+
+    @Benchmark
+    public List<DataPack> extractSingle() {
+        single.readerIndex(0);
+        return parser.extract(single);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES_PER_BUFFER)
+    public List<DataPack> extractMany() {
+        many.readerIndex(0);
+        return parser.extract(many);
+    }
+
+    @Benchmark
+    public List<DataPack> extractSplit() {
+        split.clear();
+        split.writeBytes(splitHead);
+        parser.extract(split);
+        split.writeBytes(splitTail);
+        return parser.extract(split);
+    }
+
+    @Benchmark
+    public List<DataPack> extractTraffic() {
+        traffic.readerIndex(0);
+        return parser.extract(traffic);
+    }
+}
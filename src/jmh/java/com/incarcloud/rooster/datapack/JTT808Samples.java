@@ -0,0 +1,278 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+
+/**
+ * 性能测试样本数据<br>
+ *     按照JTT808协议组装完整的数据帧(计算校验码并转义)，终端手机号统一使用013300312707
+ *
+ * @author Aaric, created on 2017-09-11T09:40.
+ * @since 2.0
+ */
+public final class JTT808Samples {
+
+    /**
+     * 终端手机号(BCD[6])
+     */
+    public static final byte[] PHONE = {0x01, 0x33, 0x00, 0x31, 0x27, 0x07};
+
+    /**
+     * GBK字符集
+     */
+    private static final Charset GBK = Charset.forName("GBK");
+
+    private JTT808Samples() {
+    }
+
+    /**
+     * 心跳包
+     *
+     * @return 数据帧
+     */
+    public static byte[] heartbeat() {
+        return frame(0x0002, 1, new byte[0]);
+    }
+
+    /**
+     * 根据消息ID获得样本数据帧
+     *
+     * @param msgId 消息ID
+     * @return 数据帧
+     */
+    public static byte[] frame(int msgId) {
+        switch (msgId) {
+            case 0x0002:
+                return heartbeat();
+            case 0x0104:
+                return frame(msgId, 2, paramsBody());
+            case 0x0107:
+                return frame(msgId, 3, attrsBody());
+            case 0x0200:
+                return frame(msgId, 4, positionBody());
+            case 0x0702:
+                return frame(msgId, 5, driverBody());
+            case 0x0704:
+                return frame(msgId, 6, positionBatchBody(10));
+            case 0x0801:
+                // 10个子包中的第1个
+                return frame(msgId, 7, 10, 1, mediaBody(400));
+            default:
+                throw new IllegalArgumentException("no sample for msgId: 0x" + Integer.toHexString(msgId));
+        }
+    }
+
+    /**
+     * 组装数据帧
+     *
+     * @param msgId 消息ID
+     * @param msgSeq 消息流水号
+     * @param body 消息体
+     * @return 数据帧
+     */
+    public static byte[] frame(int msgId, int msgSeq, byte[] body) {
+        return frame(msgId, msgSeq, 0, 0, body);
+    }
+
+    /**
+     * 组装数据帧
+     *
+     * @param msgId 消息ID
+     * @param msgSeq 消息流水号
+     * @param subPackTotal 消息总包数，0表示不分包
+     * @param subPackIndex 包序号
+     * @param body 消息体
+     * @return 数据帧
+     */
+    public static byte[] frame(int msgId, int msgSeq, int subPackTotal, int subPackIndex, byte[] body) {
+        // 1.消息头+消息体
+        ByteBuf content = Unpooled.buffer(16 + body.length);
+        content.writeShort(msgId);
+        content.writeShort((body.length & 0x03FF) | (0 < subPackTotal ? 0x2000 : 0));
+        content.writeBytes(PHONE);
+        content.writeShort(msgSeq);
+        if (0 < subPackTotal) {
+            content.writeShort(subPackTotal);
+            content.writeShort(subPackIndex);
+        }
+        content.writeBytes(body);
+
+        // 2.校验码
+        int check = 0;
+        for (int i = 0; i < content.writerIndex(); i++) {
+            check ^= content.getByte(i);
+        }
+        content.writeByte(check);
+
+        // 3.转义
+        ByteBuf frame = Unpooled.buffer(content.readableBytes() * 2 + 2);
+        frame.writeByte(0x7E);
+        byte b;
+        while (content.isReadable()) {
+            b = content.readByte();
+            if (0x7E == b) {
+                frame.writeByte(0x7D).writeByte(0x02);
+            } else if (0x7D == b) {
+                frame.writeByte(0x7D).writeByte(0x01);
+            } else {
+                frame.writeByte(b);
+            }
+        }
+        frame.writeByte(0x7E);
+        return ByteBufUtil.getBytes(frame);
+    }
+
+    /**
+     * 拼接多个数据帧
+     *
+     * @param frames 数据帧
+     * @return 拼接后的数据
+     */
+    public static byte[] concat(byte[]... frames) {
+        ByteBuf buffer = Unpooled.buffer();
+        for (byte[] frame : frames) {
+            buffer.writeBytes(frame);
+        }
+        return ByteBufUtil.getBytes(buffer);
+    }
+
+    /**
+     * 0x0200消息体：位置基本信息+附加信息(里程、油量、速度、信号强度、卫星数)
+     *
+     * @return 消息体
+     */
+    public static byte[] positionBody() {
+        ByteBuf body = Unpooled.buffer(48);
+        // 1.报警标志位(紧急报警、超速报警)
+        body.writeInt(0x00000003);
+        // 2.状态位(ACC开、定位、北斗+GPS)
+        body.writeInt(0x000C0003);
+        // 3.纬度、经度、高程、速度、方向
+        body.writeInt(30541796);
+        body.writeInt(114375712);
+        body.writeShort(32);
+        body.writeShort(600);
+        body.writeShort(90);
+        // 4.时间
+        body.writeBytes(new byte[]{0x17, 0x08, 0x25, 0x14, 0x44, 0x00});
+        // 5.附加信息
+        body.writeByte(0x01).writeByte(4).writeInt(3000);
+        body.writeByte(0x02).writeByte(2).writeShort(100);
+        body.writeByte(0x03).writeByte(2).writeShort(600);
+        body.writeByte(0x30).writeByte(1).writeByte(0x1F);
+        body.writeByte(0x31).writeByte(1).writeByte(0x0A);
+        return ByteBufUtil.getBytes(body);
+    }
+
+    /**
+     * 0x0704消息体
+     *
+     * @param total 位置数据项个数
+     * @return 消息体
+     */
+    public static byte[] positionBatchBody(int total) {
+        byte[] position = positionBody();
+        ByteBuf body = Unpooled.buffer(3 + total * (2 + position.length));
+        body.writeShort(total);
+        body.writeByte(0x01);
+        for (int i = 0; i < total; i++) {
+            body.writeShort(position.length);
+            body.writeBytes(position);
+        }
+        return ByteBufUtil.getBytes(body);
+    }
+
+    /**
+     * 0x0801第1个子包消息体
+     *
+     * @param dataLength 多媒体数据长度
+     * @return 消息体
+     */
+    public static byte[] mediaBody(int dataLength) {
+        byte[] position = positionBody();
+        byte[] data = new byte[dataLength];
+        new Random(808).nextBytes(data);
+        ByteBuf body = Unpooled.buffer(36 + dataLength);
+        // 多媒体ID、类型(图像)、格式(JPEG)、事件(定时动作)、通道
+        body.writeInt(1).writeByte(0x00).writeByte(0x00).writeByte(0x01).writeByte(0x01);
+        // 位置基本信息
+        body.writeBytes(position, 0, 28);
+        body.writeBytes(data);
+        return ByteBufUtil.getBytes(body);
+    }
+
+    /**
+     * 0x0104消息体
+     *
+     * @return 消息体
+     */
+    public static byte[] paramsBody() {
+        ByteBuf body = Unpooled.buffer();
+        byte[] server = "gps.incarcloud.com".getBytes(GBK);
+        body.writeShort(1);
+        body.writeByte(4);
+        // 终端心跳发送间隔
+        body.writeInt(0x0001).writeByte(4).writeInt(10);
+        // TCP消息应答超时时间
+        body.writeInt(0x0002).writeByte(4).writeInt(30);
+        // 主服务器地址
+        body.writeInt(0x0013).writeByte(server.length).writeBytes(server);
+        // 服务器TCP端口
+        body.writeInt(0x0018).writeByte(4).writeInt(8808);
+        return ByteBufUtil.getBytes(body);
+    }
+
+    /**
+     * 0x0107消息体
+     *
+     * @return 消息体
+     */
+    public static byte[] attrsBody() {
+        ByteBuf body = Unpooled.buffer();
+        byte[] hardwareVersion = "V1.0".getBytes(GBK);
+        byte[] firmwareVersion = "V2.0.1".getBytes(GBK);
+        body.writeShort(0x0006);
+        body.writeBytes(fixed("70111", 5));
+        body.writeBytes(fixed("BSJ-A6-BD", 20));
+        body.writeBytes(fixed("0312707", 7));
+        body.writeBytes(new byte[]{(byte) 0x89, (byte) 0x86, 0x00, 0x01, 0x23, 0x45, 0x67, (byte) 0x89, 0x01, 0x23});
+        body.writeByte(hardwareVersion.length).writeBytes(hardwareVersion);
+        body.writeByte(firmwareVersion.length).writeBytes(firmwareVersion);
+        body.writeByte(0x03);
+        body.writeByte(0x01);
+        return ByteBufUtil.getBytes(body);
+    }
+
+    /**
+     * 0x0702消息体
+     *
+     * @return 消息体
+     */
+    public static byte[] driverBody() {
+        ByteBuf body = Unpooled.buffer();
+        byte[] name = "张三".getBytes(GBK);
+        byte[] organization = "上海市交通委员会".getBytes(GBK);
+        body.writeByte(0x01);
+        body.writeBytes(new byte[]{0x17, 0x09, 0x11, 0x08, 0x30, 0x00});
+        body.writeByte(0x00);
+        body.writeByte(name.length).writeBytes(name);
+        body.writeBytes(fixed("310101198001010000", 20));
+        body.writeByte(organization.length).writeBytes(organization);
+        body.writeBytes(new byte[]{0x20, 0x20, 0x12, 0x31});
+        return ByteBufUtil.getBytes(body);
+    }
+
+    /**
+     * 定长字符串，不足补0x00
+     */
+    private static byte[] fixed(String value, int length) {
+        byte[] bytes = new byte[length];
+        byte[] src = value.getBytes(GBK);
+        System.arraycopy(src, 0, bytes, 0, Math.min(length, src.length));
+        return bytes;
+    }
+}
@@ -4,6 +4,7 @@ import com.incarcloud.rooster.gather.cmd.CommandFacotryManager;
 import com.incarcloud.rooster.gather.cmd.CommandFactory;
 import com.incarcloud.rooster.gather.cmd.CommandType;
 import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
@@ -35,6 +36,32 @@ public class CommandFactoryJTT808 implements CommandFactory {
             throw new IllegalArgumentException("args is null");
         }
 
+        // 第一个参数为终端手机号，即设备号，验证字符串长度为12
+        if(!(args[0] instanceof String && 12 == ((String) args[0]).length())) {
+            // 验证设备号不通过
+            throw new IllegalArgumentException("deviceId is error");
+        }
+
+        // 跟踪命令创建过程，异常时也要结束跟踪
+        String deviceId = (String) args[0];
+        JTT808Tracer.begin(-1, deviceId);
+        try {
+            return buildCommand(type, deviceId, args);
+        } finally {
+            JTT808Tracer.end();
+        }
+    }
+
+    /**
+     * 创建命令
+     *
+     * @param type 命令类型
+     * @param deviceId 终端手机号，即设备号
+     * @param args 参数，第一个为终端手机号
+     * @return
+     * @throws Exception
+     */
+    private ByteBuf buildCommand(CommandType type, String deviceId, Object[] args) throws Exception {
         // 初始化List容器，装载【消息头+消息体】
         List<Byte> byteList = new ArrayList<>();
 
@@ -47,14 +74,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
         byteList.add((byte) 0xFF);
 
         // 设置终端手机号(6个字节BCD码)，5~10
-        // 第一个参数为终端手机号，即设备号，验证字符串长度为12
-        if(args[0] instanceof String && 12 == ((String) args[0]).length()) {
-            String deviceId = (String) args[0];
-            byteList.addAll(JTT808DataPackUtil.getBCDByteList(deviceId));
-        } else {
-            // 验证设备号不通过
-            throw new IllegalArgumentException("deviceId is error");
-        }
+        byteList.addAll(JTT808DataPackUtil.getBCDByteList(deviceId));
 
         // 设置消息流水号，默认流水号0x00
         byteList.add((byte) 0x00);
@@ -70,11 +90,11 @@ public class CommandFactoryJTT808 implements CommandFactory {
 //                 * 平台通用应答<br>
 //                 * @see DataParserJTT808#createResponse(DataPack, ERespReason)
 //                 */
-//                System.out.println("## 0x8001 - 平台通用应答");
+//                JTT808Tracer.debug("## 0x8001 - 平台通用应答");
 //                break;
             case REISSUE_PACK:
                 /* 补传分包请求 */
-                System.out.println("## 0x8003 - 补传分包请求");
+                JTT808Tracer.debug("## 0x8003 - 补传分包请求");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -96,22 +116,22 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 // 2.1 重传包 ID 列表
                 int[] msgIds = (int[]) args[3];
                 for (int i = 0; i < msgTotal; i++) {
-                    byteList.add(JTT808DataPackUtil.getIntegerByte(msgIds[i]));
+                    byteList.addAll(JTT808DataPackUtil.getWordByteList(msgIds[i]));
                 }
 
                 // 3.设置消息长度
-                msgLength = 2 + msgTotal;
+                msgLength = 3 + 2 * msgTotal;
                 break;
 //            case 0x8100:
 //                /**
 //                 * 终端注册应答<br>
 //                 * @see DataParserJTT808#createResponse(DataPack, ERespReason)
 //                 */
-//                System.out.println("## 0x8100 - 终端注册应答");
+//                JTT808Tracer.debug("## 0x8100 - 终端注册应答");
 //                break;
             case SET_PARAMS:
                 /* 设置终端参数 */
-                System.out.println("## 0x8103 - 设置终端参数");
+                JTT808Tracer.debug("## 0x8103 - 设置终端参数");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -137,7 +157,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case QUERY_ALL_PARAMS:
                 /* 查询终端参数 */
-                System.out.println("## 0x8104 - 查询终端参数");
+                JTT808Tracer.debug("## 0x8104 - 查询终端参数");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -153,7 +173,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case TERMINAL_CONTROL:
                 /* 终端控制 */
-                System.out.println("## 0x8105 - 终端控制");
+                JTT808Tracer.debug("## 0x8105 - 终端控制");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -182,7 +202,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case QUERY_CUSTOM_PARAMS:
                 /* 查询指定终端参数 */
-                System.out.println("## 0x8106 - 查询指定终端参数");
+                JTT808Tracer.debug("## 0x8106 - 查询指定终端参数");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -208,7 +228,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case QUERY_ALL_ATTRS:
                 /* 查询终端属性 */
-                System.out.println("## 0x8107 - 查询终端属性");
+                JTT808Tracer.debug("## 0x8107 - 查询终端属性");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -224,7 +244,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case UPGRADE:
                 /* 下发终端升级包 */
-                System.out.println("## 0x8108 - 下发终端升级包");
+                JTT808Tracer.debug("## 0x8108 - 下发终端升级包");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -269,7 +289,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case QUERY_POSITION:
                 /* 位置信息查询 */
-                System.out.println("## 0x8201 - 位置信息查询");
+                JTT808Tracer.debug("## 0x8201 - 位置信息查询");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -285,7 +305,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case TRACKING_POSITION:
                 /* 临时位置跟踪控制 */
-                System.out.println("## 0x8202 - 临时位置跟踪控制");
+                JTT808Tracer.debug("## 0x8202 - 临时位置跟踪控制");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -309,7 +329,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case CONFIRM_ALARM:
                 /* 人工确认报警消息 */
-                System.out.println("## 0x8203 - 人工确认报警消息");
+                JTT808Tracer.debug("## 0x8203 - 人工确认报警消息");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -333,7 +353,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case SEND_TEXT:
                 /* 文本信息下发 */
-                System.out.println("## 0x8300 - 文本信息下发");
+                JTT808Tracer.debug("## 0x8300 - 文本信息下发");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -360,7 +380,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case SET_EVENT:
                 /* 事件设置 */
-                System.out.println("## 0x8301 - 事件设置");
+                JTT808Tracer.debug("## 0x8301 - 事件设置");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -405,7 +425,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case QUIZ:
                 /* 提问下发 */
-                System.out.println("## 0x8302 - 提问下发");
+                JTT808Tracer.debug("## 0x8302 - 提问下发");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -455,7 +475,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case SET_INFO_DEMAND_MENU:
                 /* 信息点播菜单设置 */
-                System.out.println("## 0x8303 - 信息点播菜单设置");
+                JTT808Tracer.debug("## 0x8303 - 信息点播菜单设置");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -500,7 +520,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case INFO_SERVICE:
                 /* 信息服务 */
-                System.out.println("## 0x8304 - 信息服务");
+                JTT808Tracer.debug("## 0x8304 - 信息服务");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -529,7 +549,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case PHONE_DIAL:
                 /* 电话回拨 */
-                System.out.println("## 0x8400 - 电话回拨");
+                JTT808Tracer.debug("## 0x8400 - 电话回拨");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -556,7 +576,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case SET_PHONE_LIST:
                 /* 设置电话本 */
-                System.out.println("## 0x8401 - 设置电话本");
+                JTT808Tracer.debug("## 0x8401 - 设置电话本");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -612,7 +632,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case VEHICLE_CONTROL:
                 /* 车辆控制 */
-                System.out.println("## 0x8500 - 车辆控制");
+                JTT808Tracer.debug("## 0x8500 - 车辆控制");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -632,7 +652,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case SET_AREA_CIRCULAR:
                 /* 设置圆形区域 */
-                System.out.println("## 0x8600 - 设置圆形区域");
+                JTT808Tracer.debug("## 0x8600 - 设置圆形区域");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -662,7 +682,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case DELETE_AREA_CIRCULAR:
                 /* 删除圆形区域 */
-                System.out.println("## 0x8601 - 删除圆形区域");
+                JTT808Tracer.debug("## 0x8601 - 删除圆形区域");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -688,7 +708,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case SET_AREA_RECTANGLE:
                 /* 设置矩形区域 */
-                System.out.println("## 0x8602 - 设置矩形区域");
+                JTT808Tracer.debug("## 0x8602 - 设置矩形区域");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -718,7 +738,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case DELETE_AREA_RECTANGLE:
                 /* 删除矩形区域 */
-                System.out.println("## 0x8603 - 删除矩形区域");
+                JTT808Tracer.debug("## 0x8603 - 删除矩形区域");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -744,7 +764,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case SET_AREA_POLYGON:
                 /* 设置多边形区域 */
-                System.out.println("## 0x8604 - 设置多边形区域");
+                JTT808Tracer.debug("## 0x8604 - 设置多边形区域");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -817,7 +837,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case DELETE_AREA_POLYGON:
                 /* 删除多边形区域 */
-                System.out.println("## 0x8605 - 删除多边形区域");
+                JTT808Tracer.debug("## 0x8605 - 删除多边形区域");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -843,7 +863,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case SET_LINE:
                 /* 设置路线 */
-                System.out.println("## 0x8606 - 设置路线");
+                JTT808Tracer.debug("## 0x8606 - 设置路线");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -892,7 +912,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case DELETE_LINE:
                 /* 删除路线 */
-                System.out.println("## 0x8607 - 删除路线");
+                JTT808Tracer.debug("## 0x8607 - 删除路线");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -921,18 +941,18 @@ public class CommandFactoryJTT808 implements CommandFactory {
 //                 * 行驶记录仪数据采集命令<br>
 //                 * 关联GB/T 19056，暂时不予实现
 //                 */
-//                System.out.println("## 0x8700 - 行驶记录仪数据采集命令");
+//                JTT808Tracer.debug("## 0x8700 - 行驶记录仪数据采集命令");
 //                break;
 //            case 0x8701:
 //                /**
 //                 * 行驶记录仪参数下传命令<br>
 //                 * 关联GB/T 19056，暂时不予实现
 //                 */
-//                System.out.println("## 0x8701 - 行驶记录仪参数下传命令");
+//                JTT808Tracer.debug("## 0x8701 - 行驶记录仪参数下传命令");
 //                break;
             case SEND_DRIVER_ID:
                 /* 上报驾驶员身份信息请求 */
-                System.out.println("## 0x8702 - 上报驾驶员身份信息请求");
+                JTT808Tracer.debug("## 0x8702 - 上报驾驶员身份信息请求");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -951,11 +971,11 @@ public class CommandFactoryJTT808 implements CommandFactory {
 //                 * 多媒体数据上传应答<br>
 //                 * @see DataParserJTT808#createResponse(DataPack, ERespReason)
 //                 */
-//                System.out.println("## 0x8800 - 多媒体数据上传应答");
+//                JTT808Tracer.debug("## 0x8800 - 多媒体数据上传应答");
 //                break;
             case TAKE_PHOTO:
                 /* 摄像头立即拍摄命令 */
-                System.out.println("## 0x8801 - 摄像头立即拍摄命令");
+                JTT808Tracer.debug("## 0x8801 - 摄像头立即拍摄命令");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -1011,7 +1031,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case QUERY_MEDIA:
                 /* 存储多媒体数据检索 */
-                System.out.println("## 0x0802 - 存储多媒体数据检索");
+                JTT808Tracer.debug("## 0x0802 - 存储多媒体数据检索");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -1054,7 +1074,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case UPDATE_MEDIA:
                 /* 存储多媒体数据上传 */
-                System.out.println("## 0x8803 - 存储多媒体数据上传");
+                JTT808Tracer.debug("## 0x8803 - 存储多媒体数据上传");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -1101,7 +1121,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case SOUND_RECORDING:
                 /* 录音开始命令 */
-                System.out.println("## 0x8804 - 录音开始命令");
+                JTT808Tracer.debug("## 0x8804 - 录音开始命令");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -1133,7 +1153,7 @@ public class CommandFactoryJTT808 implements CommandFactory {
                 break;
             case UPDATE_SINGLE_MEDIA:
                 /* 单条存储多媒体数据检索上传命令 */
-                System.out.println("## 0x8805 - 单条存储多媒体数据检索上传命令");
+                JTT808Tracer.debug("## 0x8805 - 单条存储多媒体数据检索上传命令");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -1160,11 +1180,11 @@ public class CommandFactoryJTT808 implements CommandFactory {
 //                 * 数据下行透传<br>
 //                 * 透传消息内容不明确，暂时不予实现
 //                 */
-//                System.out.println("## 0x8900 - 数据下行透传");
+//                JTT808Tracer.debug("## 0x8900 - 数据下行透传");
 //                break;
             case RSA:
                 /* 平台 RSA 公钥 */
-                System.out.println("## 0x8A00 - 平台 RSA 公钥");
+                JTT808Tracer.debug("## 0x8A00 - 平台 RSA 公钥");
                 /**
                  * 参数说明：
                  *   0-设置终端手机号(deviceId:String)
@@ -0,0 +1,128 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * CAN总线数据上传(0x0705)的列式结果<br>
+ *     CAN ID(包含通道、帧类型和采集方式标志位)保存在int数组中，
+ *     每帧8个字节的数据连续保存在一个byte数组中，第i帧的数据为data[i * 8, i * 8 + 8)
+ *
+ * @author Aaric, created on 2017-09-21T09:30.
+ * @since 2.0
+ */
+public class DataPackCanBatch extends DataPackObject {
+
+    /**
+     * 每帧数据长度
+     */
+    public static final int DATA_LENGTH = 8;
+
+    /**
+     * bit31：CAN通道号，0：CAN1，1：CAN2
+     */
+    public static final int FLAG_CHANNEL = 0x80000000;
+
+    /**
+     * bit30：帧类型，0：标准帧，1：扩展帧
+     */
+    public static final int FLAG_EXTENDED = 0x40000000;
+
+    /**
+     * bit29：数据采集方式，0：原始数据，1：采集区间的平均值
+     */
+    public static final int FLAG_AVERAGE = 0x20000000;
+
+    /**
+     * bit28~bit0：CAN总线ID
+     */
+    public static final int ID_MASK = 0x1FFFFFFF;
+
+    /**
+     * 第1条数据的接收时间(当天的毫秒数)，BCD码错误时为-1
+     */
+    private int receiveTime;
+
+    private int size;
+    private final int[] canIds;
+    private final byte[] data;
+
+    /**
+     * 构造函数
+     *
+     * @param object   基对象
+     * @param capacity 数据项个数
+     */
+    public DataPackCanBatch(DataPackObject object, int capacity) {
+        super(object);
+        canIds = new int[capacity];
+        data = new byte[capacity * DATA_LENGTH];
+    }
+
+    /**
+     * 读取一个数据项(CAN ID + CAN DATA)
+     *
+     * @param buffer ByteBuf
+     */
+    public void read(ByteBuf buffer) {
+        canIds[size] = buffer.readInt();
+        buffer.readBytes(data, size * DATA_LENGTH, DATA_LENGTH);
+        size++;
+    }
+
+    public int getReceiveTime() {
+        return receiveTime;
+    }
+
+    public void setReceiveTime(int receiveTime) {
+        this.receiveTime = receiveTime;
+    }
+
+    /**
+     * 数据项个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * CAN ID，包含标志位
+     */
+    public int[] getCanIds() {
+        return canIds;
+    }
+
+    /**
+     * CAN DATA，每帧8个字节
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * 第index帧的CAN总线ID(不含标志位)
+     */
+    public int getCanId(int index) {
+        return canIds[index] & ID_MASK;
+    }
+
+    /**
+     * 第index帧的CAN通道号，0：CAN1，1：CAN2
+     */
+    public int getChannel(int index) {
+        return canIds[index] >>> 31;
+    }
+
+    /**
+     * 第index帧是否为扩展帧
+     */
+    public boolean isExtended(int index) {
+        return 0 != (canIds[index] & FLAG_EXTENDED);
+    }
+
+    /**
+     * 第index帧是否为采集区间的平均值
+     */
+    public boolean isAverage(int index) {
+        return 0 != (canIds[index] & FLAG_AVERAGE);
+    }
+}
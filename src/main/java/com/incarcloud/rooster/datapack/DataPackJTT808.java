@@ -0,0 +1,37 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * JTT808数据包<br>
+ *     除转义的原始数据帧外，同时携带extract阶段已经转义还原并通过校验的数据帧，
+ *     extractBody和createResponse直接使用，不再经过Base64编解码和重复转义还原
+ *
+ * @author Aaric, created on 2017-09-08T10:15.
+ * @since 2.0
+ */
+public class DataPackJTT808 extends DataPack {
+
+    /**
+     * 转义还原的数据帧，索引0为起始标识位(0x7E)
+     */
+    private ByteBuf frame;
+
+    public DataPackJTT808() {
+        super(DataParserJTT808.PROTOCOL_GROUP, DataParserJTT808.PROTOCOL_NAME, DataParserJTT808.PROTOCOL_VERSION);
+    }
+
+    /**
+     * 转义还原的数据帧<br>
+     *     与原始数据帧生命周期相同，不含转义字节时与原始数据帧共享内存
+     *
+     * @return 数据帧，没有时返回null
+     */
+    public ByteBuf getFrame() {
+        return frame;
+    }
+
+    public void setFrame(ByteBuf frame) {
+        this.frame = frame;
+    }
+}
@@ -0,0 +1,69 @@
+package com.incarcloud.rooster.datapack;
+
+/**
+ * 已写入MediaSink的多媒体数据<br>
+ *     不包含多媒体数据本身(data为null)，只包含存储位置和本次写入的范围，
+ *     类型、格式、通道、事件和位置只在第1个分包中，多媒体数据ID在分包写入后设置<br>
+ *     偏移未知暂时缓存(或被丢弃)的分包不写入，location为null、offset为-1，偏移确定后随其他分包一起写入
+ *
+ * @author Aaric, created on 2017-09-19T10:40.
+ * @since 2.0
+ */
+public class DataPackMediaFile extends DataPackMedia {
+
+    /**
+     * 存储位置
+     */
+    private String location;
+
+    /**
+     * 本次写入的偏移，没有写入时为-1
+     */
+    private long offset;
+
+    /**
+     * 本次写入的长度
+     */
+    private int length;
+
+    /**
+     * 是否全部分包都已写入(多媒体数据完整)
+     */
+    private boolean complete;
+
+    public DataPackMediaFile(DataPackObject object) {
+        super(object);
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+}
@@ -0,0 +1,217 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Arrays;
+
+/**
+ * 定位数据批量上传(0x0704)的列式结果<br>
+ *     每个位置的时间、经纬度、速度、方向、高程、报警标志和状态位分别保存在基本类型数组中(下标为位置序号)，
+ *     附加信息保留原始字节，按偏移表读取，批量入库时不需要为每个位置创建对象<br>
+ *     启用方式：registry.register(0x0704, new PositionBatchDecoder(true))
+ *
+ * @author Aaric, created on 2017-09-17T09:30.
+ * @since 2.0
+ */
+public class DataPackPositionBatch extends DataPackObject {
+
+    /**
+     * 位置数据类型：正常位置批量汇报
+     */
+    public static final int TYPE_NORMAL = 0x00;
+
+    /**
+     * 位置数据类型：盲区补报
+     */
+    public static final int TYPE_REISSUE = 0x01;
+
+    private int positionType;
+    private int size;
+
+    private long[] time;
+    private int[] latitude;
+    private int[] longitude;
+    private int[] speed;
+    private int[] direction;
+    private int[] altitude;
+    private int[] alarmFlags;
+    private int[] statusFlags;
+
+    /**
+     * 附加信息原始字节，第i个位置的附加信息为extras[extraOffsets[i], extraOffsets[i + 1])
+     */
+    private byte[] extras;
+    private int[] extraOffsets;
+
+    /**
+     * 构造函数
+     *
+     * @param object       基对象
+     * @param capacity     位置个数
+     * @param extraCapacity 附加信息字节数
+     */
+    public DataPackPositionBatch(DataPackObject object, int capacity, int extraCapacity) {
+        super(object);
+        time = new long[capacity];
+        latitude = new int[capacity];
+        longitude = new int[capacity];
+        speed = new int[capacity];
+        direction = new int[capacity];
+        altitude = new int[capacity];
+        alarmFlags = new int[capacity];
+        statusFlags = new int[capacity];
+        extras = new byte[extraCapacity];
+        extraOffsets = new int[capacity + 1];
+    }
+
+    /**
+     * 添加一个位置
+     *
+     * @param alarmProps  报警标志
+     * @param statusProps 状态位
+     * @param position    位置基本信息
+     * @param buffer      附加信息所在的ByteBuf
+     * @param extraLength 附加信息长度
+     */
+    public void add(long alarmProps, long statusProps, JTT808Position position, ByteBuf buffer, int extraLength) {
+        if (size == time.length) {
+            grow(size + 1);
+        }
+        time[size] = position.getTimeMillis();
+        latitude[size] = position.getLatitudeMicros();
+        longitude[size] = position.getLongitudeMicros();
+        speed[size] = position.getSpeedTenths();
+        direction[size] = position.getDirection();
+        altitude[size] = position.getAltitude();
+        alarmFlags[size] = (int) alarmProps;
+        statusFlags[size] = (int) statusProps;
+
+        int offset = extraOffsets[size];
+        if (extras.length < offset + extraLength) {
+            extras = Arrays.copyOf(extras, Math.max(extras.length * 2, offset + extraLength));
+        }
+        buffer.readBytes(extras, offset, extraLength);
+        extraOffsets[++size] = offset + extraLength;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(time.length * 2, minCapacity);
+        time = Arrays.copyOf(time, capacity);
+        latitude = Arrays.copyOf(latitude, capacity);
+        longitude = Arrays.copyOf(longitude, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        altitude = Arrays.copyOf(altitude, capacity);
+        alarmFlags = Arrays.copyOf(alarmFlags, capacity);
+        statusFlags = Arrays.copyOf(statusFlags, capacity);
+        extraOffsets = Arrays.copyOf(extraOffsets, capacity + 1);
+    }
+
+    /**
+     * 位置数据类型，0：正常位置批量汇报，1：盲区补报
+     */
+    public int getPositionType() {
+        return positionType;
+    }
+
+    public void setPositionType(int positionType) {
+        this.positionType = positionType;
+    }
+
+    /**
+     * 位置个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 定位时间(毫秒数)，BCD码错误时为JTT808DataPackUtil.INVALID_TIME
+     */
+    public long[] getTime() {
+        return time;
+    }
+
+    /**
+     * 纬度(10^-6度)，南纬为负
+     */
+    public int[] getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * 经度(10^-6度)，西经为负
+     */
+    public int[] getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * 速度(1/10km/h)
+     */
+    public int[] getSpeed() {
+        return speed;
+    }
+
+    /**
+     * 方向(0~359)
+     */
+    public int[] getDirection() {
+        return direction;
+    }
+
+    /**
+     * 高程(m)
+     */
+    public int[] getAltitude() {
+        return altitude;
+    }
+
+    /**
+     * 报警标志(DWORD)，可以使用JTT808AlarmFlags解析
+     */
+    public int[] getAlarmFlags() {
+        return alarmFlags;
+    }
+
+    /**
+     * 状态位(DWORD)
+     */
+    public int[] getStatusFlags() {
+        return statusFlags;
+    }
+
+    /**
+     * 附加信息原始字节
+     */
+    public byte[] getExtras() {
+        return extras;
+    }
+
+    /**
+     * 附加信息偏移表，长度为size() + 1
+     */
+    public int[] getExtraOffsets() {
+        return extraOffsets;
+    }
+
+    /**
+     * 第index个位置的附加信息起始位置
+     *
+     * @param index 位置序号
+     * @return 偏移
+     */
+    public int getExtraOffset(int index) {
+        return extraOffsets[index];
+    }
+
+    /**
+     * 第index个位置的附加信息长度
+     *
+     * @param index 位置序号
+     * @return 长度
+     */
+    public int getExtraLength(int index) {
+        return extraOffsets[index + 1] - extraOffsets[index];
+    }
+}
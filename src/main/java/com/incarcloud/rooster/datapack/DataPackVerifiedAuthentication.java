@@ -0,0 +1,27 @@
+package com.incarcloud.rooster.datapack;
+
+/**
+ * 已使用AuthCodeStore验证的终端鉴权数据
+ *
+ * @author Aaric, created on 2017-09-24T11:10.
+ * @since 2.0
+ */
+public class DataPackVerifiedAuthentication extends DataPackAuthentication {
+
+    /**
+     * 鉴权码是否与终端注册时下发的一致(未失效)
+     */
+    private boolean verified;
+
+    public DataPackVerifiedAuthentication(DataPackObject object) {
+        super(object);
+    }
+
+    public boolean isVerified() {
+        return verified;
+    }
+
+    public void setVerified(boolean verified) {
+        this.verified = verified;
+    }
+}
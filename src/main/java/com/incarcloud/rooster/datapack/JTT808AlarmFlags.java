@@ -0,0 +1,197 @@
+package com.incarcloud.rooster.datapack;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * JTT808报警标志位<br>
+ *     参考“表 24 报警标志位定义”，报警名称和处理说明保存在按位索引的静态表中，
+ *     解析时只保存报警标志(int)，读取列表元素时才创建DataPackAlarm.Alarm对象(每个实例只创建一次)<br>
+ *     保留位(15~17)不在列表中；列表不可修改，序列化时只保存报警标志
+ *
+ * @author Aaric, created on 2017-09-16T14:10.
+ * @since 2.0
+ */
+public final class JTT808AlarmFlags extends AbstractList<DataPackAlarm.Alarm> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 报警处理：收到应答后清零
+     */
+    public static final String CLEAR_ON_RESPONSE = "收到应答后清零";
+
+    /**
+     * 报警处理：标志维持至报警条件解除
+     */
+    public static final String KEEP_UNTIL_RELEASED = "标志维持至报警条件解除";
+
+    /**
+     * 报警描述，数组下标为标志位
+     */
+    private static final Descriptor[] DESCRIPTORS = new Descriptor[32];
+
+    /**
+     * 已定义的标志位掩码
+     */
+    public static final int DEFINED_MASK;
+
+    static {
+        define(0, "紧急报警，触动报警开关后触发", CLEAR_ON_RESPONSE);
+        define(1, "超速报警", KEEP_UNTIL_RELEASED);
+        define(2, "疲劳驾驶", KEEP_UNTIL_RELEASED);
+        define(3, "危险预警", CLEAR_ON_RESPONSE);
+        define(4, "GNSS 模块发生故障", "志维持至报警条件解除");
+        define(5, "GNSS 天线未接或被剪断", KEEP_UNTIL_RELEASED);
+        define(6, "GNSS 天线短路", KEEP_UNTIL_RELEASED);
+        define(7, "终端主电源欠压", KEEP_UNTIL_RELEASED);
+        define(8, "终端主电源掉电", KEEP_UNTIL_RELEASED);
+        define(9, "终端 LCD 或显示器故障", KEEP_UNTIL_RELEASED);
+        define(10, "TTS 模块故障", KEEP_UNTIL_RELEASED);
+        define(11, "摄像头故障", KEEP_UNTIL_RELEASED);
+        define(12, "道路运输证 IC 卡模块故障", KEEP_UNTIL_RELEASED);
+        define(13, "超速预警", KEEP_UNTIL_RELEASED);
+        define(14, "疲劳驾驶预警", KEEP_UNTIL_RELEASED);
+        define(18, "当天累计驾驶超时", KEEP_UNTIL_RELEASED);
+        define(19, "超时停车", KEEP_UNTIL_RELEASED);
+        define(20, "进出区域", CLEAR_ON_RESPONSE);
+        define(21, "进出路线", CLEAR_ON_RESPONSE);
+        define(22, "路段行驶时间不足/过长", CLEAR_ON_RESPONSE);
+        define(23, "路线偏离报警", KEEP_UNTIL_RELEASED);
+        define(24, "车辆 VSS 故障", KEEP_UNTIL_RELEASED);
+        define(25, "车辆油量异常", KEEP_UNTIL_RELEASED);
+        define(26, "车辆被盗(通过车辆防盗器)", KEEP_UNTIL_RELEASED);
+        define(27, "车辆非法点火", CLEAR_ON_RESPONSE);
+        define(28, "车辆非法位移", CLEAR_ON_RESPONSE);
+        define(29, "碰撞预警", KEEP_UNTIL_RELEASED);
+        define(30, "侧翻预警", KEEP_UNTIL_RELEASED);
+        define(31, "非法开门报警（终端未设置区域时，不判断非法开门）", CLEAR_ON_RESPONSE);
+
+        int mask = 0;
+        for (int i = 0; i < DESCRIPTORS.length; i++) {
+            if (null != DESCRIPTORS[i]) {
+                mask |= 1 << i;
+            }
+        }
+        DEFINED_MASK = mask;
+    }
+
+    private static void define(int bit, String name, String desc) {
+        DESCRIPTORS[bit] = new Descriptor(bit, name, desc);
+    }
+
+    /**
+     * 获得报警描述
+     *
+     * @param bit 标志位(0~31)
+     * @return 报警描述，保留位返回null
+     */
+    public static Descriptor getDescriptor(int bit) {
+        return DESCRIPTORS[bit];
+    }
+
+    /**
+     * 报警标志(只包含已定义的标志位)
+     */
+    private final int flags;
+
+    /**
+     * 已创建的报警对象，第一次读取时创建
+     */
+    private transient DataPackAlarm.Alarm[] alarms;
+
+    /**
+     * 构造函数
+     *
+     * @param alarmProps 报警标志位(DWORD)
+     */
+    public JTT808AlarmFlags(long alarmProps) {
+        this.flags = (int) alarmProps & DEFINED_MASK;
+    }
+
+    /**
+     * 报警标志(只包含已定义的标志位)
+     */
+    public int getFlags() {
+        return flags;
+    }
+
+    /**
+     * 是否包含指定报警
+     *
+     * @param bit 标志位(0~31)
+     * @return true/false
+     */
+    public boolean isSet(int bit) {
+        return 0 != (flags & (1 << bit));
+    }
+
+    @Override
+    public int size() {
+        return Integer.bitCount(flags);
+    }
+
+    @Override
+    public DataPackAlarm.Alarm get(int index) {
+        if (0 > index || size() <= index) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        if (null == alarms) {
+            DataPackAlarm.Alarm[] array = new DataPackAlarm.Alarm[size()];
+            int remaining = flags;
+            for (int i = 0; 0 != remaining; i++) {
+                array[i] = DESCRIPTORS[Integer.numberOfTrailingZeros(remaining)].toAlarm();
+                remaining &= remaining - 1;
+            }
+            alarms = array;
+        }
+        return alarms[index];
+    }
+
+    /**
+     * 报警描述(不可变)
+     */
+    public static final class Descriptor {
+
+        private final int bit;
+        private final String name;
+        private final String desc;
+
+        private Descriptor(int bit, String name, String desc) {
+            this.bit = bit;
+            this.name = name;
+            this.desc = desc;
+        }
+
+        /**
+         * 标志位
+         */
+        public int getBit() {
+            return bit;
+        }
+
+        /**
+         * 报警名称
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 处理说明
+         */
+        public String getDesc() {
+            return desc;
+        }
+
+        /**
+         * 创建报警对象
+         *
+         * @return DataPackAlarm.Alarm
+         */
+        public DataPackAlarm.Alarm toAlarm() {
+            return new DataPackAlarm.Alarm(name, bit, desc);
+        }
+    }
+}
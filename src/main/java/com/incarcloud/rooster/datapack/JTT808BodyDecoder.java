@@ -0,0 +1,74 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+
+import java.util.List;
+
+/**
+ * JTT808消息体解码器<br>
+ *     输入JTT808Frame，直接在转义还原的数据帧上解析，输出DataPackTarget
+ *
+ * @author Aaric, created on 2017-09-06T15:30.
+ * @since 2.0
+ */
+public class JTT808BodyDecoder extends MessageToMessageDecoder<JTT808Frame> {
+
+    /**
+     * 解析器
+     */
+    private final DataParserJTT808 parser;
+
+    /**
+     * 是否自动回复终端(平台通用应答等)
+     */
+    private final boolean autoResponse;
+
+    /**
+     * 是否有待刷新的回复
+     */
+    private boolean responsePending;
+
+    public JTT808BodyDecoder() {
+        this(new DataParserJTT808(), true);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param parser       解析器
+     * @param autoResponse 是否自动回复终端
+     */
+    public JTT808BodyDecoder(DataParserJTT808 parser, boolean autoResponse) {
+        this.parser = parser;
+        this.autoResponse = autoResponse;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, JTT808Frame msg, List<Object> out) throws Exception {
+        // 解析消息体
+        List<DataPackTarget> dataPackTargetList = parser.extractBody(msg.getDataPack(), msg.content().duplicate());
+        if (null != dataPackTargetList) {
+            out.addAll(dataPackTargetList);
+        }
+
+        // 回复终端，从连接的分配器申请缓冲区，在本次读取完成后统一刷新
+        if (autoResponse) {
+            ByteBuf responseBuf = parser.createResponse(msg.getDataPack(), ERespReason.OK, ctx.alloc());
+            if (null != responseBuf) {
+                ctx.write(responseBuf);
+                responsePending = true;
+            }
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        if (responsePending) {
+            responsePending = false;
+            ctx.flush();
+        }
+        super.channelReadComplete(ctx);
+    }
+}
@@ -0,0 +1,127 @@
+package com.incarcloud.rooster.datapack;
+
+import com.incarcloud.rooster.gather.cmd.CommandType;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * JTT808下行消息编码器<br>
+ *     支持平台应答(JTT808Encoder.Response，直接编码到输出缓冲区)和平台命令(JTT808Encoder.Command)
+ *
+ * @author Aaric, created on 2017-09-06T16:10.
+ * @since 2.0
+ */
+public class JTT808Encoder extends MessageToByteEncoder<Object> {
+
+    /**
+     * 解析器
+     */
+    private final DataParserJTT808 parser;
+
+    /**
+     * 命令工厂
+     */
+    private final CommandFactoryJTT808 commandFactory;
+
+    public JTT808Encoder() {
+        this(new DataParserJTT808(), new CommandFactoryJTT808());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param parser         解析器
+     * @param commandFactory 命令工厂
+     */
+    public JTT808Encoder(DataParserJTT808 parser, CommandFactoryJTT808 commandFactory) {
+        this.parser = parser;
+        this.commandFactory = commandFactory;
+    }
+
+    @Override
+    public boolean acceptOutboundMessage(Object msg) throws Exception {
+        return msg instanceof Response || msg instanceof Command;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) throws Exception {
+        if (msg instanceof Response) {
+            // 平台应答，直接写入out
+            Response response = (Response) msg;
+            parser.writeResponse(response.getRequestPack(), response.getReason(), out);
+            return;
+        }
+
+        // 平台命令
+        ByteBuf buffer = null;
+        try {
+            Command command = (Command) msg;
+            buffer = commandFactory.createCommand(command.getType(), command.getArgs());
+            if (null != buffer) {
+                out.writeBytes(buffer);
+            }
+        } finally {
+            ReferenceCountUtil.release(buffer);
+        }
+    }
+
+    /**
+     * 平台应答
+     */
+    public static class Response {
+
+        /**
+         * 终端数据包
+         */
+        private final DataPack requestPack;
+
+        /**
+         * 应答原因
+         */
+        private final ERespReason reason;
+
+        public Response(DataPack requestPack, ERespReason reason) {
+            this.requestPack = requestPack;
+            this.reason = reason;
+        }
+
+        public DataPack getRequestPack() {
+            return requestPack;
+        }
+
+        public ERespReason getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * 平台命令
+     */
+    public static class Command {
+
+        /**
+         * 命令类型
+         */
+        private final CommandType type;
+
+        /**
+         * 命令参数，第一个为终端手机号
+         */
+        private final Object[] args;
+
+        public Command(CommandType type, Object... args) {
+            this.type = type;
+            this.args = args;
+        }
+
+        public CommandType getType() {
+            return type;
+        }
+
+        public Object[] getArgs() {
+            return args;
+        }
+    }
+}
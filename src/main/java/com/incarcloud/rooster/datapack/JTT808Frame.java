@@ -0,0 +1,70 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+
+/**
+ * JTT808数据帧<br>
+ *     同时持有转义的原始数据帧(DataPack)和转义还原并通过校验的数据帧，释放时一并释放
+ *
+ * @author Aaric, created on 2017-09-06T14:20.
+ * @since 2.0
+ */
+public class JTT808Frame extends AbstractReferenceCounted {
+
+    /**
+     * 数据包(转义的原始数据帧)
+     */
+    private final DataPack dataPack;
+
+    /**
+     * 转义的原始数据帧
+     */
+    private final ByteBuf escaped;
+
+    /**
+     * 转义还原的数据帧
+     */
+    private final ByteBuf content;
+
+    /**
+     * 构造函数，接管两个ByteBuf的引用计数
+     *
+     * @param dataPack 数据包
+     * @param escaped  转义的原始数据帧
+     * @param content  转义还原的数据帧
+     */
+    public JTT808Frame(DataPack dataPack, ByteBuf escaped, ByteBuf content) {
+        this.dataPack = dataPack;
+        this.escaped = escaped;
+        this.content = content;
+    }
+
+    public DataPack getDataPack() {
+        return dataPack;
+    }
+
+    /**
+     * 转义还原的数据帧，从起始标识位(0x7E)开始
+     *
+     * @return ByteBuf
+     */
+    public ByteBuf content() {
+        return content;
+    }
+
+    @Override
+    protected void deallocate() {
+        ReferenceCountUtil.release(content);
+        ReferenceCountUtil.release(escaped);
+    }
+
+    @Override
+    public ReferenceCounted touch(Object hint) {
+        content.touch(hint);
+        escaped.touch(hint);
+        return this;
+    }
+}
@@ -0,0 +1,91 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+import java.util.List;
+
+/**
+ * JTT808标识位(0x7E)分帧解码器<br>
+ *     输出包含首尾标识位、校验通过的转义数据帧(retainedSlice，不复制)，每个连接使用独立的实例<br>
+ *     校验失败时保留结束标识位作为下一个数据帧的起始标识位，与DataParserJTT808.extract()一致
+ *
+ * @author Aaric, created on 2017-09-06T14:35.
+ * @since 2.0
+ */
+public class JTT808FrameDecoder extends ByteToMessageDecoder {
+
+    /**
+     * 数据帧扫描器，保存未完整数据帧的扫描进度
+     */
+    private final JTT808FrameScanner scanner = new JTT808FrameScanner();
+
+    public JTT808FrameDecoder() {
+        this(JTT808FrameScanner.DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxFrameLength 数据帧最大长度(转义后，包含首尾标识位)
+     */
+    public JTT808FrameDecoder(int maxFrameLength) {
+        scanner.setMaxFrameLength(maxFrameLength);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        // 与DataParserJTT808.extract()相同的分帧和重新同步方式
+        int start, end;
+        while (in.isReadable()) {
+            start = in.readerIndex();
+
+            // 丢弃起始标识位之前的数据
+            if (JTT808FrameScanner.FLAG != in.getByte(start)) {
+                end = in.indexOf(start, in.writerIndex(), JTT808FrameScanner.FLAG);
+                if (-1 == end) {
+                    end = in.writerIndex();
+                }
+                scanner.discard(end - start);
+                in.readerIndex(end);
+                continue;
+            }
+
+            // 寻找0x7E结束点，同时计算校验码，从上一次停止的位置继续
+            end = scanner.scan(in, start);
+            if (-1 == end) {
+                if (scanner.getMaxFrameLength() <= in.writerIndex() - start) {
+                    // 数据帧超长，丢弃到最大长度之后的第一个0x7E，后面的数据帧继续解码
+                    end = in.indexOf(start + scanner.getMaxFrameLength(), in.writerIndex(), JTT808FrameScanner.FLAG);
+                    if (-1 == end) {
+                        end = in.writerIndex();
+                    }
+                    scanner.discardOversized(end - start);
+                    in.readerIndex(end);
+                    continue;
+                }
+                return;
+            }
+
+            // 校验失败(包括连续的标识位)，保留结束点0x7E作为下一个数据帧可能的起始标识位
+            if (!scanner.isValid()) {
+                scanner.discard(end - start);
+                in.readerIndex(end);
+                continue;
+            }
+
+            // 输出数据帧
+            out.add(in.retainedSlice(start, end - start + 1));
+            in.readerIndex(end + 1);
+        }
+    }
+
+    public long getDiscardedBytes() {
+        return scanner.getDiscardedBytes();
+    }
+
+    public long getOversizedFrames() {
+        return scanner.getOversizedFrames();
+    }
+}
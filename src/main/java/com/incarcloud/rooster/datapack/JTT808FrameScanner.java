@@ -0,0 +1,325 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * JTT808数据帧扫描器<br>
+ *     一次遍历完成：寻找0x7E结束标识位、还原0x7D转义、计算异或校验码，不产生任何逐字节对象<br>
+ *     每次读取8个字节，只在标识位和转义字符附近逐字节处理<br>
+ *     扫描器同时保存未完整数据帧的扫描进度，每个连接应使用独立的实例，后续数据到达时只扫描新增字节
+ *
+ * @author Aaric, created on 2017-09-04T09:12.
+ * @since 2.0
+ */
+public class JTT808FrameScanner {
+
+    /**
+     * 标识位
+     */
+    public static final byte FLAG = 0x7E;
+
+    /**
+     * 转义字符
+     */
+    public static final byte ESCAPE = 0x7D;
+
+    /**
+     * 8个标识位组成的64位字
+     */
+    private static final long FLAG_WORD = 0x7E7E7E7E7E7E7E7EL;
+
+    /**
+     * 8个转义字符组成的64位字
+     */
+    private static final long ESCAPE_WORD = 0x7D7D7D7D7D7D7D7DL;
+
+    /**
+     * 默认数据帧最大长度(转义后，包含首尾标识位)<br>
+     *     消息体最长1023字节，全部转义后约2K
+     */
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 1024 * 4;
+
+    /**
+     * 转义还原后的最小长度：消息头(12字节)+校验码
+     */
+    public static final int MIN_LENGTH = JTT808Header.LENGTH + 1;
+
+    /**
+     * 当前帧异或校验值(包含校验码本身，校验通过时为0)
+     */
+    private byte check;
+
+    /**
+     * 前一个字节是否为未配对的0x7D
+     */
+    private boolean escaped;
+
+    /**
+     * 转义还原后的字节数(包含校验码)
+     */
+    private int length;
+
+    /**
+     * 未完整数据帧所在的ByteBuf
+     */
+    private ByteBuf pendingBuffer;
+
+    /**
+     * 未完整数据帧起始标识位所在位置
+     */
+    private int pendingStart;
+
+    /**
+     * 未完整数据帧下一次扫描的位置
+     */
+    private int pendingIndex;
+
+    /**
+     * 数据帧最大长度
+     */
+    private int maxFrameLength = DEFAULT_MAX_FRAME_LENGTH;
+
+    /**
+     * 累计丢弃的字节数
+     */
+    private long discardedBytes;
+
+    /**
+     * 累计丢弃的超长数据帧数
+     */
+    private long oversizedFrames;
+
+    /**
+     * 重置扫描状态，开始一个新的数据帧
+     */
+    public void reset() {
+        check = 0x00;
+        escaped = false;
+        length = 0;
+        pendingBuffer = null;
+        pendingStart = 0;
+        pendingIndex = 0;
+    }
+
+    /**
+     * 从起始标识位之后开始扫描，寻找0x7E结束标识位<br>
+     *     如果上一次扫描在同一位置的数据帧不完整，则从上一次停止的位置继续扫描<br>
+     *     最多扫描到最大长度，返回-1且已接收字节数达到最大长度时表示数据帧超长
+     *
+     * @param buffer ByteBuf
+     * @param start  起始标识位(0x7E)所在位置
+     * @return 结束标识位所在位置，数据不完整返回-1
+     */
+    public int scan(ByteBuf buffer, int start) {
+        int from;
+        // 最多扫描maxFrameLength个字节
+        int end = Math.min(buffer.writerIndex(), start + maxFrameLength);
+        if (isPending(buffer, start)) {
+            // 继续扫描新增字节
+            from = pendingIndex;
+        } else {
+            // 新的数据帧
+            reset();
+            from = start + 1;
+        }
+
+        int offset = -1;
+        if (from < end) {
+            offset = scanWords(buffer, from, end);
+        }
+
+        if (-1 == offset) {
+            // 数据不完整，记录扫描进度
+            pendingBuffer = buffer;
+            pendingStart = start;
+            pendingIndex = Math.max(from, end);
+        } else {
+            // 扫描完成，不再持有ByteBuf
+            pendingBuffer = null;
+        }
+        return offset;
+    }
+
+    /**
+     * 按8个字节一组扫描<br>
+     *     不含标识位和转义字符的一组字节直接按64位异或累计，最后折叠为校验码，其余逐字节处理
+     *
+     * @param buffer ByteBuf
+     * @param from   开始位置
+     * @param end    结束位置(不含)
+     * @return 结束标识位所在位置，没有找到返回-1
+     */
+    private int scanWords(ByteBuf buffer, int from, int end) {
+        long word;
+        long fold = 0L;
+        int i = from;
+        int stop;
+        while (i < end) {
+            // 8个字节中没有0x7E和0x7D
+            if (!escaped && i + 8 <= end) {
+                word = buffer.getLong(i);
+                if (0L == (matchBytes(word, FLAG_WORD) | matchBytes(word, ESCAPE_WORD))) {
+                    fold ^= word;
+                    length += 8;
+                    i += 8;
+                    continue;
+                }
+            }
+
+            // 逐字节处理
+            stop = Math.min(end, i + 8);
+            for (; i < stop; i++) {
+                if (!processByte(buffer.getByte(i))) {
+                    check ^= foldWord(fold);
+                    return i;
+                }
+            }
+        }
+        check ^= foldWord(fold);
+        return -1;
+    }
+
+    /**
+     * 判断64位字中是否包含指定字节<br>
+     *     异或后为0x00的字节在(x - 0x01..01) &amp; ~x &amp; 0x80..80中对应位置为1
+     *
+     * @param word    64位字
+     * @param pattern 8个指定字节组成的64位字
+     * @return 0-不包含
+     */
+    private static long matchBytes(long word, long pattern) {
+        long x = word ^ pattern;
+        return (x - 0x0101010101010101L) & ~x & 0x8080808080808080L;
+    }
+
+    /**
+     * 64位异或累计值折叠为1个字节
+     *
+     * @param fold 累计值
+     * @return 异或值
+     */
+    private static byte foldWord(long fold) {
+        fold ^= fold >>> 32;
+        fold ^= fold >>> 16;
+        fold ^= fold >>> 8;
+        return (byte) fold;
+    }
+
+    /**
+     * 判断是否存在可以继续扫描的未完整数据帧<br>
+     *     ByteBuf被替换、读写位置被移动或者数据被覆盖时，重新扫描
+     *
+     * @param buffer ByteBuf
+     * @param start  起始标识位所在位置
+     * @return true-可以继续扫描
+     */
+    private boolean isPending(ByteBuf buffer, int start) {
+        return buffer == pendingBuffer
+                && start == pendingStart
+                && pendingIndex <= buffer.writerIndex()
+                && FLAG == buffer.getByte(start);
+    }
+
+    /**
+     * 处理一个字节
+     *
+     * @param value 字节
+     * @return false-遇到结束标识位
+     */
+    private boolean processByte(byte value) {
+        if (FLAG == value) {
+            // 结束标识位，未配对的0x7D按原值计入
+            if (escaped) {
+                check ^= ESCAPE;
+                length++;
+                escaped = false;
+            }
+            return false;
+        }
+
+        // 还原规则：0x7D0x01->0x7D, 0x7D0x02->0x7E
+        if (escaped) {
+            escaped = false;
+            if (0x01 == value) {
+                check ^= ESCAPE;
+                length++;
+                return true;
+            }
+            if (0x02 == value) {
+                check ^= FLAG;
+                length++;
+                return true;
+            }
+            // 非法转义，0x7D按原值计入
+            check ^= ESCAPE;
+            length++;
+        }
+
+        if (ESCAPE == value) {
+            escaped = true;
+        } else {
+            check ^= value;
+            length++;
+        }
+        return true;
+    }
+
+    /**
+     * 校验码是否正确<br>
+     *     校验码指从消息头开始，同后一字节异或，直到校验码前一个字节，因此连同校验码一起异或结果为0<br>
+     *     转义还原后不足消息头+校验码长度的数据帧无法解析和应答，同样视为无效
+     *
+     * @return true-正确
+     */
+    public boolean isValid() {
+        return MIN_LENGTH <= length && 0x00 == check;
+    }
+
+    /**
+     * 记录丢弃的字节
+     *
+     * @param bytes 字节数
+     */
+    public void discard(int bytes) {
+        discardedBytes += bytes;
+    }
+
+    /**
+     * 记录丢弃的超长数据帧
+     *
+     * @param bytes 丢弃的字节数
+     */
+    public void discardOversized(int bytes) {
+        oversizedFrames++;
+        discardedBytes += bytes;
+        reset();
+    }
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    public void setMaxFrameLength(int maxFrameLength) {
+        if (2 >= maxFrameLength) {
+            throw new IllegalArgumentException("maxFrameLength is too small");
+        }
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    public long getDiscardedBytes() {
+        return discardedBytes;
+    }
+
+    public long getOversizedFrames() {
+        return oversizedFrames;
+    }
+
+    /**
+     * 转义还原后的字节数(消息头+消息体+校验码，不含标识位)
+     *
+     * @return 字节数
+     */
+    public int getLength() {
+        return length;
+    }
+}
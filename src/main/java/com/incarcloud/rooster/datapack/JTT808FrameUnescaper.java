@@ -0,0 +1,55 @@
+package com.incarcloud.rooster.datapack;
+
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+
+import java.util.List;
+
+/**
+ * JTT808转义还原和校验解码器<br>
+ *     输入JTT808FrameDecoder输出的转义数据帧，输出JTT808Frame，校验失败的数据帧直接丢弃<br>
+ *     数据帧不含转义字节时直接共享原始数据，否则从ChannelHandlerContext的分配器申请缓冲区还原
+ *
+ * @author Aaric, created on 2017-09-06T15:02.
+ * @since 2.0
+ */
+public class JTT808FrameUnescaper extends MessageToMessageDecoder<ByteBuf> {
+
+    /**
+     * 校验扫描器
+     */
+    private final JTT808FrameScanner scanner = new JTT808FrameScanner();
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
+        // 最短的数据帧为首尾标识位+校验码
+        if (3 > msg.readableBytes()) {
+            return;
+        }
+
+        // 校验，数据帧长度已经由JTT808FrameDecoder限制，扫描整个数据帧
+        int start = msg.readerIndex();
+        scanner.setMaxFrameLength(msg.readableBytes());
+        if (-1 == scanner.scan(msg, start) || !scanner.isValid()) {
+            return;
+        }
+
+        // 转义还原
+        ByteBuf content;
+        if (scanner.getLength() + 2 == msg.readableBytes()) {
+            // 没有转义字节
+            content = msg.retainedDuplicate();
+        } else {
+            content = ctx.alloc().buffer(scanner.getLength() + 2);
+            JTT808DataPackUtil.unescape(msg, content);
+        }
+
+        // 打包
+        DataPackJTT808 dataPack = new DataPackJTT808();
+        dataPack.setBuf(msg);
+        dataPack.setFrame(content);
+        out.add(new JTT808Frame(dataPack, msg.retain(), content));
+    }
+}
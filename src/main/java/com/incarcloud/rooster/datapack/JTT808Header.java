@@ -0,0 +1,323 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ByteProcessor;
+
+/**
+ * JTT808消息头视图<br>
+ *     直接从转义的数据帧按固定偏移读取消息ID、消息体属性、终端手机号、消息流水号和消息包封装项，
+ *     不复制、不解析消息体，也不计算校验码，只有消息头范围内出现转义字符时才还原消息头<br>
+ *     实例可以重复使用(非线程安全)，用于路由、鉴权和元数据查询
+ *
+ * @author Aaric, created on 2017-09-14T09:50.
+ * @since 2.0
+ */
+public final class JTT808Header {
+
+    /**
+     * 消息头长度(不分包)
+     */
+    public static final int LENGTH = 12;
+
+    /**
+     * 消息头长度(分包)
+     */
+    public static final int SUB_PACK_LENGTH = 16;
+
+    /**
+     * 查找标识位或转义字符
+     */
+    private static final ByteProcessor FIND_FLAG_OR_ESCAPE = new ByteProcessor() {
+        @Override
+        public boolean process(byte value) throws Exception {
+            return JTT808FrameScanner.FLAG != value && JTT808FrameScanner.ESCAPE != value;
+        }
+    };
+
+    /**
+     * 转义还原的消息头，消息头包含转义字符时才分配
+     */
+    private ByteBuf unescaped;
+
+    private int msgId;
+    private int msgProps;
+    private int msgLength;
+    private long phoneBCD;
+    private int msgSeq;
+    private int subPackTotal;
+    private int subPackIndex;
+    private boolean reassembled;
+
+    /**
+     * 读取数据帧的消息头
+     *
+     * @param frame 转义的数据帧，从起始标识位(0x7E)开始
+     * @return 消息头，数据不完整或转义错误时返回null
+     */
+    public static JTT808Header peek(ByteBuf frame) {
+        JTT808Header header = new JTT808Header();
+        if (header.read(frame)) {
+            return header;
+        }
+        return null;
+    }
+
+    /**
+     * 读取数据帧的消息头，不改变读取位置
+     *
+     * @param frame 转义的数据帧，从起始标识位(0x7E)开始
+     * @return 数据不完整或转义错误时返回false
+     */
+    public boolean read(ByteBuf frame) {
+        int start = frame.readerIndex();
+        if (!frame.isReadable() || JTT808FrameScanner.FLAG != frame.getByte(start)) {
+            return false;
+        }
+
+        // 1.消息头范围内没有转义字符时直接读取
+        ByteBuf source = frame;
+        int offset = start + 1;
+        int end = Math.min(frame.writerIndex(), offset + SUB_PACK_LENGTH);
+        int length = end - offset;
+        int index = frame.forEachByte(offset, length, FIND_FLAG_OR_ESCAPE);
+        if (-1 != index) {
+            if (JTT808FrameScanner.FLAG == frame.getByte(index)) {
+                // 数据帧结束
+                length = index - offset;
+            } else {
+                // 2.转义还原消息头
+                length = unescape(frame, offset);
+                if (-1 == length) {
+                    return false;
+                }
+                source = unescaped;
+                offset = 0;
+            }
+        }
+        if (LENGTH > length) {
+            return false;
+        }
+
+        // 3.消息ID、消息体属性、终端手机号、消息流水号
+        msgId = source.getUnsignedShort(offset);
+        msgProps = source.getUnsignedShort(offset + 2);
+        msgLength = msgProps & 0x03FF;
+        phoneBCD = (long) source.getUnsignedShort(offset + 4) << 32 | source.getUnsignedInt(offset + 6);
+        msgSeq = source.getUnsignedShort(offset + 10);
+
+        // 4.消息包封装项
+        subPackTotal = 0;
+        subPackIndex = 0;
+        reassembled = false;
+        if (isSubPack()) {
+            if (SUB_PACK_LENGTH > length) {
+                return false;
+            }
+            subPackTotal = source.getUnsignedShort(offset + 12);
+            subPackIndex = source.getUnsignedShort(offset + 14);
+        }
+        return true;
+    }
+
+    /**
+     * 读取已转义还原的数据帧的消息头，不改变读取位置
+     *
+     * @param frame 转义还原的数据帧，从起始标识位(0x7E)开始
+     * @return 数据不完整时返回false
+     */
+    public boolean readUnescaped(ByteBuf frame) {
+        return readAt(frame, frame.readerIndex() + 1);
+    }
+
+    /**
+     * 读取消息(消息头+消息体，没有标识位和检验码，例如解压后的数据压缩上报)的消息头，不改变读取位置
+     *
+     * @param message 消息，从消息ID开始
+     * @return 数据不完整时返回false
+     */
+    public boolean readMessage(ByteBuf message) {
+        return readAt(message, message.readerIndex());
+    }
+
+    private boolean readAt(ByteBuf buffer, int offset) {
+        int length = buffer.writerIndex() - offset;
+        if (LENGTH > length) {
+            return false;
+        }
+        msgId = buffer.getUnsignedShort(offset);
+        msgProps = buffer.getUnsignedShort(offset + 2);
+        msgLength = msgProps & 0x03FF;
+        phoneBCD = (long) buffer.getUnsignedShort(offset + 4) << 32 | buffer.getUnsignedInt(offset + 6);
+        msgSeq = buffer.getUnsignedShort(offset + 10);
+        subPackTotal = 0;
+        subPackIndex = 0;
+        reassembled = false;
+        if (isSubPack()) {
+            if (SUB_PACK_LENGTH > length) {
+                return false;
+            }
+            subPackTotal = buffer.getUnsignedShort(offset + 12);
+            subPackIndex = buffer.getUnsignedShort(offset + 14);
+        }
+        return true;
+    }
+
+    /**
+     * 分包合并后改为第1个分包的消息头，消息体长度为完整消息体的长度
+     *
+     * @param firstSeq 第1个分包的流水号
+     * @param msgLength 完整消息体的长度
+     */
+    void reassemble(int firstSeq, int msgLength) {
+        this.msgSeq = firstSeq;
+        this.subPackIndex = 1;
+        this.msgLength = msgLength;
+        this.reassembled = true;
+    }
+
+    /**
+     * 转义还原消息头，最多16个字节
+     *
+     * @param frame 转义的数据帧
+     * @param offset 消息头起始位置
+     * @return 还原后的长度，转义错误返回-1
+     */
+    private int unescape(ByteBuf frame, int offset) {
+        if (null == unescaped) {
+            unescaped = Unpooled.wrappedBuffer(new byte[SUB_PACK_LENGTH]);
+        }
+        int limit = frame.writerIndex();
+        int length = 0;
+        byte b;
+        while (SUB_PACK_LENGTH > length && offset < limit) {
+            b = frame.getByte(offset++);
+            if (JTT808FrameScanner.FLAG == b) {
+                break;
+            }
+            if (JTT808FrameScanner.ESCAPE == b) {
+                if (offset == limit) {
+                    break;
+                }
+                b = frame.getByte(offset++);
+                if (0x01 == b) {
+                    b = JTT808FrameScanner.ESCAPE;
+                } else if (0x02 == b) {
+                    b = JTT808FrameScanner.FLAG;
+                } else {
+                    return -1;
+                }
+            }
+            unescaped.setByte(length++, b);
+        }
+        return length;
+    }
+
+    /**
+     * 消息ID
+     */
+    public int getMsgId() {
+        return msgId;
+    }
+
+    /**
+     * 消息体属性
+     */
+    public int getMsgProps() {
+        return msgProps;
+    }
+
+    /**
+     * 消息体长度(bit0~9)，分包合并后为完整消息体的长度
+     */
+    public int getMsgLength() {
+        return msgLength;
+    }
+
+    /**
+     * 数据加密方式(bit10~12)
+     */
+    public int getEncryptMode() {
+        return (msgProps >> 10) & 0x0007;
+    }
+
+    /**
+     * 是否分包(bit13)
+     */
+    public boolean isSubPack() {
+        return 0 != (msgProps & 0x2000);
+    }
+
+    /**
+     * 消息头长度(转义还原后)，12或16
+     */
+    public int getLength() {
+        return isSubPack() ? SUB_PACK_LENGTH : LENGTH;
+    }
+
+    /**
+     * 终端手机号的BCD码(6个字节)
+     */
+    public long getPhoneBCD() {
+        return phoneBCD;
+    }
+
+    /**
+     * 终端手机号的数值
+     *
+     * @return 数值，BCD码错误返回-1
+     */
+    public long getPhone() {
+        long phone = 0;
+        int digit;
+        for (int shift = 44; shift >= 0; shift -= 4) {
+            digit = (int) (phoneBCD >>> shift) & 0x0F;
+            if (9 < digit) {
+                return -1;
+            }
+            phone = phone * 10 + digit;
+        }
+        return phone;
+    }
+
+    /**
+     * 终端手机号(设备号)，12位字符串
+     */
+    public String getDeviceId() {
+        char[] chars = new char[12];
+        int digit;
+        for (int i = 0; i < chars.length; i++) {
+            digit = (int) (phoneBCD >>> (44 - 4 * i)) & 0x0F;
+            chars[i] = Character.forDigit(digit, 16);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 消息流水号
+     */
+    public int getMsgSeq() {
+        return msgSeq;
+    }
+
+    /**
+     * 消息总包数，不分包时为0
+     */
+    public int getSubPackTotal() {
+        return subPackTotal;
+    }
+
+    /**
+     * 包序号，不分包时为0
+     */
+    public int getSubPackIndex() {
+        return subPackIndex;
+    }
+
+    /**
+     * 是否为分包合并后的完整消息
+     */
+    public boolean isReassembled() {
+        return reassembled;
+    }
+}
@@ -0,0 +1,154 @@
+package com.incarcloud.rooster.datapack;
+
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import io.netty.buffer.ByteBuf;
+
+import java.util.Date;
+
+/**
+ * JTT808位置基本信息(纬度、经度、高程、速度、方向、时间)<br>
+ *     经纬度保存为带符号的百万分之一度整数，速度保存为1/10km/h整数，读取时不创建对象，
+ *     只有调用getLatitude/getLongitude/getSpeed时才换算为浮点数，结果与原BigDecimal保留6位小数一致，
+ *     时间保存为毫秒数，调用getTime时才创建Date<br>
+ *     实例可以重复使用(非线程安全)
+ *
+ * @author Aaric, created on 2017-09-16T09:40.
+ * @since 2.0
+ */
+public final class JTT808Position {
+
+    /**
+     * 经纬度单位：10^-6度
+     */
+    public static final double MICRO_DEGREE = 1e6;
+
+    /**
+     * 速度单位：1/10km/h
+     */
+    public static final float SPEED_UNIT = 0.1F;
+
+    /**
+     * 位置基本信息长度(纬度+经度+高程+速度+方向+时间)
+     */
+    public static final int LENGTH = 20;
+
+    private int latitude;
+    private int longitude;
+    private int altitude;
+    private int speed;
+    private int direction;
+    private long timeMillis;
+    private Date time;
+
+    /**
+     * 读取位置基本信息<br>
+     *     状态位bit2为1时南纬，bit3为1时西经，对应的经纬度取负值
+     *
+     * @param buffer ByteBuf
+     * @param statusProps 状态位
+     */
+    public void read(ByteBuf buffer, long statusProps) {
+        // 1.纬度
+        latitude = buffer.readInt();
+        if (0 != (statusProps & 0x04)) {
+            latitude = -latitude;
+        }
+        // 2.经度
+        longitude = buffer.readInt();
+        if (0 != (statusProps & 0x08)) {
+            longitude = -longitude;
+        }
+        // 3.高程
+        altitude = buffer.readUnsignedShort();
+        // 4.速度
+        speed = buffer.readUnsignedShort();
+        // 5.方向
+        direction = buffer.readUnsignedShort();
+        // 6.时间
+        timeMillis = JTT808DataPackUtil.readDateMillis(buffer);
+        time = null;
+    }
+
+    /**
+     * 百万分之一度换算为度
+     *
+     * @param microDegrees 百万分之一度
+     * @return 度
+     */
+    public static double toDegrees(int microDegrees) {
+        return microDegrees / MICRO_DEGREE;
+    }
+
+    /**
+     * 纬度(10^-6度)，南纬为负
+     */
+    public int getLatitudeMicros() {
+        return latitude;
+    }
+
+    /**
+     * 经度(10^-6度)，西经为负
+     */
+    public int getLongitudeMicros() {
+        return longitude;
+    }
+
+    /**
+     * 纬度(度)
+     */
+    public double getLatitude() {
+        return toDegrees(latitude);
+    }
+
+    /**
+     * 经度(度)
+     */
+    public double getLongitude() {
+        return toDegrees(longitude);
+    }
+
+    /**
+     * 高程(m)
+     */
+    public int getAltitude() {
+        return altitude;
+    }
+
+    /**
+     * 速度(1/10km/h)
+     */
+    public int getSpeedTenths() {
+        return speed;
+    }
+
+    /**
+     * 速度(km/h)
+     */
+    public float getSpeed() {
+        return speed * SPEED_UNIT;
+    }
+
+    /**
+     * 方向(0~359，正北为0，顺时针)
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * 时间(毫秒数)，BCD码错误时为JTT808DataPackUtil.INVALID_TIME
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * 时间，BCD码错误时为null
+     */
+    public Date getTime() {
+        if (null == time && JTT808DataPackUtil.INVALID_TIME != timeMillis) {
+            time = new Date(timeMillis);
+        }
+        return time;
+    }
+}
@@ -0,0 +1,258 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * JTT808位置附加信息(表 27)<br>
+ *     按附加信息ID索引的256项表格解析：内置附加信息(里程、油量、速度、信号强度、卫星数等)保存为无符号整数原始值，
+ *     读取时不创建对象；在传入的PositionExtraHandlerRegistry中注册了处理器的附加信息交给处理器；其他附加信息按长度跳过<br>
+ *     同一个附加信息ID出现多次时保留最后一次的值，实例可以重复使用(非线程安全)
+ *
+ * @author Aaric, created on 2017-09-22T14:30.
+ * @since 2.0
+ */
+public final class JTT808PositionExtras {
+
+    /**
+     * 附加信息ID
+     */
+    public static final int MILEAGE = 0x01;
+    public static final int FUEL = 0x02;
+    public static final int RECORD_SPEED = 0x03;
+    public static final int ALARM_EVENT_ID = 0x04;
+    public static final int OVERSPEED_ALARM = 0x11;
+    public static final int AREA_ALARM = 0x12;
+    public static final int ROUTE_TIME_ALARM = 0x13;
+    public static final int VEHICLE_SIGNAL_STATUS = 0x25;
+    public static final int IO_STATUS = 0x2A;
+    public static final int ANALOG = 0x2B;
+    public static final int SIGNAL_STRENGTH = 0x30;
+    public static final int SATELLITES = 0x31;
+
+    /**
+     * 内置附加信息的有效长度，按位表示(bit n：长度为n)，0表示不解析
+     */
+    private static final int[] LENGTHS = new int[256];
+
+    static {
+        LENGTHS[MILEAGE] = 1 << 4;
+        LENGTHS[FUEL] = 1 << 2;
+        LENGTHS[RECORD_SPEED] = 1 << 2;
+        LENGTHS[ALARM_EVENT_ID] = 1 << 2;
+        LENGTHS[OVERSPEED_ALARM] = 1 << 1 | 1 << 5;
+        LENGTHS[AREA_ALARM] = 1 << 6;
+        LENGTHS[ROUTE_TIME_ALARM] = 1 << 7;
+        LENGTHS[VEHICLE_SIGNAL_STATUS] = 1 << 4;
+        LENGTHS[IO_STATUS] = 1 << 2;
+        LENGTHS[ANALOG] = 1 << 4;
+        LENGTHS[SIGNAL_STRENGTH] = 1 << 1;
+        LENGTHS[SATELLITES] = 1 << 1;
+    }
+
+    /**
+     * 原始值，数组下标为附加信息ID
+     */
+    private final long[] values = new long[256];
+
+    /**
+     * 附加信息长度，数组下标为附加信息ID，-1表示没有
+     */
+    private final int[] lengths = new int[256];
+
+    /**
+     * 解析到的附加信息ID(按出现顺序，不重复)
+     */
+    private final int[] ids = new int[256];
+    private int size;
+
+    public JTT808PositionExtras() {
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = -1;
+        }
+    }
+
+    /**
+     * 读取位置附加信息，不使用附加信息处理器
+     *
+     * @param buffer        ByteBuf
+     * @param extraMsgTotal 附加信息长度
+     */
+    public void read(ByteBuf buffer, int extraMsgTotal) {
+        read(buffer, extraMsgTotal, null, null, null);
+    }
+
+    /**
+     * 读取位置附加信息，长度超出剩余数据时跳过剩余数据
+     *
+     * @param buffer             ByteBuf
+     * @param extraMsgTotal      附加信息长度
+     * @param handlers           附加信息处理器，为null时不使用
+     * @param dataPackPosition   位置信息，传给处理器
+     * @param dataPackTargetList 处理器的解析结果
+     */
+    public void read(ByteBuf buffer, int extraMsgTotal, PositionExtraHandlerRegistry handlers, DataPackPosition dataPackPosition, List<DataPackTarget> dataPackTargetList) {
+        clear();
+        int left = Math.min(extraMsgTotal, buffer.readableBytes());
+        int extraMsgId;
+        int extraMsgLength;
+        PositionExtraHandler handler;
+        while (2 <= left) {
+            // 1.附加信息ID、长度
+            extraMsgId = buffer.readUnsignedByte();
+            extraMsgLength = buffer.readUnsignedByte();
+            left -= 2;
+            if (extraMsgLength > left) {
+                break;
+            }
+            left -= extraMsgLength;
+
+            // 2.附加信息
+            handler = null == handlers ? null : handlers.get(extraMsgId);
+            if (null != handler) {
+                handler.handle(extraMsgId, buffer.slice(buffer.readerIndex(), extraMsgLength), dataPackPosition, dataPackTargetList);
+            } else if (0 != (LENGTHS[extraMsgId] & (1 << extraMsgLength))) {
+                set(extraMsgId, extraMsgLength, readUnsigned(buffer, buffer.readerIndex(), extraMsgLength));
+            }
+            buffer.skipBytes(extraMsgLength);
+        }
+        if (0 < left) {
+            buffer.skipBytes(left);
+        }
+    }
+
+    /**
+     * 清除附加信息
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            lengths[ids[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * 设置附加信息
+     *
+     * @param extraMsgId     附加信息ID
+     * @param extraMsgLength 附加信息长度
+     * @param value          原始值
+     */
+    public void set(int extraMsgId, int extraMsgLength, long value) {
+        if (-1 == lengths[extraMsgId]) {
+            ids[size++] = extraMsgId;
+        }
+        lengths[extraMsgId] = extraMsgLength;
+        values[extraMsgId] = value;
+    }
+
+    /**
+     * 附加信息个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 第index个附加信息的ID(按出现顺序)
+     */
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * 是否包含附加信息
+     */
+    public boolean has(int extraMsgId) {
+        return -1 != lengths[extraMsgId];
+    }
+
+    /**
+     * 附加信息长度，没有时返回-1
+     */
+    public int getLength(int extraMsgId) {
+        return lengths[extraMsgId];
+    }
+
+    /**
+     * 附加信息原始值(无符号，大端)，没有时返回0
+     */
+    public long getValue(int extraMsgId) {
+        return has(extraMsgId) ? values[extraMsgId] : 0;
+    }
+
+    /**
+     * 里程，1/10km
+     */
+    public long getMileage() {
+        return getValue(MILEAGE);
+    }
+
+    /**
+     * 油量，1/10L
+     */
+    public int getFuel() {
+        return (int) getValue(FUEL);
+    }
+
+    /**
+     * 行驶记录功能获取的速度，1/10km/h
+     */
+    public int getRecordSpeed() {
+        return (int) getValue(RECORD_SPEED);
+    }
+
+    /**
+     * 扩展车辆信号状态位
+     */
+    public long getVehicleSignalStatus() {
+        return getValue(VEHICLE_SIGNAL_STATUS);
+    }
+
+    /**
+     * IO状态位
+     */
+    public int getIoStatus() {
+        return (int) getValue(IO_STATUS);
+    }
+
+    /**
+     * 模拟量AD0(bit0-15)
+     */
+    public int getAnalog0() {
+        return (int) (getValue(ANALOG) & 0xFFFF);
+    }
+
+    /**
+     * 模拟量AD1(bit16-31)
+     */
+    public int getAnalog1() {
+        return (int) (getValue(ANALOG) >>> 16);
+    }
+
+    /**
+     * 无线通信网络信号强度
+     */
+    public int getSignalStrength() {
+        return (int) getValue(SIGNAL_STRENGTH);
+    }
+
+    /**
+     * GNSS定位卫星数
+     */
+    public int getSatellites() {
+        return (int) getValue(SATELLITES);
+    }
+
+    /**
+     * 读取无符号整数(大端，最多8个字节)
+     */
+    private static long readUnsigned(ByteBuf buffer, int index, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | buffer.getUnsignedByte(index + i);
+        }
+        return value;
+    }
+}
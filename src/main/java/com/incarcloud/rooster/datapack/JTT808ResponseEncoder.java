@@ -0,0 +1,192 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * JTT808平台应答编码<br>
+ *     第一遍计算检验码和转义后的长度，第二遍把消息头、消息体、检验码转义后直接写入分配的缓冲区，
+ *     不使用中间集合，也不分配其他对象<br>
+ *     应答内容：0x0100 - 终端注册应答(0x8100)，其他消息 - 平台通用应答(0x8001)，
+ *     0x0801 - 多媒体数据上传在通用应答前写入多媒体ID和重传包总数(与原实现一致，消息体属性中的长度仍为5)
+ *
+ * @author Aaric, created on 2017-09-23T09:40.
+ * @since 2.0
+ */
+public final class JTT808ResponseEncoder {
+
+    /**
+     * 标识位
+     */
+    private static final int FLAG = 0x7E;
+
+    /**
+     * 转义字符
+     */
+    private static final int ESCAPE = 0x7D;
+
+    /**
+     * 编码应答
+     *
+     * @param frame     转义还原的请求数据帧，索引0为起始标识位(0x7E)，不改变读取位置
+     * @param reason    应答结果
+     * @param authCode  鉴权码，只用于终端注册成功的应答
+     * @param allocator 缓冲区分配器
+     * @return 转义后的应答数据帧(包含首尾标识位)
+     */
+    public static ByteBuf encode(ByteBuf frame, ERespReason reason, byte[] authCode, ByteBufAllocator allocator) {
+        int start = frame.readerIndex();
+        int statusCode = statusCode(reason);
+        if (ERespReason.OK != reason) {
+            authCode = null;
+        }
+
+        // 1.计算检验码和转义后的长度
+        long state = writeContent(frame, start, statusCode, authCode, null);
+        int check = (int) (state & 0xFF);
+        int length = 1 + (int) (state >>> 8) + escapedLength(check) + 1;
+
+        // 2.写入
+        ByteBuf out = allocator.buffer(length, length);
+        write(frame, start, statusCode, authCode, check, out);
+        return out;
+    }
+
+    /**
+     * 计算应答转义后的长度(包含首尾标识位)
+     *
+     * @param frame    转义还原的请求数据帧，索引0为起始标识位(0x7E)
+     * @param reason   应答结果
+     * @param authCode 鉴权码，只用于终端注册成功的应答
+     * @return 长度
+     */
+    public static int length(ByteBuf frame, ERespReason reason, byte[] authCode) {
+        long state = writeContent(frame, frame.readerIndex(), statusCode(reason), ERespReason.OK == reason ? authCode : null, null);
+        return 1 + (int) (state >>> 8) + escapedLength((int) (state & 0xFF)) + 1;
+    }
+
+    /**
+     * 编码应答并写入out
+     *
+     * @param frame    转义还原的请求数据帧，索引0为起始标识位(0x7E)，不改变读取位置
+     * @param reason   应答结果
+     * @param authCode 鉴权码，只用于终端注册成功的应答
+     * @param out      输出，可写长度不小于length()
+     */
+    public static void encode(ByteBuf frame, ERespReason reason, byte[] authCode, ByteBuf out) {
+        int start = frame.readerIndex();
+        int statusCode = statusCode(reason);
+        if (ERespReason.OK != reason) {
+            authCode = null;
+        }
+
+        int check = (int) (writeContent(frame, start, statusCode, authCode, null) & 0xFF);
+        write(frame, start, statusCode, authCode, check, out);
+    }
+
+    /**
+     * 写入标识位、消息头+消息体、检验码、标识位
+     */
+    private static void write(ByteBuf frame, int start, int statusCode, byte[] authCode, int check, ByteBuf out) {
+        out.writeByte(FLAG);
+        writeContent(frame, start, statusCode, authCode, out);
+        writeEscaped(check, out);
+        out.writeByte(FLAG);
+    }
+
+    private static int statusCode(ERespReason reason) {
+        return ERespReason.OK == reason ? 0x00 : 0x01;
+    }
+
+    /**
+     * 写入消息头+消息体
+     *
+     * @param frame      请求数据帧
+     * @param start      请求数据帧的起始位置
+     * @param statusCode 结果
+     * @param authCode   鉴权码
+     * @param out        输出，为null时只计算
+     * @return 转义后的长度(高位)和检验码(低8位)
+     */
+    private static long writeContent(ByteBuf frame, int start, int statusCode, byte[] authCode, ByteBuf out) {
+        int msgId = frame.getUnsignedShort(start + 1);
+        int responseId;
+        int msgLength;
+        if (0x0100 == msgId) {
+            // 0x8100 - 终端注册应答：【应答流水号】+【结果】+【鉴权码】
+            responseId = 0x8100;
+            msgLength = null != authCode ? 3 + authCode.length & 0x01FF : 3;
+        } else {
+            // 0x8001 - 平台通用应答：【应答流水号】+【应答 ID】+【结果】
+            responseId = 0x8001;
+            msgLength = 5;
+        }
+        // 消息体属性：回复数据不分包、不加密
+        int msgProps = msgLength & 0xDFFF;
+
+        // 1.消息头：消息ID、消息体属性、终端手机号、消息流水号(同终端消息的流水号)
+        long state = 0;
+        state = writeByte(state, responseId >> 8, out);
+        state = writeByte(state, responseId, out);
+        state = writeByte(state, msgProps >> 8, out);
+        state = writeByte(state, msgProps, out);
+        state = writeFrame(state, frame, start + 5, 8, out);
+
+        // 2.消息体
+        if (0x0100 == msgId) {
+            state = writeFrame(state, frame, start + 11, 2, out);
+            state = writeByte(state, statusCode, out);
+            if (null != authCode) {
+                for (int i = 0; i < authCode.length; i++) {
+                    state = writeByte(state, authCode[i], out);
+                }
+            }
+            return state;
+        }
+        if (0x0801 == msgId) {
+            // 多媒体ID、重传包总数(默认不要求重传)
+            state = writeFrame(state, frame, start + 13, 2, out);
+            state = writeByte(state, 0x00, out);
+        }
+        state = writeFrame(state, frame, start + 11, 2, out);
+        state = writeFrame(state, frame, start + 1, 2, out);
+        return writeByte(state, statusCode, out);
+    }
+
+    private static long writeFrame(long state, ByteBuf frame, int index, int length, ByteBuf out) {
+        for (int i = 0; i < length; i++) {
+            state = writeByte(state, frame.getByte(index + i), out);
+        }
+        return state;
+    }
+
+    /**
+     * 写入一个字节，累计转义后的长度和检验码
+     */
+    private static long writeByte(long state, int value, ByteBuf out) {
+        value &= 0xFF;
+        if (null != out) {
+            writeEscaped(value, out);
+        }
+        return ((state >>> 8) + escapedLength(value)) << 8 | ((state ^ value) & 0xFF);
+    }
+
+    private static void writeEscaped(int value, ByteBuf out) {
+        if (ESCAPE == value) {
+            // 0x7D->0x7D0x01
+            out.writeByte(ESCAPE).writeByte(0x01);
+        } else if (FLAG == value) {
+            // 0x7E->0x7D0x02
+            out.writeByte(ESCAPE).writeByte(0x02);
+        } else {
+            out.writeByte(value);
+        }
+    }
+
+    private static int escapedLength(int value) {
+        return ESCAPE == value || FLAG == value ? 2 : 1;
+    }
+
+    private JTT808ResponseEncoder() {
+    }
+}
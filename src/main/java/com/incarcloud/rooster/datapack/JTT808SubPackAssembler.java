@@ -0,0 +1,444 @@
+package com.incarcloud.rooster.datapack;
+
+import com.incarcloud.rooster.gather.cmd.CommandType;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JTT808分包合并<br>
+ *     1.按(终端手机号, 消息ID, 第1个分包的流水号)缓存分包的消息体，全部到达后合并为一个完整消息体，只解析一次<br>
+ *     2.内存上限：缓存的消息体总字节数(包括按分包总数分配的分包引用)超过上限时，淘汰最久未收到分包的消息<br>
+ *     3.超时：超过指定时间没有收到新的分包时，向终端发送补传分包请求(0x8003)，超过重试次数后丢弃<br>
+ *     4.收到最后一个分包但中间有缺失时，立即发送补传分包请求<br>
+ *     可以被多个连接共享，缓存操作均为同步操作，补传分包请求在释放锁之后发送
+ *
+ * @author Aaric, created on 2017-09-18T09:20.
+ * @since 2.0
+ */
+public class JTT808SubPackAssembler implements Closeable {
+
+    /**
+     * 补传分包请求的处理(发送给终端)
+     */
+    public interface ReissueHandler {
+
+        /**
+         * 发送补传分包请求
+         *
+         * @param deviceId 终端手机号
+         * @param command  补传分包请求(0x8003)，处理方负责释放
+         */
+        void reissue(String deviceId, ByteBuf command);
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(JTT808SubPackAssembler.class);
+
+    /**
+     * 补传分包请求最多包含的分包数(重传包总数为BYTE)
+     */
+    private static final int MAX_REISSUE_COUNT = 0xFF;
+
+    /**
+     * 每个分包引用计入内存上限的字节数(按未压缩指针计算)
+     */
+    private static final int REFERENCE_SIZE = 8;
+
+    /**
+     * 缓存的消息，按最近收到分包的顺序排列
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+    /**
+     * 已创建、等待发送的补传分包请求
+     */
+    private final ArrayDeque<Reissue> reissues = new ArrayDeque<>();
+
+    private final long maxBytes;
+    private final long timeoutMillis;
+    private final int maxRetries;
+    private final Timer timer;
+    private final boolean ownTimer;
+
+    private final CommandFactoryJTT808 commandFactory = new CommandFactoryJTT808();
+    private ReissueHandler reissueHandler;
+
+    /**
+     * 当前缓存的字节数
+     */
+    private long bytes;
+
+    private long assembledMessages;
+    private long evictedMessages;
+    private long expiredMessages;
+    private long reissueRequests;
+
+    /**
+     * 构造函数，使用内部的HashedWheelTimer(守护线程)
+     *
+     * @param maxBytes      缓存的消息体总字节数上限，包括每个消息按分包总数分配的分包引用
+     * @param timeoutMillis 分包超时时间(毫秒)
+     * @param maxRetries    补传请求最大次数
+     */
+    public JTT808SubPackAssembler(long maxBytes, long timeoutMillis, int maxRetries) {
+        this(maxBytes, timeoutMillis, maxRetries, new HashedWheelTimer(new DefaultThreadFactory("jtt808-subpack", true), 100, TimeUnit.MILLISECONDS), true);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxBytes      缓存的消息体总字节数上限
+     * @param timeoutMillis 分包超时时间(毫秒)
+     * @param maxRetries    补传请求最大次数
+     * @param timer         定时器
+     */
+    public JTT808SubPackAssembler(long maxBytes, long timeoutMillis, int maxRetries, Timer timer) {
+        this(maxBytes, timeoutMillis, maxRetries, timer, false);
+    }
+
+    private JTT808SubPackAssembler(long maxBytes, long timeoutMillis, int maxRetries, Timer timer, boolean ownTimer) {
+        if (0 >= maxBytes || 0 >= timeoutMillis || 0 > maxRetries || null == timer) {
+            throw new IllegalArgumentException("maxBytes, timeoutMillis or maxRetries is invalid");
+        }
+        this.maxBytes = maxBytes;
+        this.timeoutMillis = timeoutMillis;
+        this.maxRetries = maxRetries;
+        this.timer = timer;
+        this.ownTimer = ownTimer;
+    }
+
+    /**
+     * 设置补传分包请求的处理，不设置时只等待超时
+     *
+     * @param reissueHandler 处理
+     */
+    public synchronized void setReissueHandler(ReissueHandler reissueHandler) {
+        this.reissueHandler = reissueHandler;
+    }
+
+    /**
+     * 添加一个分包<br>
+     *     全部分包到达后header改为第1个分包的消息头(消息体长度为完整消息体的长度)
+     *
+     * @param header 分包的消息头
+     * @param body   分包的消息体，后面紧跟检验码和结束标识位(与单包解析的数据一致)，不改变读取位置
+     * @return 完整消息体(后面同样保留检验码和结束标识位)，分包未全部到达时返回null
+     */
+    public ByteBuf offer(JTT808Header header, ByteBuf body) {
+        ByteBuf assembled = add(header, body);
+        sendReissues();
+        return assembled;
+    }
+
+    private synchronized ByteBuf add(JTT808Header header, ByteBuf body) {
+        int total = header.getSubPackTotal();
+        int index = header.getSubPackIndex();
+        int length = body.readableBytes() - 2;
+        // 分包总数来自终端，分包引用占用的内存同样不能超过上限
+        if (0 >= index || total < index || 0 > length || (long) total * REFERENCE_SIZE + length > maxBytes) {
+            JTT808Tracer.debug("--invalid sub pack: {}/{}", index, total);
+            return null;
+        }
+
+        // 1.查找或创建缓存
+        Key key = new Key(header.getPhoneBCD(), header.getMsgId(), (header.getMsgSeq() - index + 1) & 0xFFFF);
+        Entry entry = entries.get(key);
+        if (null == entry) {
+            entry = new Entry(key, header.getDeviceId(), total);
+            entries.put(key, entry);
+            bytes += entry.charge;
+            entry.timeout = timer.newTimeout(entry, timeoutMillis, TimeUnit.MILLISECONDS);
+        } else if (entry.fragments.length != total) {
+            JTT808Tracer.debug("--sub pack total mismatch: {}/{}", total, entry.fragments.length);
+            return null;
+        }
+
+        // 2.保存分包(重复的分包忽略)
+        if (null != entry.fragments[index - 1]) {
+            return null;
+        }
+        byte[] fragment = new byte[length];
+        body.getBytes(body.readerIndex(), fragment);
+        entry.fragments[index - 1] = fragment;
+        entry.received++;
+        entry.length += length;
+        entry.charge += length;
+        entry.lastActivity = System.currentTimeMillis();
+        bytes += length;
+
+        // 3.全部到达，合并
+        if (entry.received == total) {
+            remove(entry);
+            assembledMessages++;
+            // 复制到一个数组，不按分包总数创建组合缓冲区
+            byte[] assembled = new byte[entry.length + 2];
+            int offset = 0;
+            for (byte[] data : entry.fragments) {
+                System.arraycopy(data, 0, assembled, offset, data.length);
+                offset += data.length;
+            }
+            assembled[offset] = body.getByte(body.writerIndex() - 2);
+            assembled[offset + 1] = body.getByte(body.writerIndex() - 1);
+            header.reassemble(key.firstSeq, entry.length);
+            return Unpooled.wrappedBuffer(assembled);
+        }
+
+        // 4.超过内存上限，淘汰最久未收到分包的消息
+        evict();
+
+        // 5.收到最后一个分包但中间有缺失
+        if (index == total && entries.containsKey(key)) {
+            reissue(entry);
+        }
+        return null;
+    }
+
+    /**
+     * 淘汰消息直到不超过内存上限
+     */
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (maxBytes < bytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            entry.timeout.cancel();
+            bytes -= entry.charge;
+            evictedMessages++;
+            JTT808Tracer.debug("--sub pack evicted: {}", entry.deviceId);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.key);
+        entry.timeout.cancel();
+        bytes -= entry.charge;
+    }
+
+    /**
+     * 超时处理
+     *
+     * @param entry 缓存的消息
+     */
+    private synchronized void expire(Entry entry) {
+        if (entry != entries.get(entry.key)) {
+            return;
+        }
+        // 期间收到过新的分包，继续等待
+        long idle = System.currentTimeMillis() - entry.lastActivity;
+        if (timeoutMillis > idle) {
+            entry.timeout = timer.newTimeout(entry, timeoutMillis - idle, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (maxRetries <= entry.retries) {
+            remove(entry);
+            expiredMessages++;
+            JTT808Tracer.debug("--sub pack expired: {}", entry.deviceId);
+            return;
+        }
+        reissue(entry);
+        entry.lastActivity = System.currentTimeMillis();
+        entry.timeout = timer.newTimeout(entry, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 创建补传分包请求，释放锁之后由sendReissues()发送
+     *
+     * @param entry 缓存的消息
+     */
+    private void reissue(Entry entry) {
+        entry.retries++;
+        if (null == reissueHandler) {
+            return;
+        }
+        int[] missing = new int[Math.min(entry.fragments.length - entry.received, MAX_REISSUE_COUNT)];
+        for (int i = 0, count = 0; count < missing.length; i++) {
+            if (null == entry.fragments[i]) {
+                missing[count++] = i + 1;
+            }
+        }
+        try {
+            ByteBuf command = commandFactory.createCommand(CommandType.REISSUE_PACK, entry.deviceId, entry.key.firstSeq, missing.length, missing);
+            reissueRequests++;
+            reissues.add(new Reissue(reissueHandler, entry.deviceId, command));
+        } catch (Exception e) {
+            logger.error("create reissue command failed: {}", entry.deviceId, e);
+        }
+    }
+
+    /**
+     * 发送等待中的补传分包请求，不持有锁，处理方阻塞时不影响其他连接添加分包
+     */
+    private void sendReissues() {
+        Reissue reissue;
+        while (true) {
+            synchronized (this) {
+                reissue = reissues.poll();
+            }
+            if (null == reissue) {
+                return;
+            }
+            try {
+                reissue.handler.reissue(reissue.deviceId, reissue.command);
+            } catch (Exception e) {
+                logger.error("send reissue command failed: {}", reissue.deviceId, e);
+            }
+        }
+    }
+
+    /**
+     * 缓存的消息个数
+     */
+    public synchronized int getPendingMessages() {
+        return entries.size();
+    }
+
+    /**
+     * 缓存的字节数
+     */
+    public synchronized long getPendingBytes() {
+        return bytes;
+    }
+
+    /**
+     * 合并完成的消息个数
+     */
+    public synchronized long getAssembledMessages() {
+        return assembledMessages;
+    }
+
+    /**
+     * 超过内存上限被淘汰的消息个数
+     */
+    public synchronized long getEvictedMessages() {
+        return evictedMessages;
+    }
+
+    /**
+     * 超时丢弃的消息个数
+     */
+    public synchronized long getExpiredMessages() {
+        return expiredMessages;
+    }
+
+    /**
+     * 发送的补传分包请求个数
+     */
+    public synchronized long getReissueRequests() {
+        return reissueRequests;
+    }
+
+    /**
+     * 清空缓存，停止内部的定时器
+     */
+    @Override
+    public synchronized void close() {
+        for (Entry entry : entries.values()) {
+            entry.timeout.cancel();
+        }
+        entries.clear();
+        bytes = 0;
+        for (Reissue reissue : reissues) {
+            reissue.command.release();
+        }
+        reissues.clear();
+        if (ownTimer) {
+            timer.stop();
+        }
+    }
+
+    /**
+     * 缓存键：终端手机号(BCD)、消息ID、第1个分包的流水号
+     */
+    private static final class Key {
+
+        private final long phoneBCD;
+        private final int msgId;
+        private final int firstSeq;
+
+        private Key(long phoneBCD, int msgId, int firstSeq) {
+            this.phoneBCD = phoneBCD;
+            this.msgId = msgId;
+            this.firstSeq = firstSeq;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return phoneBCD == key.phoneBCD && msgId == key.msgId && firstSeq == key.firstSeq;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(phoneBCD) * 31 + (msgId << 16 | firstSeq);
+        }
+    }
+
+    /**
+     * 缓存的消息
+     */
+    private final class Entry implements TimerTask {
+
+        private final Key key;
+        private final String deviceId;
+        private final byte[][] fragments;
+        private int received;
+        private int length;
+
+        /**
+         * 计入内存上限的字节数：分包引用+已收到的消息体
+         */
+        private long charge;
+        private int retries;
+        private long lastActivity;
+        private Timeout timeout;
+
+        private Entry(Key key, String deviceId, int total) {
+            this.key = key;
+            this.deviceId = deviceId;
+            this.fragments = new byte[total][];
+            this.charge = (long) total * REFERENCE_SIZE;
+        }
+
+        @Override
+        public void run(Timeout timeout) throws Exception {
+            expire(this);
+            sendReissues();
+        }
+    }
+
+    /**
+     * 等待发送的补传分包请求
+     */
+    private static final class Reissue {
+
+        private final ReissueHandler handler;
+        private final String deviceId;
+        private final ByteBuf command;
+
+        private Reissue(ReissueHandler handler, String deviceId, ByteBuf command) {
+            this.handler = handler;
+            this.deviceId = deviceId;
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 位置附加信息处理器<br>
+ *     按附加信息ID注册到PositionExtraHandlerRegistry，用于解析保留(0x05~0x10)或自定义区域(0xE1~0xFF)的附加信息，
+ *     注册后优先于内置解析
+ *
+ * @author Aaric, created on 2017-09-22T14:10.
+ * @since 2.0
+ */
+public interface PositionExtraHandler {
+
+    /**
+     * 处理附加信息
+     *
+     * @param extraMsgId         附加信息ID
+     * @param value              附加信息内容，引用数据帧(不复制)，方法返回后不再有效
+     * @param dataPackPosition   位置信息
+     * @param dataPackTargetList 解析结果
+     */
+    void handle(int extraMsgId, ByteBuf value, DataPackPosition dataPackPosition, List<DataPackTarget> dataPackTargetList);
+}
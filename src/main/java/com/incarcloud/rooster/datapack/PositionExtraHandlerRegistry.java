@@ -0,0 +1,52 @@
+package com.incarcloud.rooster.datapack;
+
+/**
+ * 位置附加信息处理器注册表<br>
+ *     按附加信息ID直接索引数组，创建后传给PositionDecoder/PositionBatchDecoder，
+ *     不同的解码器可以使用不同的注册表<br>
+ *     注册应在解析开始前完成
+ *
+ * @author Aaric, created on 2017-09-24T16:10.
+ * @since 2.0
+ */
+public class PositionExtraHandlerRegistry {
+
+    /**
+     * 附加信息ID最大值
+     */
+    public static final int MAX_EXTRA_MSG_ID = 0xFF;
+
+    /**
+     * 附加信息处理器，数组下标为附加信息ID
+     */
+    private final PositionExtraHandler[] handlers = new PositionExtraHandler[MAX_EXTRA_MSG_ID + 1];
+
+    /**
+     * 注册附加信息处理器，已经存在时覆盖
+     *
+     * @param extraMsgId 附加信息ID(0x00~0xFF)
+     * @param handler    处理器，null表示取消注册
+     * @return 原来的处理器，没有时返回null
+     */
+    public PositionExtraHandler register(int extraMsgId, PositionExtraHandler handler) {
+        if (0 > extraMsgId || MAX_EXTRA_MSG_ID < extraMsgId) {
+            throw new IllegalArgumentException("extraMsgId out of range: 0x" + Integer.toHexString(extraMsgId));
+        }
+        PositionExtraHandler previous = handlers[extraMsgId];
+        handlers[extraMsgId] = handler;
+        return previous;
+    }
+
+    /**
+     * 获得附加信息处理器
+     *
+     * @param extraMsgId 附加信息ID
+     * @return 处理器，没有注册时返回null
+     */
+    public PositionExtraHandler get(int extraMsgId) {
+        if (0 <= extraMsgId && MAX_EXTRA_MSG_ID >= extraMsgId) {
+            return handlers[extraMsgId];
+        }
+        return null;
+    }
+}
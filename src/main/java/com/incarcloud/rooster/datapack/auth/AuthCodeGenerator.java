@@ -0,0 +1,19 @@
+package com.incarcloud.rooster.datapack.auth;
+
+/**
+ * 鉴权码生成<br>
+ *     终端注册(0x0100)成功时生成鉴权码，写入终端注册应答(0x8100)，实现类需要线程安全
+ *
+ * @author Aaric, created on 2017-09-24T09:30.
+ * @since 2.0
+ */
+public interface AuthCodeGenerator {
+
+    /**
+     * 生成鉴权码
+     *
+     * @param phoneBCD 终端手机号的BCD码(6个字节)
+     * @return 鉴权码
+     */
+    byte[] generate(long phoneBCD);
+}
@@ -0,0 +1,273 @@
+package com.incarcloud.rooster.datapack.auth;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 鉴权码存储(内存)<br>
+ *     以终端手机号的BCD码(long)为键，分段的开放寻址哈希表，键不装箱，
+ *     终端鉴权(0x0102)时一次查找即可验证；鉴权码超过有效期后失效，查找或扩容时清除<br>
+ *     每个分段单独加锁，线程安全
+ *
+ * @author Aaric, created on 2017-09-24T10:20.
+ * @since 2.0
+ */
+public class AuthCodeStore {
+
+    /**
+     * 分段数(2的幂)
+     */
+    private static final int SEGMENTS = 64;
+
+    /**
+     * 每个分段的初始容量(2的幂)
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * 有效期(毫秒)
+     */
+    private final long ttlMillis;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * 构造函数
+     *
+     * @param ttlMillis 有效期(毫秒)
+     */
+    public AuthCodeStore(long ttlMillis) {
+        if (0 >= ttlMillis) {
+            throw new IllegalArgumentException("ttlMillis must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * 保存鉴权码，已经存在时覆盖
+     *
+     * @param phoneBCD 终端手机号的BCD码
+     * @param authCode 鉴权码
+     */
+    public void put(long phoneBCD, byte[] authCode) {
+        if (null == authCode) {
+            throw new IllegalArgumentException("authCode is null");
+        }
+        long hash = hash(phoneBCD);
+        segment(hash).put(phoneBCD, (int) hash, authCode, System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * 获得鉴权码
+     *
+     * @param phoneBCD 终端手机号的BCD码
+     * @return 鉴权码，不存在或已失效返回null
+     */
+    public byte[] get(long phoneBCD) {
+        long hash = hash(phoneBCD);
+        return segment(hash).get(phoneBCD, (int) hash, System.currentTimeMillis());
+    }
+
+    /**
+     * 验证鉴权码
+     *
+     * @param phoneBCD 终端手机号的BCD码
+     * @param authCode 终端上报的鉴权码
+     * @return 是否一致
+     */
+    public boolean verify(long phoneBCD, byte[] authCode) {
+        byte[] expected = get(phoneBCD);
+        if (null == expected || null == authCode || expected.length != authCode.length) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < expected.length; i++) {
+            diff |= expected[i] ^ authCode[i];
+        }
+        return 0 == diff;
+    }
+
+    /**
+     * 验证鉴权码
+     *
+     * @param phoneBCD 终端手机号的BCD码
+     * @param authCode 终端上报的鉴权码(可读取部分)，不改变读取位置
+     * @return 是否一致
+     */
+    public boolean verify(long phoneBCD, ByteBuf authCode) {
+        byte[] expected = get(phoneBCD);
+        if (null == expected || null == authCode || expected.length != authCode.readableBytes()) {
+            return false;
+        }
+        int start = authCode.readerIndex();
+        int diff = 0;
+        for (int i = 0; i < expected.length; i++) {
+            diff |= expected[i] ^ authCode.getByte(start + i);
+        }
+        return 0 == diff;
+    }
+
+    /**
+     * 删除鉴权码(终端注销)
+     *
+     * @param phoneBCD 终端手机号的BCD码
+     * @return 是否存在
+     */
+    public boolean remove(long phoneBCD) {
+        long hash = hash(phoneBCD);
+        return segment(hash).remove(phoneBCD, (int) hash);
+    }
+
+    /**
+     * 鉴权码个数(包含已失效但还没有清除的)
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * 清除已失效的鉴权码
+     */
+    public void purge() {
+        long now = System.currentTimeMillis();
+        for (Segment segment : segments) {
+            segment.purge(now);
+        }
+    }
+
+    private Segment segment(long hash) {
+        return segments[(int) (hash >>> 58) & (SEGMENTS - 1)];
+    }
+
+    private static long hash(long phoneBCD) {
+        long hash = phoneBCD * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * 分段：线性探测的开放寻址哈希表，删除时后移填补空位
+     */
+    private static final class Segment {
+
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private byte[][] codes = new byte[INITIAL_CAPACITY][];
+        private long[] expires = new long[INITIAL_CAPACITY];
+        private int size;
+
+        synchronized void put(long key, int hash, byte[] code, long expire) {
+            int index = find(key, hash);
+            if (null == codes[index]) {
+                if ((size + 1) * 4 > keys.length * 3) {
+                    // 先清除已失效的，仍然不足时扩容
+                    purge(System.currentTimeMillis());
+                    if ((size + 1) * 4 > keys.length * 3) {
+                        resize(keys.length * 2);
+                    }
+                    index = find(key, hash);
+                }
+                size++;
+            }
+            keys[index] = key;
+            codes[index] = code;
+            expires[index] = expire;
+        }
+
+        synchronized byte[] get(long key, int hash, long now) {
+            int index = find(key, hash);
+            if (null == codes[index]) {
+                return null;
+            }
+            if (now >= expires[index]) {
+                delete(index);
+                return null;
+            }
+            return codes[index];
+        }
+
+        synchronized boolean remove(long key, int hash) {
+            int index = find(key, hash);
+            if (null == codes[index]) {
+                return false;
+            }
+            delete(index);
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void purge(long now) {
+            int i = 0;
+            while (i < keys.length) {
+                // 删除后当前位置可能被后面的项填补，需要再次检查
+                if (null != codes[i] && now >= expires[i]) {
+                    delete(i);
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        /**
+         * 查找键的位置
+         *
+         * @return 键所在位置，不存在时返回应插入的空位
+         */
+        private int find(long key, int hash) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (null != codes[index] && key != keys[index]) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        /**
+         * 删除位置index的项，把后面探测链上的项前移
+         */
+        private void delete(int index) {
+            int mask = keys.length - 1;
+            int hole = index;
+            int next = (hole + 1) & mask;
+            int home;
+            while (null != codes[next]) {
+                home = (int) hash(keys[next]) & mask;
+                // home不在(hole, next]之间时可以移到hole
+                if (hole < next ? (home <= hole || home > next) : (home <= hole && home > next)) {
+                    keys[hole] = keys[next];
+                    codes[hole] = codes[next];
+                    expires[hole] = expires[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            codes[hole] = null;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            byte[][] oldCodes = codes;
+            long[] oldExpires = expires;
+            keys = new long[capacity];
+            codes = new byte[capacity][];
+            expires = new long[capacity];
+            int index;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (null != oldCodes[i]) {
+                    index = find(oldKeys[i], (int) hash(oldKeys[i]));
+                    keys[index] = oldKeys[i];
+                    codes[index] = oldCodes[i];
+                    expires[index] = oldExpires[i];
+                }
+            }
+        }
+    }
+}
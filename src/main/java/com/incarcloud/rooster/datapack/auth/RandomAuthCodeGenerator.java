@@ -0,0 +1,66 @@
+package com.incarcloud.rooster.datapack.auth;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * 随机鉴权码生成<br>
+ *     格式与UUID.randomUUID().toString()相同(36个ASCII字符)，
+ *     每个线程使用独立的SecureRandom(SHA1PRNG，创建时从共享的SecureRandom取种子)，生成时不经过共享的锁，也不创建String
+ *
+ * @author Aaric, created on 2017-09-24T09:45.
+ * @since 2.0
+ */
+public class RandomAuthCodeGenerator implements AuthCodeGenerator {
+
+    /**
+     * 鉴权码长度
+     */
+    public static final int LENGTH = 36;
+
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    /**
+     * 种子来源(非阻塞)，只在线程第一次生成时使用
+     */
+    private static final SecureRandom SEED = new SecureRandom();
+
+    /**
+     * 每个线程的随机数生成器
+     */
+    private static final ThreadLocal<SecureRandom> RANDOM = new ThreadLocal<SecureRandom>() {
+        @Override
+        protected SecureRandom initialValue() {
+            try {
+                byte[] seed = new byte[32];
+                SEED.nextBytes(seed);
+                SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+                random.setSeed(seed);
+                return random;
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+    };
+
+    @Override
+    public byte[] generate(long phoneBCD) {
+        byte[] random = new byte[16];
+        RANDOM.get().nextBytes(random);
+        // 版本4，IETF变体
+        random[6] = (byte) (random[6] & 0x0F | 0x40);
+        random[8] = (byte) (random[8] & 0x3F | 0x80);
+
+        // xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx
+        byte[] authCode = new byte[LENGTH];
+        int index = 0;
+        for (int i = 0; i < random.length; i++) {
+            if (4 == i || 6 == i || 8 == i || 10 == i) {
+                authCode[index++] = '-';
+            }
+            authCode[index++] = HEX[(random[i] >> 4) & 0x0F];
+            authCode[index++] = HEX[random[i] & 0x0F];
+        }
+        return authCode;
+    }
+}
@@ -0,0 +1,79 @@
+package com.incarcloud.rooster.datapack.can;
+
+/**
+ * CAN信号定义(与DBC文件的SG_定义对应)<br>
+ *     物理值 = 原始值 * scale + offset<br>
+ *     起始位采用DBC约定：Intel(小端)为最低位的位置，Motorola(大端)为最高位的位置，位置 = 字节序号 * 8 + 字节内的位序号
+ *
+ * @author Aaric, created on 2017-09-21T10:20.
+ * @since 2.0
+ */
+public class CanSignal {
+
+    private final String name;
+    private final int canId;
+    private final int startBit;
+    private final int length;
+    private final boolean bigEndian;
+    private final boolean signed;
+    private final double scale;
+    private final double offset;
+
+    /**
+     * 构造函数
+     *
+     * @param name      信号名称
+     * @param canId     CAN总线ID(不含标志位)
+     * @param startBit  起始位(0~63)
+     * @param length    长度(1~64)
+     * @param bigEndian true：Motorola(大端)，false：Intel(小端)
+     * @param signed    是否有符号
+     * @param scale     精度
+     * @param offset    偏移
+     */
+    public CanSignal(String name, int canId, int startBit, int length, boolean bigEndian, boolean signed, double scale, double offset) {
+        if (0 > startBit || 63 < startBit || 0 >= length || 64 < length) {
+            throw new IllegalArgumentException("startBit or length out of range: " + name);
+        }
+        this.name = name;
+        this.canId = canId;
+        this.startBit = startBit;
+        this.length = length;
+        this.bigEndian = bigEndian;
+        this.signed = signed;
+        this.scale = scale;
+        this.offset = offset;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCanId() {
+        return canId;
+    }
+
+    public int getStartBit() {
+        return startBit;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isBigEndian() {
+        return bigEndian;
+    }
+
+    public boolean isSigned() {
+        return signed;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public double getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,211 @@
+package com.incarcloud.rooster.datapack.can;
+
+import com.incarcloud.rooster.datapack.DataPackCanBatch;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CAN信号解析器<br>
+ *     构造时按CAN ID预编译信号定义(移位、掩码、符号位)，
+ *     解析时每帧按8字节整数读取一次，信号值写入调用方提供的double数组，不分配对象<br>
+ *     输出数组的下标与构造时信号定义的顺序一致，线程安全
+ *
+ * @author Aaric, created on 2017-09-21T11:05.
+ * @since 2.0
+ */
+public final class CanSignalExtractor {
+
+    /**
+     * 信号名称(按定义顺序)
+     */
+    private final String[] names;
+
+    /**
+     * 排序后的CAN ID，第i个CAN ID的信号为[firstSignals[i], firstSignals[i + 1])
+     */
+    private final int[] canIds;
+    private final int[] firstSignals;
+
+    /**
+     * 预编译的信号(按CAN ID分组)
+     */
+    private final int[] outputs;
+    private final boolean[] bigEndians;
+    private final int[] shifts;
+    private final long[] masks;
+    private final int[] signShifts;
+    private final double[] scales;
+    private final double[] offsets;
+
+    /**
+     * 构造函数
+     *
+     * @param signals 信号定义
+     */
+    public CanSignalExtractor(List<CanSignal> signals) {
+        int count = signals.size();
+        names = new String[count];
+        outputs = new int[count];
+        bigEndians = new boolean[count];
+        shifts = new int[count];
+        masks = new long[count];
+        signShifts = new int[count];
+        scales = new double[count];
+        offsets = new double[count];
+
+        // 1.去重排序CAN ID
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = signals.get(i).getCanId() & DataPackCanBatch.ID_MASK;
+            names[i] = signals.get(i).getName();
+        }
+        Arrays.sort(ids);
+        int idCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (0 == idCount || ids[idCount - 1] != ids[i]) {
+                ids[idCount++] = ids[i];
+            }
+        }
+        canIds = Arrays.copyOf(ids, idCount);
+        firstSignals = new int[idCount + 1];
+
+        // 2.按CAN ID分组编译
+        int compiled = 0;
+        for (int i = 0; i < idCount; i++) {
+            firstSignals[i] = compiled;
+            for (int j = 0; j < count; j++) {
+                CanSignal signal = signals.get(j);
+                if (canIds[i] == (signal.getCanId() & DataPackCanBatch.ID_MASK)) {
+                    compile(compiled++, j, signal);
+                }
+            }
+        }
+        firstSignals[idCount] = compiled;
+    }
+
+    /**
+     * 编译信号定义
+     *
+     * @param index  编译后的位置
+     * @param output 输出数组下标
+     * @param signal 信号定义
+     */
+    private void compile(int index, int output, CanSignal signal) {
+        int startBit = signal.getStartBit();
+        int length = signal.getLength();
+        int shift;
+        if (signal.isBigEndian()) {
+            // Motorola：起始位为最高位，8字节按大端读取后，第0字节在整数的最高字节
+            shift = (7 - startBit / 8) * 8 + startBit % 8 - (length - 1);
+        } else {
+            // Intel：起始位为最低位，8字节按小端读取
+            shift = startBit;
+        }
+        if (0 > shift || 64 < shift + length) {
+            throw new IllegalArgumentException("signal out of frame: " + signal.getName());
+        }
+        outputs[index] = output;
+        bigEndians[index] = signal.isBigEndian();
+        shifts[index] = shift;
+        masks[index] = 64 == length ? -1L : (1L << length) - 1;
+        signShifts[index] = signal.isSigned() ? 64 - length : 0;
+        scales[index] = signal.getScale();
+        offsets[index] = signal.getOffset();
+    }
+
+    /**
+     * 信号个数，即输出数组的长度
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * 信号名称
+     *
+     * @param index 输出数组下标
+     * @return 名称
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * 信号的输出数组下标
+     *
+     * @param name 名称
+     * @return 下标，不存在返回-1
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解析一帧数据
+     *
+     * @param canId  CAN ID，忽略标志位
+     * @param data   CAN DATA
+     * @param offset 数据在data中的偏移，长度为8个字节
+     * @param values 信号值，只写入该CAN ID定义的信号
+     * @return 写入的信号个数
+     */
+    public int extract(int canId, byte[] data, int offset, double[] values) {
+        int group = Arrays.binarySearch(canIds, canId & DataPackCanBatch.ID_MASK);
+        if (0 > group) {
+            return 0;
+        }
+        long bigEndianWord = 0;
+        for (int i = 0; i < DataPackCanBatch.DATA_LENGTH; i++) {
+            bigEndianWord = (bigEndianWord << 8) | (data[offset + i] & 0xFF);
+        }
+        long littleEndianWord = Long.reverseBytes(bigEndianWord);
+
+        int end = firstSignals[group + 1];
+        long raw;
+        for (int i = firstSignals[group]; i < end; i++) {
+            raw = ((bigEndians[i] ? bigEndianWord : littleEndianWord) >>> shifts[i]) & masks[i];
+            if (0 != signShifts[i]) {
+                raw = (raw << signShifts[i]) >> signShifts[i];
+                values[outputs[i]] = raw * scales[i] + offsets[i];
+            } else {
+                values[outputs[i]] = toUnsignedDouble(raw) * scales[i] + offsets[i];
+            }
+        }
+        return end - firstSignals[group];
+    }
+
+    /**
+     * 解析一批数据，同一信号后面的帧覆盖前面的帧
+     *
+     * @param batch  CAN总线数据
+     * @param values 信号值，长度不小于size()
+     * @return 包含已定义信号的帧数
+     */
+    public int extract(DataPackCanBatch batch, double[] values) {
+        int[] ids = batch.getCanIds();
+        byte[] data = batch.getData();
+        int frames = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (0 < extract(ids[i], data, i * DataPackCanBatch.DATA_LENGTH, values)) {
+                frames++;
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * 无符号64位整数转换为double
+     */
+    private static double toUnsignedDouble(long value) {
+        if (0 <= value) {
+            return value;
+        }
+        return (double) (value >>> 1) * 2.0 + (value & 1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0107 - 查询终端属性应答
+ *
+ * @author Aaric, created on 2017-09-15T09:42.
+ * @since 2.0
+ */
+public class AttributesResponseDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0107 - 查询终端属性应答");
+        //--上报设备数据
+        DataPackDevice dataPackDevice = new DataPackDevice(dataPackObject);
+        // 1.终端类型
+        int terminalType = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("terminalType: {}", terminalType);
+        dataPackDevice.setTerminalType(terminalType);
+        // 2.制造商 ID
+        String terminalMakerId = JTT808DataPackUtil.readByteArray(buffer, 5);
+        JTT808Tracer.debug("terminalMakerId: {}", terminalMakerId);
+        dataPackDevice.setTerminalMakerId(terminalMakerId);
+        // 3.终端型号
+        String terminalModel = JTT808DataPackUtil.readByteArray(buffer, 20);
+        JTT808Tracer.debug("terminalModel: {}", terminalModel);
+        dataPackDevice.setTerminalModel(terminalModel);
+        // 4.终端 ID
+        String terminalId = JTT808DataPackUtil.readByteArray(buffer, 7);
+        JTT808Tracer.debug("terminalId: {}", terminalId);
+        dataPackDevice.setTerminalId(terminalId);
+        // 5.终端 SIM 卡 ICCID
+        String terminalSIMICCID = JTT808DataPackUtil.readBCD(buffer, 10);
+        JTT808Tracer.debug("terminalSIMICCID: {}", terminalSIMICCID);
+        dataPackDevice.setTerminalSIMICCID(terminalSIMICCID);
+        // 6.终端硬件版本号
+        String hardwareVersion = JTT808DataPackUtil.readString(buffer, JTT808DataPackUtil.readByte(buffer));
+        JTT808Tracer.debug("hardwareVersion: {}", hardwareVersion);
+        dataPackDevice.setHardwareVersion(hardwareVersion);
+        // 7.终端固件版本号
+        String firmwareVersion = JTT808DataPackUtil.readString(buffer, JTT808DataPackUtil.readByte(buffer));
+        JTT808Tracer.debug("firmwareVersion: {}", firmwareVersion);
+        dataPackDevice.setFirmwareVersion(firmwareVersion);
+        // 8.GNSS 模块属性
+        int gnssProps = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("gnssProps: {}", gnssProps);
+        // 8.1 支持 GPS 定位
+        if (1 == (gnssProps & 0x01)) {
+            dataPackDevice.setSupportGPS(true);
+        }
+        // 8.2 支持北斗定位
+        if (1 == ((gnssProps >> 1) & 0x01)) {
+            dataPackDevice.setSupportBeidou(true);
+        }
+        // 8.3 支持 GLONASS 定位
+        if (1 == ((gnssProps >> 2) & 0x01)) {
+            dataPackDevice.setSupportGlonass(true);
+        }
+        // 8.4 支持 Galileo 定位
+        if (1 == ((gnssProps >> 3) & 0x01)) {
+            dataPackDevice.setSupportGalileo(true);
+        }
+        // 9.通信模块属性
+        int communicationProps = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("communicationProps: {}", communicationProps);
+        // 9.1 支持GPRS通信
+        if (1 == (communicationProps & 0x01)) {
+            dataPackDevice.setSupportGPRS(true);
+        }
+        // 9.2 支持CDMA通信
+        if (1 == ((communicationProps >> 1) & 0x01)) {
+            dataPackDevice.setSupportCMDA(true);
+        }
+        // 9.3 支持TD-SCDMA通信
+        if (1 == ((communicationProps >> 2) & 0x01)) {
+            dataPackDevice.setSupportTDSCDMA(true);
+        }
+        // 9.4 支持WCDMA通信
+        if (1 == ((communicationProps >> 3) & 0x01)) {
+            dataPackDevice.setSupportWCDMA(true);
+        }
+        // 9.5 支持CDMA2000通信
+        if (1 == ((communicationProps >> 4) & 0x01)) {
+            dataPackDevice.setSupportCDMA2000(true);
+        }
+        // 9.6 支持TD-LTE通信
+        if (1 == ((communicationProps >> 5) & 0x01)) {
+            dataPackDevice.setSupportTDLTE(true);
+        }
+        //-add
+        dataPackTargetList.add(new DataPackTarget(dataPackDevice));
+    }
+}
@@ -0,0 +1,60 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.datapack.auth.AuthCodeStore;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0102 - 终端鉴权<br>
+ *     设置AuthCodeStore时使用终端注册时保存的鉴权码验证，输出DataPackVerifiedAuthentication
+ *
+ * @author Aaric, created on 2017-09-15T09:28.
+ * @since 2.0
+ */
+public class AuthenticationDecoder implements MessageBodyDecoder {
+
+    /**
+     * 鉴权码存储，为null时不验证
+     */
+    private final AuthCodeStore authCodeStore;
+
+    public AuthenticationDecoder() {
+        this(null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param authCodeStore 鉴权码存储，通常由DataParserJTT808.setAuthCodeStore注册
+     */
+    public AuthenticationDecoder(AuthCodeStore authCodeStore) {
+        this.authCodeStore = authCodeStore;
+    }
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0102 - 终端鉴权");
+        //--鉴权数据
+        DataPackAuthentication dataPackAuthentication;
+        if (null != authCodeStore) {
+            // 验证鉴权码(读取前直接比较原始字节)
+            DataPackVerifiedAuthentication dataPackVerifiedAuthentication = new DataPackVerifiedAuthentication(dataPackObject);
+            boolean verified = authCodeStore.verify(header.getPhoneBCD(), buffer.slice(buffer.readerIndex(), buffer.readableBytes() - 2));
+            JTT808Tracer.debug("verified: {}", verified);
+            dataPackVerifiedAuthentication.setVerified(verified);
+            dataPackAuthentication = dataPackVerifiedAuthentication;
+        } else {
+            dataPackAuthentication = new DataPackAuthentication(dataPackObject);
+        }
+        // 1.鉴权码
+        String authCode = JTT808DataPackUtil.readString(buffer);
+        JTT808Tracer.debug("authCode: {}", authCode);
+        dataPackAuthentication.setAuthCode(authCode);
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackAuthentication));
+    }
+}
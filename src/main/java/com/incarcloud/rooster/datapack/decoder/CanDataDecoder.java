@@ -0,0 +1,46 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0705 - CAN 总线数据上传<br>
+ *     输出一个DataPackCanBatch，信号解析见CanSignalExtractor
+ *
+ * @author Aaric, created on 2017-09-15T10:52.
+ * @since 2.0
+ */
+public class CanDataDecoder implements MessageBodyDecoder {
+
+    /**
+     * CAN 总线数据项长度：CAN ID(4) + CAN DATA(8)
+     */
+    private static final int ITEM_LENGTH = 4 + DataPackCanBatch.DATA_LENGTH;
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0705 - CAN 总线数据上传");
+        // 1.数据项个数
+        int canTotal = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("canTotal: {}", canTotal);
+        // 2.CAN 总线数据接收时间(hh-mm-ss-msms)
+        int canReceiveTime = JTT808DataPackUtil.readTimeOfDayMillis(buffer);
+        JTT808Tracer.debug("canReceiveTime: {}", canReceiveTime);
+        // 3.CAN 总线数据项，数据项个数以实际数据为准
+        int capacity = Math.min(canTotal, Math.max(buffer.readableBytes() - 2, 0) / ITEM_LENGTH);
+        DataPackCanBatch dataPackCanBatch = new DataPackCanBatch(dataPackObject, capacity);
+        dataPackCanBatch.setReceiveTime(canReceiveTime);
+        for (int i = 0; i < capacity; i++) {
+            // 3.1 CAN ID：bit31 通道号，bit30 帧类型，bit29 数据采集方式，bit28-bit0 CAN 总线 ID
+            // 3.2 CAN DATA
+            dataPackCanBatch.read(buffer);
+            JTT808Tracer.debug("canId: {}", dataPackCanBatch.getCanIds()[i] & 0xFFFFFFFFL);
+        }
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackCanBatch));
+    }
+}
@@ -0,0 +1,248 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 0x0901 - 数据压缩上报<br>
+ *     压缩消息体为GZIP压缩的一条或多条消息(消息头+消息体，没有标识位和检验码)，
+ *     解压后按消息ID交给注册表中的解码器解析(不再解析嵌套的数据压缩上报)<br>
+ *     Inflater从池中获取，解压结果直接写入ByteBufAllocator分配的缓冲区，超过最大长度时丢弃
+ *
+ * @author Aaric, created on 2017-09-15T11:34.
+ * @since 2.0
+ */
+public class CompressedDataDecoder implements MessageBodyDecoder {
+
+    /**
+     * 默认解压后最大长度
+     */
+    public static final int DEFAULT_MAX_INFLATED_LENGTH = 256 * 1024;
+
+    /**
+     * Inflater池的大小
+     */
+    private static final int INFLATER_POOL_SIZE = 16;
+
+    /**
+     * GZIP头标志位
+     */
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+
+    /**
+     * 解压后的消息使用的解码器
+     */
+    private final MessageBodyDecoderRegistry registry;
+
+    /**
+     * 解压后最大长度
+     */
+    private final int maxInflatedLength;
+
+    /**
+     * Inflater池(nowrap)
+     */
+    private final ArrayBlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(INFLATER_POOL_SIZE);
+
+    public CompressedDataDecoder(MessageBodyDecoderRegistry registry) {
+        this(registry, DEFAULT_MAX_INFLATED_LENGTH);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param registry          解压后的消息使用的解码器
+     * @param maxInflatedLength 解压后最大长度
+     */
+    public CompressedDataDecoder(MessageBodyDecoderRegistry registry, int maxInflatedLength) {
+        if (null == registry || 0 >= maxInflatedLength) {
+            throw new IllegalArgumentException("registry or maxInflatedLength is invalid");
+        }
+        this.registry = registry;
+        this.maxInflatedLength = maxInflatedLength;
+    }
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0901 - 数据压缩上报");
+        // 1.压缩消息长度
+        long gzipMsgLength = JTT808DataPackUtil.readDWord(buffer);
+        JTT808Tracer.debug("gzipMsgLength: {}", gzipMsgLength);
+        if (gzipMsgLength > buffer.readableBytes() - 2) {
+            JTT808Tracer.debug("--压缩消息长度错误");
+            return;
+        }
+
+        // 2.压缩消息体
+        ByteBuf inflated = inflate(buffer.readSlice((int) gzipMsgLength));
+        if (null == inflated) {
+            return;
+        }
+        try {
+            JTT808Tracer.debug("inflatedLength: {}", inflated.readableBytes() - 2);
+            decodeMessages(inflated, dataPackObject, dataPackTargetList);
+        } finally {
+            inflated.release();
+        }
+    }
+
+    /**
+     * 解析解压后的消息<br>
+     *     解码器按照数据帧的约定读取消息体(最后2个字节为检验码和结束标识位)，
+     *     因此每个消息体后面保留2个字节(下一条消息的开始或者末尾的填充)
+     *
+     * @param inflated           解压后的数据，末尾有2个字节的填充
+     * @param dataPackObject     基对象
+     * @param dataPackTargetList 解析结果
+     * @throws Exception
+     */
+    private void decodeMessages(ByteBuf inflated, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Header messageHeader = new JTT808Header();
+        int end = inflated.writerIndex() - 2;
+        int offset = inflated.readerIndex();
+        int bodyOffset;
+        while (offset < end) {
+            boolean complete = messageHeader.readMessage(inflated.slice(offset, end - offset));
+            bodyOffset = offset + messageHeader.getLength();
+            if (!complete || end < bodyOffset + messageHeader.getMsgLength()) {
+                JTT808Tracer.debug("--解压后的消息不完整");
+                return;
+            }
+            int msgId = messageHeader.getMsgId();
+            JTT808Tracer.debug("--msgId: {}", msgId);
+            MessageBodyDecoder decoder = registry.get(msgId);
+            if (null != decoder && !(decoder instanceof CompressedDataDecoder)) {
+                decoder.decode(inflated.slice(bodyOffset, messageHeader.getMsgLength() + 2), messageHeader, dataPackObject, dataPackTargetList);
+            }
+            offset = bodyOffset + messageHeader.getMsgLength();
+        }
+    }
+
+    /**
+     * 解压GZIP数据
+     *
+     * @param gzip GZIP数据
+     * @return 解压后的数据(末尾有2个字节的填充)，格式错误或者超过最大长度返回null
+     * @throws DataFormatException
+     */
+    private ByteBuf inflate(ByteBuf gzip) throws DataFormatException {
+        // 1.跳过GZIP头
+        int headerLength = skipHeader(gzip);
+        if (-1 == headerLength || 8 > gzip.readableBytes() - headerLength) {
+            JTT808Tracer.debug("--GZIP格式错误");
+            return null;
+        }
+        // 尾部ISIZE(小端)为解压后长度，作为初始容量
+        long size = gzip.getUnsignedIntLE(gzip.writerIndex() - 4);
+        if (maxInflatedLength < size) {
+            JTT808Tracer.debug("--解压后超过最大长度: {}", size);
+            return null;
+        }
+
+        // 2.压缩数据
+        ByteBuf input = gzip;
+        if (!gzip.hasArray()) {
+            input = ByteBufAllocator.DEFAULT.heapBuffer(gzip.readableBytes());
+            input.writeBytes(gzip, gzip.readerIndex(), gzip.readableBytes());
+        }
+        ByteBuf output = ByteBufAllocator.DEFAULT.heapBuffer((int) size + 2, maxInflatedLength + 2);
+        Inflater inflater = borrow();
+        try {
+            inflater.setInput(input.array(), input.arrayOffset() + input.readerIndex() + headerLength, input.readableBytes() - headerLength - 8);
+
+            // 3.解压
+            while (!inflater.finished()) {
+                if (!output.isWritable(1 + 2)) {
+                    if (maxInflatedLength <= output.readableBytes()) {
+                        JTT808Tracer.debug("--解压后超过最大长度: {}", maxInflatedLength);
+                        output.release();
+                        return null;
+                    }
+                    output.ensureWritable(Math.min(Math.max(output.readableBytes(), 256), maxInflatedLength - output.readableBytes()) + 2);
+                }
+                int count = inflater.inflate(output.array(), output.arrayOffset() + output.writerIndex(), output.writableBytes() - 2);
+                output.writerIndex(output.writerIndex() + count);
+                if (0 == count && (inflater.needsInput() || inflater.needsDictionary())) {
+                    JTT808Tracer.debug("--GZIP数据不完整");
+                    output.release();
+                    return null;
+                }
+            }
+            // 4.末尾填充2个字节
+            output.writeShort(0);
+            return output;
+        } catch (DataFormatException e) {
+            output.release();
+            throw e;
+        } finally {
+            release(inflater);
+            if (input != gzip) {
+                input.release();
+            }
+        }
+    }
+
+    /**
+     * 计算GZIP头的长度(RFC 1952)
+     *
+     * @param gzip GZIP数据
+     * @return 长度，格式错误返回-1
+     */
+    private static int skipHeader(ByteBuf gzip) {
+        int start = gzip.readerIndex();
+        int end = gzip.writerIndex();
+        if (10 > end - start || 0x1F8B != gzip.getUnsignedShort(start) || 8 != gzip.getUnsignedByte(start + 2)) {
+            return -1;
+        }
+        int flags = gzip.getUnsignedByte(start + 3);
+        int offset = start + 10;
+        if (0 != (flags & FEXTRA)) {
+            if (offset + 2 > end) {
+                return -1;
+            }
+            offset += 2 + gzip.getUnsignedShortLE(offset);
+        }
+        if (0 != (flags & FNAME)) {
+            offset = gzip.indexOf(offset, end, (byte) 0) + 1;
+            if (0 == offset) {
+                return -1;
+            }
+        }
+        if (0 != (flags & FCOMMENT)) {
+            offset = gzip.indexOf(offset, end, (byte) 0) + 1;
+            if (0 == offset) {
+                return -1;
+            }
+        }
+        if (0 != (flags & FHCRC)) {
+            offset += 2;
+        }
+        return offset <= end ? offset - start : -1;
+    }
+
+    private Inflater borrow() {
+        Inflater inflater = inflaters.poll();
+        if (null == inflater) {
+            inflater = new Inflater(true);
+        }
+        return inflater;
+    }
+
+    private void release(Inflater inflater) {
+        inflater.reset();
+        if (!inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+}
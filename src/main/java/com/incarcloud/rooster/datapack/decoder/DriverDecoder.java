@@ -0,0 +1,89 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 0x0702 - 驾驶员身份信息采集上报
+ *
+ * @author Aaric, created on 2017-09-15T10:38.
+ * @since 2.0
+ */
+public class DriverDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0702 - 驾驶员身份信息采集上报");
+        //--驾驶员数据
+        DataPackDriver dataPackDriver = new DataPackDriver(dataPackObject);
+        // 1.状态
+        int driverICStatus = JTT808DataPackUtil.readByte(buffer);
+        switch (driverICStatus) {
+            case 0x01:
+                // 0x01：从业资格证 IC 卡插入（驾驶员上班）
+                JTT808Tracer.debug("--从业资格证 IC 卡插入（驾驶员上班）");
+                break;
+            case 0x02:
+                // 0x02：从业资格证 IC 卡拔出（驾驶员下班）
+                JTT808Tracer.debug("--从业资格证 IC 卡拔出（驾驶员下班）");
+                break;
+        }
+        dataPackDriver.setDriverICStatus(driverICStatus);
+        // 2.时间
+        Date driverICTime = JTT808DataPackUtil.readDate(buffer);
+        JTT808Tracer.debug("driverICTime: {}", driverICTime);
+        dataPackDriver.setDriverICTime(driverICTime);
+        // 3.IC 卡读取结果
+        int driverICResult = JTT808DataPackUtil.readByte(buffer);
+        switch (driverICResult) {
+            case 0x00:
+                // 0x00：IC 卡读卡成功
+                JTT808Tracer.debug("--IC 卡读卡成功");
+                break;
+            case 0x01:
+                // 0x01：读卡失败，原因为卡片密钥认证未通过
+                JTT808Tracer.debug("--读卡失败，原因为卡片密钥认证未通过");
+                break;
+            case 0x02:
+                // 0x02：读卡失败，原因为卡片已被锁定
+                JTT808Tracer.debug("--读卡失败，原因为卡片已被锁定");
+                break;
+            case 0x03:
+                // 0x03：读卡失败，原因为卡片被拔出
+                JTT808Tracer.debug("--读卡失败，原因为卡片被拔出");
+                break;
+            case 0x04:
+                // 0x04：读卡失败，原因为数据校验错误
+                JTT808Tracer.debug("--读卡失败，原因为数据校验错误");
+                break;
+        }
+        dataPackDriver.setDriverICResult(driverICResult);
+        // 4.驾驶员姓名
+        int driverNameLength = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("driverNameLength: {}", driverNameLength);
+        String driverName = JTT808DataPackUtil.readString(buffer, driverNameLength);
+        JTT808Tracer.debug("driverName: {}", driverName);
+        dataPackDriver.setDriverName(driverName);
+        // 5.从业资格证编码
+        String driverCertCode = JTT808DataPackUtil.readString(buffer, 20);
+        JTT808Tracer.debug("driverCertCode: {}", driverCertCode);
+        dataPackDriver.setDriverCertCode(driverCertCode);
+        // 6.发证机构名称
+        int driverCertOrganizationLength = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("driverCertOrganizationLength: {}", driverCertOrganizationLength);
+        String driverCertOrganizationName = JTT808DataPackUtil.readString(buffer, driverCertOrganizationLength);
+        JTT808Tracer.debug("driverCertOrganizationName: {}", driverCertOrganizationName);
+        dataPackDriver.setDriverCertOrganizationName(driverCertOrganizationName);
+        // 7.证件有效期
+        Date driverCertExpireDate = JTT808DataPackUtil.readDateOnly(buffer);
+        JTT808Tracer.debug("driverCertExpireDate: {}", driverCertExpireDate);
+        dataPackDriver.setDriverCertExpireDate(driverCertExpireDate);
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackDriver));
+    }
+}
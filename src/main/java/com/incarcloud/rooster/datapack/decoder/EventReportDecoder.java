@@ -0,0 +1,31 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0301 - 事件报告
+ *
+ * @author Aaric, created on 2017-09-15T10:10.
+ * @since 2.0
+ */
+public class EventReportDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0301 - 事件报告");
+        //--结果数据
+        DataPackResult dataPackResult = new DataPackResult(dataPackObject);
+        // 1.事件 ID
+        int eventId = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("eventId: {}", eventId);
+        dataPackResult.setResultCode(eventId);
+        //-add
+        dataPackResult.setResultName("事件报告结果");
+        dataPackTargetList.add(new DataPackTarget(dataPackResult));
+    }
+}
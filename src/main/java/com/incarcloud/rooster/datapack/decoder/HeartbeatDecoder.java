@@ -0,0 +1,25 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0002 - 终端心跳
+ *
+ * @author Aaric, created on 2017-09-15T09:07.
+ * @since 2.0
+ */
+public class HeartbeatDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0002 - 终端心跳");
+        //--心跳数据
+        DataPackHeartbeat dataPackHeartbeat = new DataPackHeartbeat(dataPackObject);
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackHeartbeat));
+    }
+}
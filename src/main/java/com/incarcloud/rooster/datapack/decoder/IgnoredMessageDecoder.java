@@ -0,0 +1,32 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.DataPackObject;
+import com.incarcloud.rooster.datapack.DataPackTarget;
+import com.incarcloud.rooster.datapack.JTT808Header;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 不解析消息体的消息(0x0001终端通用应答、0x0700行驶记录仪数据上传、0x0701电子运单上报)
+ *
+ * @author Aaric, created on 2017-09-15T09:40.
+ * @since 2.0
+ */
+public class IgnoredMessageDecoder implements MessageBodyDecoder {
+
+    /**
+     * 消息名称
+     */
+    private final String name;
+
+    public IgnoredMessageDecoder(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## {}", name);
+    }
+}
@@ -0,0 +1,35 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0303 - 信息点播/取消
+ *
+ * @author Aaric, created on 2017-09-15T10:24.
+ * @since 2.0
+ */
+public class InfoDemandDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0303 - 信息点播/取消");
+        //--结果数据
+        DataPackResult dataPackResult = new DataPackResult(dataPackObject);
+        // 1.信息类型：0：删除终端全部信息项；1：更新菜单；2：追加菜单；3：修改菜单
+        int messageType = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("messageType: {}", messageType);
+        dataPackResult.setResultType(messageType);
+        // 2.点播/取消标志：0：取消；1：点播
+        int messageResult = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("messageResult: {}", messageResult);
+        dataPackResult.setResultCode(messageResult);
+        //-add
+        dataPackResult.setResultName("信息点播/取消结果");
+        dataPackTargetList.add(new DataPackTarget(dataPackResult));
+    }
+}
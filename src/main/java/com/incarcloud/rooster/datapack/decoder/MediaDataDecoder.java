@@ -0,0 +1,518 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.datapack.media.MediaSink;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 0x0801 - 多媒体数据上传<br>
+ *     默认多媒体数据以Base64保存在DataPackMedia中，设置MediaSink后每个分包直接写入存储，
+ *     只输出DataPackMediaFile(存储位置和写入范围)<br>
+ *     第n(n > 1)个分包的数据偏移为：第1个分包的数据长度(消息体去掉36字节多媒体头) + (n - 2) * 中间分包的数据长度，
+ *     兼容按消息体等长切分和按数据等长切分两种分包方式；偏移只由已收到的分包长度计算，
+ *     第1个分包(或计算偏移需要的中间分包)未到达时，先缓存分包数据，到达后再写入，全部分包写入后才完成<br>
+ *     设置JTT808SubPackAssembler时收到的是合并后的完整消息体，直接从偏移0写入<br>
+ *     设置MediaSink的解码器记录未完成的多媒体数据，应注册到应用自己的注册表(MessageBodyDecoderRegistry.createDefault())，
+ *     不同多媒体数据的分包并行写入，同一多媒体数据的分包依次写入；
+ *     超过超时时间没有收到新的分包或者超过最多记录个数被淘汰时，放弃未完成的多媒体数据(MediaSink.abort())
+ *
+ * @author Aaric, created on 2017-09-15T11:06.
+ * @since 2.0
+ */
+public class MediaDataDecoder implements MessageBodyDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaDataDecoder.class);
+
+    /**
+     * 默认超时时间(毫秒)，超过时间没有收到新的分包时放弃未完成的多媒体数据
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = 5 * 60 * 1000L;
+
+    /**
+     * 最多记录的未完成多媒体数据个数，超过时淘汰最久未收到分包的
+     */
+    private static final int MAX_PENDING_MEDIA = 10000;
+
+    /**
+     * 偏移未知的分包最多缓存的总字节数，超过时丢弃分包(多媒体数据不会完成)
+     */
+    private static final long MAX_BUFFERED_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * 多媒体数据存储，为null时使用Base64保存在DataPackMedia中
+     */
+    private final MediaSink mediaSink;
+
+    /**
+     * 超时时间(毫秒)
+     */
+    private final long idleTimeoutMillis;
+
+    /**
+     * 未完成的多媒体数据，键为终端手机号(BCD)和第1个分包的流水号，按最近收到分包的顺序排列，
+     * 只在设置MediaSink时创建，默认注册表中的解码器没有状态
+     */
+    private final LinkedHashMap<Long, Upload> uploads;
+
+    /**
+     * 缓存的分包总字节数
+     */
+    private final AtomicLong bufferedBytes;
+
+    public MediaDataDecoder() {
+        this(null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param mediaSink 多媒体数据存储
+     */
+    public MediaDataDecoder(MediaSink mediaSink) {
+        this(mediaSink, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param mediaSink         多媒体数据存储
+     * @param idleTimeoutMillis 超时时间(毫秒)，超过时间没有收到新的分包时调用MediaSink.abort()
+     */
+    public MediaDataDecoder(MediaSink mediaSink, long idleTimeoutMillis) {
+        if (0 >= idleTimeoutMillis) {
+            throw new IllegalArgumentException("idleTimeoutMillis is invalid");
+        }
+        this.mediaSink = mediaSink;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.uploads = null == mediaSink ? null : new LinkedHashMap<Long, Upload>(16, 0.75F, true);
+        this.bufferedBytes = null == mediaSink ? null : new AtomicLong();
+    }
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0801 - 多媒体数据上传");
+        boolean first = !header.isSubPack() || 1 == header.getSubPackIndex();
+        //--多媒体数据
+        DataPackMedia dataPackMedia = null == mediaSink ? new DataPackMedia(dataPackObject) : new DataPackMediaFile(dataPackObject);
+        long mediaId = -1;
+        // 第1个子包(或不分包)
+        if (first) {
+            // 1.多媒体数据 ID
+            mediaId = JTT808DataPackUtil.readDWord(buffer);
+            JTT808Tracer.debug("mediaId: {}", mediaId);
+            dataPackMedia.setmId(mediaId);
+            // 2.多媒体类型：0：图像；1：音频；2：视频；
+            int mediaClassify = JTT808DataPackUtil.readByte(buffer);
+            JTT808Tracer.debug("mediaClassify: {}", mediaClassify);
+            switch (mediaClassify) {
+                case 0x00:
+                    // 0：图像
+                    JTT808Tracer.debug("--图像");
+                    break;
+                case 0x01:
+                    // 1：音频
+                    JTT808Tracer.debug("--音频");
+                    break;
+                case 0x02:
+                    // 2：视频
+                    JTT808Tracer.debug("--视频");
+                    break;
+            }
+            dataPackMedia.setType(mediaClassify);
+            // 3.多媒体格式编码：0：JPEG；1：TIF；2：MP3；3：WAV；4：WMV；
+            int mediaFormat = JTT808DataPackUtil.readByte(buffer);
+            JTT808Tracer.debug("mediaFormat: {}", mediaFormat);
+            switch (mediaFormat) {
+                case 0x00:
+                    // 0：JPEG
+                    JTT808Tracer.debug("--JPEG");
+                    break;
+                case 0x01:
+                    // 1：TIF
+                    JTT808Tracer.debug("--TIF");
+                    break;
+                case 0x02:
+                    // 2：MP3
+                    JTT808Tracer.debug("--MP3");
+                    break;
+                case 0x03:
+                    // 3：WAV
+                    JTT808Tracer.debug("--WAV");
+                    break;
+                case 0x04:
+                    // 4：WMV
+                    JTT808Tracer.debug("--WMV");
+                    break;
+            }
+            dataPackMedia.setFormat(mediaFormat);
+            // 4.事件项编码：0：平台下发指令；1：定时动作；2：抢劫报警触发；3：碰撞侧翻报警触发；
+            int mediaEventCode = JTT808DataPackUtil.readByte(buffer);
+            JTT808Tracer.debug("mediaEventCode: {}", mediaEventCode);
+            switch (mediaEventCode) {
+                case 0x00:
+                    // 0：平台下发指令
+                    JTT808Tracer.debug("--平台下发指令");
+                    break;
+                case 0x01:
+                    // 1：定时动作
+                    JTT808Tracer.debug("--定时动作");
+                    break;
+                case 0x02:
+                    // 2：抢劫报警触发
+                    JTT808Tracer.debug("--抢劫报警触发");
+                    break;
+                case 0x03:
+                    // 3：碰撞侧翻报警触发
+                    JTT808Tracer.debug("--碰撞侧翻报警触发");
+                    break;
+            }
+            dataPackMedia.setEventCode(mediaEventCode);
+            // 5.通道 ID
+            int mediaChannelId = JTT808DataPackUtil.readByte(buffer);
+            JTT808Tracer.debug("mediaChannelId: {}", mediaChannelId);
+            dataPackMedia.setChannelId(mediaChannelId);
+            // 6.位置信息汇报(0x0200)消息体
+            // 6.1 报警标志位
+            long alarmProps = JTT808DataPackUtil.readDWord(buffer);
+            JTT808Tracer.debug("alarmProps: {}", alarmProps);
+            // 6.2 状态位
+            long statusProps = JTT808DataPackUtil.readDWord(buffer);
+            JTT808Tracer.debug("statusProps: {}", statusProps);
+            // 6.3 位置数据
+            DataPackPosition dataPackPosition = JTT808DataPackUtil.readPosition(buffer, dataPackObject, statusProps);
+            //--add
+            dataPackTargetList.add(new DataPackTarget(dataPackPosition));
+            //--多媒体位置
+            dataPackMedia.setPosition(dataPackPosition);
+
+            // 6.4 解析报警标志位
+            List<DataPackAlarm.Alarm> alarmList = JTT808DataPackUtil.detailAlarmProps(alarmProps);
+            if (null != alarmList && 0 < alarmList.size()) {
+                DataPackAlarm dataPackAlarm = new DataPackAlarm(dataPackObject);
+                dataPackAlarm.setPosition(dataPackPosition);
+                dataPackAlarm.setAlarmList(alarmList);
+                //--add
+                dataPackTargetList.add(new DataPackTarget(dataPackAlarm));
+            }
+        }
+
+        // 7.多媒体数据包
+        if (null == mediaSink) {
+            byte[] mediaBytes = JTT808DataPackUtil.readBytes(buffer, buffer.readableBytes() - 2);
+            JTT808Tracer.debug("mediaBytes: {}", mediaBytes.length);
+            dataPackMedia.setData(Base64.getEncoder().encodeToString(mediaBytes));
+        } else {
+            writeMedia(buffer, header, (DataPackMediaFile) dataPackMedia, first, mediaId);
+        }
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackMedia));
+    }
+
+    /**
+     * 多媒体数据写入MediaSink<br>
+     *     uploads只在查找、创建和淘汰时加锁，分包的记录和写入只锁定各自的Upload，不同多媒体数据并行写入
+     *
+     * @param buffer        数据帧
+     * @param header        消息头
+     * @param dataPackMedia 多媒体数据
+     * @param first         是否为第1个分包
+     * @param mediaId       多媒体数据ID，只在第1个分包中
+     * @throws Exception
+     */
+    private void writeMedia(ByteBuf buffer, JTT808Header header, DataPackMediaFile dataPackMedia, boolean first, long mediaId) throws Exception {
+        int length = buffer.readableBytes() - 2;
+
+        // 1.不分包或已合并，直接写入
+        if (!header.isSubPack() || header.isReassembled()) {
+            String location = mediaSink.write(header.getDeviceId(), mediaId, 0, buffer.readSlice(length));
+            JTT808Tracer.debug("mediaLocation: {}", location);
+            mediaSink.finish(header.getDeviceId(), mediaId);
+            dataPackMedia.setLocation(location);
+            dataPackMedia.setLength(length);
+            dataPackMedia.setComplete(true);
+            return;
+        }
+
+        // 2.分包，查找或创建记录
+        int index = header.getSubPackIndex();
+        int total = header.getSubPackTotal();
+        int firstSeq = (header.getMsgSeq() - index + 1) & 0xFFFF;
+        Long key = header.getPhoneBCD() << 16 | firstSeq;
+        Upload upload;
+        List<Upload> removed = new ArrayList<>(1);
+        synchronized (uploads) {
+            long now = System.currentTimeMillis();
+            upload = uploads.get(key);
+            if (null == upload) {
+                upload = new Upload(key, header.getDeviceId(), total);
+                uploads.put(key, upload);
+            }
+            upload.lastActivity = now;
+            evict(now, removed);
+        }
+        for (Upload evicted : removed) {
+            abort(evicted);
+        }
+        dataPackMedia.setLength(length);
+        dataPackMedia.setOffset(-1);
+
+        boolean complete;
+        synchronized (upload) {
+            if (upload.closed || total != upload.total || upload.isReceived(index)) {
+                // 已完成或被淘汰、分包总数不一致、重复的分包
+                JTT808Tracer.debug("--media sub pack ignored: {}/{}", index, total);
+                return;
+            }
+
+            // 2.1 记录分包长度，第1个分包记录多媒体数据ID
+            if (first) {
+                upload.firstLength = length;
+                upload.mediaId = mediaId;
+            } else if (index != total && 0 > upload.middleLength) {
+                upload.middleLength = length;
+            }
+
+            // 2.2 偏移未知，缓存分包数据
+            long offset = upload.offset(index);
+            if (0 > offset) {
+                if (MAX_BUFFERED_BYTES < bufferedBytes.addAndGet(length)) {
+                    bufferedBytes.addAndGet(-length);
+                    JTT808Tracer.debug("--media sub pack dropped: {}/{}", index, total);
+                    return;
+                }
+                byte[] data = new byte[length];
+                buffer.readBytes(data);
+                upload.buffer(index, data);
+                return;
+            }
+
+            // 2.3 写入，之后写入偏移已经可以计算的缓存分包(偏移已知时第1个分包已经到达，多媒体数据ID已知)
+            String location = mediaSink.write(header.getDeviceId(), upload.mediaId, offset, buffer.readSlice(length));
+            JTT808Tracer.debug("mediaLocation: {}", location);
+            upload.written(index);
+            flush(header.getDeviceId(), upload);
+            dataPackMedia.setmId(upload.mediaId);
+            dataPackMedia.setLocation(location);
+            dataPackMedia.setOffset(offset);
+
+            // 2.4 全部分包写入完成
+            complete = upload.isComplete();
+            if (complete) {
+                upload.closed = true;
+                mediaSink.finish(header.getDeviceId(), upload.mediaId);
+                dataPackMedia.setComplete(true);
+            }
+        }
+        if (complete) {
+            synchronized (uploads) {
+                uploads.remove(key, upload);
+            }
+        }
+    }
+
+    /**
+     * 写入偏移已经可以计算的缓存分包，调用时持有upload的锁
+     */
+    private void flush(String deviceId, Upload upload) throws Exception {
+        Iterator<Fragment> iterator = upload.fragments.iterator();
+        while (iterator.hasNext()) {
+            Fragment fragment = iterator.next();
+            long offset = upload.offset(fragment.index);
+            if (0 <= offset) {
+                iterator.remove();
+                bufferedBytes.addAndGet(-fragment.data.length);
+                mediaSink.write(deviceId, upload.mediaId, offset, Unpooled.wrappedBuffer(fragment.data));
+                upload.written(fragment.index);
+            }
+        }
+    }
+
+    /**
+     * 清理超时的多媒体数据<br>
+     *     收到分包时会清理，没有新的分包时可以定时调用
+     */
+    public void expire() {
+        if (null == uploads) {
+            return;
+        }
+        List<Upload> removed = new ArrayList<>();
+        synchronized (uploads) {
+            evict(System.currentTimeMillis(), removed);
+        }
+        for (Upload upload : removed) {
+            abort(upload);
+        }
+    }
+
+    /**
+     * 移除超时和超过最多记录个数时最久未收到分包的记录，调用时持有uploads的锁
+     *
+     * @param now     当前时间
+     * @param removed 移除的记录
+     */
+    private void evict(long now, List<Upload> removed) {
+        Iterator<Upload> iterator = uploads.values().iterator();
+        while (iterator.hasNext()) {
+            Upload eldest = iterator.next();
+            if (MAX_PENDING_MEDIA >= uploads.size() && idleTimeoutMillis > now - eldest.lastActivity) {
+                return;
+            }
+            iterator.remove();
+            removed.add(eldest);
+            JTT808Tracer.debug("--media upload evicted: {}", Long.toHexString(eldest.key));
+        }
+    }
+
+    /**
+     * 放弃移除的记录，释放缓存的分包，已经写入的数据通知MediaSink放弃
+     */
+    private void abort(Upload upload) {
+        synchronized (upload) {
+            if (upload.closed) {
+                return;
+            }
+            upload.closed = true;
+            for (Fragment fragment : upload.fragments) {
+                bufferedBytes.addAndGet(-fragment.data.length);
+            }
+            upload.fragments.clear();
+            if (0 < upload.writtenCount) {
+                try {
+                    mediaSink.abort(upload.deviceId, upload.mediaId);
+                } catch (IOException e) {
+                    logger.error("abort media failed: {}", upload.deviceId, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 未完成的多媒体数据
+     */
+    private static final class Upload {
+
+        /**
+         * 终端手机号(BCD)和第1个分包的流水号
+         */
+        private final long key;
+        private final String deviceId;
+
+        /**
+         * 分包总数
+         */
+        private final int total;
+
+        /**
+         * 已完成或已被淘汰，之后收到的分包忽略
+         */
+        private boolean closed;
+
+        /**
+         * 最近收到分包的时间
+         */
+        private long lastActivity;
+
+        /**
+         * 多媒体数据ID，第1个分包未收到时为-1
+         */
+        private long mediaId = -1;
+
+        /**
+         * 第1个分包和中间分包的数据长度，未收到时为-1
+         */
+        private int firstLength = -1;
+        private int middleLength = -1;
+
+        /**
+         * 已写入的分包序号
+         */
+        private final BitSet written = new BitSet();
+        private int writtenCount;
+
+        /**
+         * 偏移未知的分包
+         */
+        private final List<Fragment> fragments = new ArrayList<>(2);
+
+        private Upload(long key, String deviceId, int total) {
+            this.key = key;
+            this.deviceId = deviceId;
+            this.total = total;
+        }
+
+        /**
+         * 计算分包的数据偏移
+         *
+         * @param index 分包序号
+         * @return 偏移，未知时返回-1
+         */
+        private long offset(int index) {
+            if (1 == index) {
+                return 0;
+            }
+            if (0 > firstLength) {
+                return -1;
+            }
+            if (2 == index) {
+                return firstLength;
+            }
+            if (0 > middleLength) {
+                return -1;
+            }
+            return firstLength + (long) (index - 2) * middleLength;
+        }
+
+        private boolean isReceived(int index) {
+            if (written.get(index)) {
+                return true;
+            }
+            for (Fragment fragment : fragments) {
+                if (index == fragment.index) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void buffer(int index, byte[] data) {
+            fragments.add(new Fragment(index, data));
+        }
+
+        private void written(int index) {
+            written.set(index);
+            writtenCount++;
+        }
+
+        private boolean isComplete() {
+            return total == writtenCount;
+        }
+    }
+
+    /**
+     * 缓存的分包数据
+     */
+    private static final class Fragment {
+
+        private final int index;
+        private final byte[] data;
+
+        private Fragment(int index, byte[] data) {
+            this.index = index;
+            this.data = data;
+        }
+    }
+}
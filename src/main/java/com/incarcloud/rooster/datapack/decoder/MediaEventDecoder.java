@@ -0,0 +1,117 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0800 - 多媒体事件信息上传
+ *
+ * @author Aaric, created on 2017-09-15T10:59.
+ * @since 2.0
+ */
+public class MediaEventDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0800 - 多媒体事件信息上传");
+        //--多媒体数据
+        DataPackMedia dataPackMedia = new DataPackMedia(dataPackObject);
+        // 1.多媒体数据 ID
+        long mediaId = JTT808DataPackUtil.readDWord(buffer);
+        JTT808Tracer.debug("mediaId: {}", mediaId);
+        dataPackMedia.setmId(mediaId);
+        // 2.多媒体类型：0：图像；1：音频；2：视频；
+        int mediaClassify = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("mediaClassify: {}", mediaClassify);
+        switch (mediaClassify) {
+            case 0x00:
+                // 0：图像
+                JTT808Tracer.debug("--图像");
+                break;
+            case 0x01:
+                // 1：音频
+                JTT808Tracer.debug("--音频");
+                break;
+            case 0x02:
+                // 2：视频
+                JTT808Tracer.debug("--视频");
+                break;
+        }
+        dataPackMedia.setType(mediaClassify);
+        // 3.多媒体格式编码：0：JPEG；1：TIF；2：MP3；3：WAV；4：WMV；
+        int mediaFormat = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("mediaFormat: {}", mediaFormat);
+        switch (mediaFormat) {
+            case 0x00:
+                // 0：JPEG
+                JTT808Tracer.debug("--JPEG");
+                break;
+            case 0x01:
+                // 1：TIF
+                JTT808Tracer.debug("--TIF");
+                break;
+            case 0x02:
+                // 2：MP3
+                JTT808Tracer.debug("--MP3");
+                break;
+            case 0x03:
+                // 3：WAV
+                JTT808Tracer.debug("--WAV");
+                break;
+            case 0x04:
+                // 4：WMV
+                JTT808Tracer.debug("--WMV");
+                break;
+        }
+        dataPackMedia.setFormat(mediaFormat);
+        // 4.事件项编码：0：平台下发指令；1：定时动作；2：抢劫报警触发；3：碰撞侧翻报警触发；4：门开拍照；
+        //             5：门关拍照；6：车门由开变关，时速从＜20公里到超过20公里；7：定距拍照；
+        int mediaEventCode = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("mediaEventCode: {}", mediaEventCode);
+        switch (mediaEventCode) {
+            case 0x00:
+                // 0：平台下发指令
+                JTT808Tracer.debug("--平台下发指令");
+                break;
+            case 0x01:
+                // 1：定时动作
+                JTT808Tracer.debug("--定时动作");
+                break;
+            case 0x02:
+                // 2：抢劫报警触发
+                JTT808Tracer.debug("--抢劫报警触发");
+                break;
+            case 0x03:
+                // 3：碰撞侧翻报警触发
+                JTT808Tracer.debug("--碰撞侧翻报警触发");
+                break;
+            case 0x04:
+                // 4：门开拍照
+                JTT808Tracer.debug("--门开拍照");
+                break;
+            case 0x05:
+                // 5：门关拍照
+                JTT808Tracer.debug("--门关拍照");
+                break;
+            case 0x06:
+                // 6：车门由开变关，时速从＜20公里到超过20公里
+                JTT808Tracer.debug("--车门由开变关，时速从＜20公里到超过20公里");
+                break;
+            case 0x07:
+                // 7：定距拍照
+                JTT808Tracer.debug("--定距拍照");
+                break;
+        }
+        dataPackMedia.setEventCode(mediaEventCode);
+        // 5.通道 ID
+        int mediaChannelId = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("mediaChannelId: {}", mediaChannelId);
+        dataPackMedia.setChannelId(mediaChannelId);
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackMedia));
+    }
+}
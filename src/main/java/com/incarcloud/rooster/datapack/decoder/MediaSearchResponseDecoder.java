@@ -0,0 +1,117 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0802 - 存储多媒体数据检索应答
+ *
+ * @author Aaric, created on 2017-09-15T11:20.
+ * @since 2.0
+ */
+public class MediaSearchResponseDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0802 - 存储多媒体数据检索应答");
+        //--结果数据
+        DataPackResult dataPackResult = new DataPackResult(dataPackObject);
+        // 1.应答流水号
+        int responseMsgSeq = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("responseMsgSeq: {}", responseMsgSeq);
+        dataPackResult.setPackId(responseMsgSeq);
+        // 2.多媒体数据总项数
+        int mediaTotal = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("mediaTotal: {}", mediaTotal);
+        dataPackResult.setResultCode(mediaTotal);
+        //--add
+        dataPackResult.setResultName("存储多媒体数据检索结果");
+        dataPackTargetList.add(new DataPackTarget(dataPackResult));
+
+        // 3.检索项
+        if (0 < mediaTotal) {
+            JTT808Position position = new JTT808Position();
+            for (int i = 0; i < mediaTotal; i++) {
+                //--多媒体数据
+                DataPackMedia dataPackMedia = new DataPackMedia(dataPackObject);
+                // 3.1 多媒体数据 ID
+                long mediaId = JTT808DataPackUtil.readDWord(buffer);
+                JTT808Tracer.debug("mediaId: {}", mediaId);
+                dataPackMedia.setmId(mediaId);
+                // 3.2 多媒体类型：0：图像；1：音频；2：视频；
+                int mediaClassify = JTT808DataPackUtil.readByte(buffer);
+                JTT808Tracer.debug("mediaClassify: {}", mediaClassify);
+                switch (mediaClassify) {
+                    case 0x00:
+                        // 0：图像
+                        JTT808Tracer.debug("--图像");
+                        break;
+                    case 0x01:
+                        // 1：音频
+                        JTT808Tracer.debug("--音频");
+                        break;
+                    case 0x02:
+                        // 2：视频
+                        JTT808Tracer.debug("--视频");
+                        break;
+                }
+                dataPackMedia.setType(mediaClassify);
+                // 3.3 通道 ID
+                int mediaChannelId = JTT808DataPackUtil.readByte(buffer);
+                JTT808Tracer.debug("mediaChannelId: {}", mediaChannelId);
+                dataPackMedia.setChannelId(mediaChannelId);
+                // 3.4 事件项编码：0：平台下发指令；1：定时动作；2：抢劫报警触发；3：碰撞侧翻报警触发；
+                int mediaEventCode = JTT808DataPackUtil.readByte(buffer);
+                JTT808Tracer.debug("mediaEventCode: {}", mediaEventCode);
+                switch (mediaEventCode) {
+                    case 0x00:
+                        // 0：平台下发指令
+                        JTT808Tracer.debug("--平台下发指令");
+                        break;
+                    case 0x01:
+                        // 1：定时动作
+                        JTT808Tracer.debug("--定时动作");
+                        break;
+                    case 0x02:
+                        // 2：抢劫报警触发
+                        JTT808Tracer.debug("--抢劫报警触发");
+                        break;
+                    case 0x03:
+                        // 3：碰撞侧翻报警触发
+                        JTT808Tracer.debug("--碰撞侧翻报警触发");
+                        break;
+                }
+                dataPackMedia.setEventCode(mediaEventCode);
+                // 3.5 位置信息汇报(0x0200)消息体-BYTE[28]
+                // 表示拍摄或录制的起始时刻的位置基本信息数据
+                // 3.5.1 报警标志位
+                long alarmProps = JTT808DataPackUtil.readDWord(buffer);
+                JTT808Tracer.debug("alarmProps: {}", alarmProps);
+                // 3.5.2 状态位
+                long statusProps = JTT808DataPackUtil.readDWord(buffer);
+                JTT808Tracer.debug("statusProps: {}", statusProps);
+                // 3.5.3 位置数据
+                DataPackPosition dataPackPosition = JTT808DataPackUtil.readPosition(buffer, dataPackObject, statusProps, position);
+                //--add
+                dataPackTargetList.add(new DataPackTarget(dataPackPosition));
+                //--多媒体位置
+                dataPackMedia.setPosition(dataPackPosition);
+                dataPackTargetList.add(new DataPackTarget(dataPackMedia));
+
+                // 3.5.4 解析报警标志位
+                List<DataPackAlarm.Alarm> alarmList = JTT808DataPackUtil.detailAlarmProps(alarmProps);
+                if (null != alarmList && 0 < alarmList.size()) {
+                    DataPackAlarm dataPackAlarm = new DataPackAlarm(dataPackObject);
+                    dataPackAlarm.setPosition(dataPackPosition);
+                    dataPackAlarm.setAlarmList(alarmList);
+                    //--add
+                    dataPackTargetList.add(new DataPackTarget(dataPackAlarm));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.DataPackObject;
+import com.incarcloud.rooster.datapack.DataPackTarget;
+import com.incarcloud.rooster.datapack.JTT808Header;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * JTT808消息体解码器<br>
+ *     每个消息ID一个实现，注册到MessageBodyDecoderRegistry，实现必须无状态(多个连接共享)
+ *
+ * @author Aaric, created on 2017-09-15T09:30.
+ * @since 2.0
+ */
+public interface MessageBodyDecoder {
+
+    /**
+     * 解析消息体
+     *
+     * @param buffer             转义还原的数据帧，读取位置为消息体起始位置，结尾包含校验码和结束标识位
+     * @param header             消息头
+     * @param dataPackObject     消息头对应的公共数据
+     * @param dataPackTargetList 解析结果
+     * @throws Exception
+     */
+    void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception;
+}
@@ -0,0 +1,122 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+/**
+ * JTT808消息体解码器注册表<br>
+ *     终端上行消息ID范围为0x0000~0x0FFF，按消息ID直接索引数组，
+ *     可以覆盖内置解码器、添加自定义消息(0x0F00~0x0FFF)解码器或者禁用不需要的消息<br>
+ *     注册和禁用应在解析开始前完成
+ *
+ * @author Aaric, created on 2017-09-15T09:35.
+ * @since 2.0
+ */
+public class MessageBodyDecoderRegistry {
+
+    /**
+     * 终端上行消息ID最大值
+     */
+    public static final int MAX_MSG_ID = 0x0FFF;
+
+    /**
+     * 默认注册表(包含全部内置解码器)
+     */
+    private static final MessageBodyDecoderRegistry DEFAULT = createDefault();
+
+    /**
+     * 解码器，数组下标为消息ID
+     */
+    private final MessageBodyDecoder[] decoders = new MessageBodyDecoder[MAX_MSG_ID + 1];
+
+    /**
+     * 默认注册表，DataParserJTT808默认使用
+     *
+     * @return 注册表
+     */
+    public static MessageBodyDecoderRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 创建包含全部内置解码器的注册表
+     *
+     * @return 注册表
+     */
+    public static MessageBodyDecoderRegistry createDefault() {
+        MessageBodyDecoderRegistry registry = new MessageBodyDecoderRegistry();
+        registry.register(0x0001, new IgnoredMessageDecoder("0x0001 - 终端通用应答"));
+        registry.register(0x0002, new HeartbeatDecoder());
+        registry.register(0x0003, new RevokeDecoder());
+        registry.register(0x0100, new RegisterDecoder());
+        registry.register(0x0102, new AuthenticationDecoder());
+        registry.register(0x0104, new ParamsResponseDecoder());
+        registry.register(0x0107, new AttributesResponseDecoder());
+        registry.register(0x0108, new UpgradeResultDecoder());
+        registry.register(0x0200, new PositionDecoder());
+        registry.register(0x0201, new PositionResponseDecoder());
+        registry.register(0x0301, new EventReportDecoder());
+        registry.register(0x0302, new QuestionResponseDecoder());
+        registry.register(0x0303, new InfoDemandDecoder());
+        registry.register(0x0500, new VehicleControlResponseDecoder());
+        registry.register(0x0700, new IgnoredMessageDecoder("0x0700 - 行驶记录仪数据上传"));
+        registry.register(0x0701, new IgnoredMessageDecoder("0x0701 - 电子运单上报"));
+        registry.register(0x0702, new DriverDecoder());
+        registry.register(0x0704, new PositionBatchDecoder());
+        registry.register(0x0705, new CanDataDecoder());
+        registry.register(0x0800, new MediaEventDecoder());
+        registry.register(0x0801, new MediaDataDecoder());
+        registry.register(0x0802, new MediaSearchResponseDecoder());
+        registry.register(0x0805, new TakePhotoResponseDecoder());
+        registry.register(0x0900, new TransparentDataDecoder());
+        registry.register(0x0901, new CompressedDataDecoder(registry));
+        registry.register(0x0A00, new RsaDecoder());
+        return registry;
+    }
+
+    /**
+     * 注册解码器，已经存在时覆盖
+     *
+     * @param msgId   消息ID(0x0000~0x0FFF)
+     * @param decoder 解码器
+     * @return 原来的解码器，没有时返回null
+     */
+    public MessageBodyDecoder register(int msgId, MessageBodyDecoder decoder) {
+        checkMsgId(msgId);
+        if (null == decoder) {
+            throw new IllegalArgumentException("decoder is null");
+        }
+        MessageBodyDecoder previous = decoders[msgId];
+        decoders[msgId] = decoder;
+        return previous;
+    }
+
+    /**
+     * 禁用消息，不再解析消息体
+     *
+     * @param msgId 消息ID(0x0000~0x0FFF)
+     * @return 原来的解码器，没有时返回null
+     */
+    public MessageBodyDecoder disable(int msgId) {
+        checkMsgId(msgId);
+        MessageBodyDecoder previous = decoders[msgId];
+        decoders[msgId] = null;
+        return previous;
+    }
+
+    /**
+     * 获得解码器
+     *
+     * @param msgId 消息ID
+     * @return 解码器，没有注册或已禁用时返回null
+     */
+    public MessageBodyDecoder get(int msgId) {
+        if (0 <= msgId && MAX_MSG_ID >= msgId) {
+            return decoders[msgId];
+        }
+        return null;
+    }
+
+    private static void checkMsgId(int msgId) {
+        if (0 > msgId || MAX_MSG_ID < msgId) {
+            throw new IllegalArgumentException("msgId out of range: 0x" + Integer.toHexString(msgId));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import javax.xml.bind.DatatypeConverter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 0x0104 - 查询终端参数应答
+ *
+ * @author Aaric, created on 2017-09-15T09:35.
+ * @since 2.0
+ */
+public class ParamsResponseDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0104 - 查询终端参数应答");
+        // 1.应答流水号
+        int responseMsgSeq = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("responseMsgSeq: {}", responseMsgSeq);
+        // 2.应答参数个数
+        int paramsTotal = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("paramsTotal: {}", paramsTotal);
+        // 3.参数项列表
+        List<DataPackPeak.Peak> peakList = new ArrayList<>();
+        if (0 < paramsTotal) {
+            long paramId;
+            int paramLength;
+            byte[] paramValue;
+            String paramValueString;
+            DataPackPeak.Peak peak;
+            for (int i = 0; i < paramsTotal; i++) {
+                // 3.1 参数 ID
+                paramId = JTT808DataPackUtil.readDWord(buffer);
+                JTT808Tracer.debug("paramId: {}", paramId);
+                // 3.2 参数长度
+                paramLength = JTT808DataPackUtil.readByte(buffer);
+                JTT808Tracer.debug("paramLength: {}", paramLength);
+                // 3.3 参数值
+                paramValue = JTT808DataPackUtil.readBytes(buffer, paramLength);
+                paramValueString = DatatypeConverter.printHexBinary(paramValue);
+                JTT808Tracer.debug("paramValue: {}", paramValueString);
+                // 添加数据记录
+                peak = new DataPackPeak.Peak();
+                peak.setPeakId(new Long(paramId).intValue());
+                // 直接存储字节码
+                // 这种方法不是很好，后面有空改进
+                peak.setPeakValue(paramValueString);
+                peak.setPeakDesc("存储二进制字符串，需要根据“表 11 终端参数项数据格式”转换数据");
+                peakList.add(peak);
+            }
+        }
+        // 封装TARGET数据
+        if (null != peakList && 0 < peakList.size()) {
+            //--极值数据
+            DataPackPeak dataPackPeak = new DataPackPeak(dataPackObject);
+            dataPackPeak.setPeakList(peakList);
+            //--add
+            dataPackTargetList.add(new DataPackTarget(dataPackPeak));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0704 - 定位数据批量上传<br>
+ *     默认每个位置输出DataPackPosition、DataPackAlarm(包含需要的报警时)和附加信息，
+ *     列式模式输出一个DataPackPositionBatch
+ *
+ * @author Aaric, created on 2017-09-15T10:45.
+ * @since 2.0
+ */
+public class PositionBatchDecoder implements MessageBodyDecoder {
+
+    /**
+     * 位置汇报数据体最小长度(位置基本信息)
+     */
+    private static final int POSITION_LENGTH = 28;
+
+    /**
+     * 是否输出列式结果
+     */
+    private final boolean columnar;
+
+    /**
+     * 需要输出DataPackAlarm的报警标志位掩码
+     */
+    private final int alarmMask;
+
+    /**
+     * 附加信息处理器，为null时不使用
+     */
+    private final PositionExtraHandlerRegistry handlers;
+
+    public PositionBatchDecoder() {
+        this(false);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param columnar true：输出DataPackPositionBatch，false：每个位置输出DataPackPosition
+     */
+    public PositionBatchDecoder(boolean columnar) {
+        this(columnar, JTT808AlarmFlags.DEFINED_MASK);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param columnar  true：输出DataPackPositionBatch，false：每个位置输出DataPackPosition
+     * @param alarmMask 需要输出DataPackAlarm的报警标志位掩码，0表示不输出(列式模式保留原始报警标志)
+     */
+    public PositionBatchDecoder(boolean columnar, int alarmMask) {
+        this(columnar, alarmMask, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param columnar  true：输出DataPackPositionBatch，false：每个位置输出DataPackPosition
+     * @param alarmMask 需要输出DataPackAlarm的报警标志位掩码，0表示不输出(列式模式保留原始报警标志)
+     * @param handlers  附加信息处理器，为null时不使用(列式模式不解析附加信息)
+     */
+    public PositionBatchDecoder(boolean columnar, int alarmMask, PositionExtraHandlerRegistry handlers) {
+        this.columnar = columnar;
+        this.alarmMask = alarmMask & JTT808AlarmFlags.DEFINED_MASK;
+        this.handlers = handlers;
+    }
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0704 - 定位数据批量上传");
+        // 1.数据项个数
+        int positionTotal = JTT808DataPackUtil.readWord(buffer);
+        // 2.位置数据类型
+        int positionType = JTT808DataPackUtil.readByte(buffer);
+        switch (positionType) {
+            case 0x00:
+                // 0：正常位置批量汇报
+                JTT808Tracer.debug("--正常位置批量汇报");
+                break;
+            case 0x01:
+                // 1：盲区补报
+                JTT808Tracer.debug("--盲区补报");
+                break;
+        }
+        // 3.位置汇报数据项
+        if (columnar) {
+            decodeColumnar(buffer, dataPackObject, dataPackTargetList, positionTotal, positionType);
+        } else if (0 < positionTotal) {
+            int positionLength;
+            JTT808Position position = new JTT808Position();
+            JTT808PositionExtras extras = new JTT808PositionExtras();
+            for (int i = 0; i < positionTotal; i++) {
+                // 3.1 位置汇报数据体长度
+                positionLength = JTT808DataPackUtil.readWord(buffer);
+                JTT808Tracer.debug("positionLength: {}", positionLength);
+                // 3.2 报警标志位
+                long alarmProps = JTT808DataPackUtil.readDWord(buffer);
+                JTT808Tracer.debug("alarmProps: {}", alarmProps);
+                // 3.3 状态位
+                long statusProps = JTT808DataPackUtil.readDWord(buffer);
+                JTT808Tracer.debug("statusProps: {}", statusProps);
+                // 3.4 位置数据
+                DataPackPosition dataPackPosition = JTT808DataPackUtil.readPosition(buffer, dataPackObject, statusProps, position);
+                //--add
+                dataPackTargetList.add(new DataPackTarget(dataPackPosition));
+
+                // 3.5 解析报警标志位，包含需要的报警时才创建
+                if (0 != (alarmProps & alarmMask)) {
+                    DataPackAlarm dataPackAlarm = new DataPackAlarm(dataPackObject);
+                    dataPackAlarm.setPosition(dataPackPosition);
+                    dataPackAlarm.setAlarmList(new JTT808AlarmFlags(alarmProps & alarmMask));
+                    //--add
+                    dataPackTargetList.add(new DataPackTarget(dataPackAlarm));
+                }
+
+                // 3.6 位置附加数据
+                dataPackTargetList.addAll(JTT808DataPackUtil.readPositionExtra(buffer, dataPackPosition, positionLength - 28, extras, handlers));
+            }
+        }
+    }
+
+    /**
+     * 列式解析，附加信息保留原始字节
+     */
+    private void decodeColumnar(ByteBuf buffer, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList, int positionTotal, int positionType) {
+        // 数据项个数以实际数据为准
+        int capacity = Math.min(positionTotal, buffer.readableBytes() / (2 + POSITION_LENGTH));
+        DataPackPositionBatch dataPackPositionBatch = new DataPackPositionBatch(dataPackObject, capacity, buffer.readableBytes() - capacity * (2 + POSITION_LENGTH));
+        dataPackPositionBatch.setPositionType(positionType);
+        JTT808Position position = new JTT808Position();
+        int positionLength;
+        long alarmProps, statusProps;
+        for (int i = 0; i < positionTotal && 2 + POSITION_LENGTH <= buffer.readableBytes(); i++) {
+            positionLength = JTT808DataPackUtil.readWord(buffer);
+            if (POSITION_LENGTH > positionLength || positionLength > buffer.readableBytes()) {
+                break;
+            }
+            alarmProps = JTT808DataPackUtil.readDWord(buffer);
+            statusProps = JTT808DataPackUtil.readDWord(buffer);
+            position.read(buffer, statusProps);
+            dataPackPositionBatch.add(alarmProps, statusProps, position, buffer, positionLength - POSITION_LENGTH);
+        }
+        JTT808Tracer.debug("positionBatch: {}", dataPackPositionBatch.size());
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackPositionBatch));
+    }
+}
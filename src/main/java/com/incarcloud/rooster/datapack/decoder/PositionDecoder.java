@@ -0,0 +1,81 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0200 - 位置信息汇报<br>
+ *     报警标志包含需要的报警时才创建DataPackAlarm，默认需要全部已定义的报警；
+ *     可以指定附加信息处理器解析自定义附加信息
+ *
+ * @author Aaric, created on 2017-09-15T09:56.
+ * @since 2.0
+ */
+public class PositionDecoder implements MessageBodyDecoder {
+
+    /**
+     * 需要输出DataPackAlarm的报警标志位掩码
+     */
+    private final int alarmMask;
+
+    /**
+     * 附加信息处理器，为null时不使用
+     */
+    private final PositionExtraHandlerRegistry handlers;
+
+    public PositionDecoder() {
+        this(JTT808AlarmFlags.DEFINED_MASK);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param alarmMask 需要输出DataPackAlarm的报警标志位掩码，0表示不输出
+     */
+    public PositionDecoder(int alarmMask) {
+        this(alarmMask, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param alarmMask 需要输出DataPackAlarm的报警标志位掩码，0表示不输出
+     * @param handlers  附加信息处理器，为null时不使用
+     */
+    public PositionDecoder(int alarmMask, PositionExtraHandlerRegistry handlers) {
+        this.alarmMask = alarmMask & JTT808AlarmFlags.DEFINED_MASK;
+        this.handlers = handlers;
+    }
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        // 1.位置基本信息
+        JTT808Tracer.debug("## 0x0200 - 位置信息汇报");
+        // 1.报警标志位
+        long alarmProps = JTT808DataPackUtil.readDWord(buffer);
+        JTT808Tracer.debug("alarmProps: {}", alarmProps);
+        // 2.状态位
+        long statusProps = JTT808DataPackUtil.readDWord(buffer);
+        JTT808Tracer.debug("statusProps: {}", statusProps);
+        // 3.位置数据
+        DataPackPosition dataPackPosition = JTT808DataPackUtil.readPosition(buffer, dataPackObject, statusProps);
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackPosition));
+
+        // 4.解析报警标志位，包含需要的报警时才创建
+        if (0 != (alarmProps & alarmMask)) {
+            DataPackAlarm dataPackAlarm = new DataPackAlarm(dataPackObject);
+            dataPackAlarm.setPosition(dataPackPosition);
+            dataPackAlarm.setAlarmList(new JTT808AlarmFlags(alarmProps & alarmMask));
+            //--add
+            dataPackTargetList.add(new DataPackTarget(dataPackAlarm));
+        }
+
+        // 4.位置附加数据
+        dataPackTargetList.addAll(JTT808DataPackUtil.readPositionExtra(buffer, dataPackPosition, header.getMsgLength() - 28, handlers));
+    }
+}
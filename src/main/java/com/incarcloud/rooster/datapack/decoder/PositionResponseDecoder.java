@@ -0,0 +1,48 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0201 - 位置信息查询应答
+ *
+ * @author Aaric, created on 2017-09-15T10:03.
+ * @since 2.0
+ */
+public class PositionResponseDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0201 - 位置信息查询应答");
+        // 1.应答流水号
+        int responseMsgSeq = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("responseMsgSeq: {}", responseMsgSeq);
+        // 2.报警标志位
+        long alarmProps = JTT808DataPackUtil.readDWord(buffer);
+        JTT808Tracer.debug("alarmProps: {}", alarmProps);
+        // 3.状态位
+        long statusProps = JTT808DataPackUtil.readDWord(buffer);
+        JTT808Tracer.debug("statusProps: {}", statusProps);
+        // 4.位置数据
+        DataPackPosition dataPackPosition = JTT808DataPackUtil.readPosition(buffer, dataPackObject, statusProps);
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackPosition));
+
+        // 5.解析报警标志位
+        List<DataPackAlarm.Alarm> alarmList = JTT808DataPackUtil.detailAlarmProps(alarmProps);
+        if (null != alarmList && 0 < alarmList.size()) {
+            DataPackAlarm dataPackAlarm = new DataPackAlarm(dataPackObject);
+            dataPackAlarm.setPosition(dataPackPosition);
+            dataPackAlarm.setAlarmList(alarmList);
+            //--add
+            dataPackTargetList.add(new DataPackTarget(dataPackAlarm));
+        }
+
+        // 6.位置附加数据
+        dataPackTargetList.addAll(JTT808DataPackUtil.readPositionExtra(buffer, dataPackPosition, header.getMsgLength() - 28 - 2));
+    }
+}
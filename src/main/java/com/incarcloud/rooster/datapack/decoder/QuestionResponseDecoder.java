@@ -0,0 +1,35 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0302 - 提问应答
+ *
+ * @author Aaric, created on 2017-09-15T10:17.
+ * @since 2.0
+ */
+public class QuestionResponseDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0302 - 提问应答");
+        //--结果数据
+        DataPackResult dataPackResult = new DataPackResult(dataPackObject);
+        // 1.应答流水号
+        int responseMsgSeq = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("responseMsgSeq: {}", responseMsgSeq);
+        dataPackResult.setPackId(responseMsgSeq);
+        // 2.答案 ID
+        int answerId = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("answerId: {}", answerId);
+        dataPackResult.setResultCode(answerId);
+        //-add
+        dataPackResult.setResultName("提问结果");
+        dataPackTargetList.add(new DataPackTarget(dataPackResult));
+    }
+}
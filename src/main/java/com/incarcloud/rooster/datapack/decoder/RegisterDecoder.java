@@ -0,0 +1,89 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0100 - 终端注册
+ *
+ * @author Aaric, created on 2017-09-15T09:14.
+ * @since 2.0
+ */
+public class RegisterDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0100 - 终端注册");
+        //--注册数据
+        DataPackRegister dataPackRegister = new DataPackRegister(dataPackObject);
+        // 1.省域 ID
+        int provinceId = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("provinceId: {}", provinceId);
+        dataPackRegister.setProvinceId(provinceId);
+        // 2.市县域 ID
+        int cityId = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("cityId: {}", cityId);
+        dataPackRegister.setCityId(cityId);
+        // 3.制造商 ID
+        String terminalMakerId = JTT808DataPackUtil.readByteArray(buffer, 5);
+        JTT808Tracer.debug("terminalMakerId: {}", terminalMakerId);
+        dataPackRegister.setTerminalMakerId(terminalMakerId);
+        // 4.终端型号
+        String terminalModel = JTT808DataPackUtil.readByteArray(buffer, 20);
+        JTT808Tracer.debug("terminalModel: {}", terminalModel);
+        dataPackRegister.setTerminalModel(terminalModel);
+        // 5.终端 ID
+        String terminalId = JTT808DataPackUtil.readByteArray(buffer, 7);
+        JTT808Tracer.debug("terminalId: {}", terminalId);
+        dataPackRegister.setTerminalId(terminalId);
+        // 6.车牌颜色（按照 JT/T415-2006 的 5.4.12）
+        int colorId = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("colorId: {}", colorId);
+        dataPackRegister.setColorId(colorId);
+        switch (colorId) {
+            case 0:
+                // 未上牌时，取值为 0
+                JTT808Tracer.debug("--未上牌");
+                break;
+            case 1:
+                // 1-蓝色
+                JTT808Tracer.debug("--蓝色");
+                break;
+            case 2:
+                // 2-黄色
+                JTT808Tracer.debug("--黄色");
+                break;
+            case 3:
+                // 3-黑色
+                JTT808Tracer.debug("--黑色");
+                break;
+            case 4:
+                // 4-白色
+                JTT808Tracer.debug("--白色");
+                break;
+            case 9:
+                // 9-其他
+                JTT808Tracer.debug("--其他");
+                break;
+            default:
+                // 车辆颜色
+        }
+        // 7.车辆标识
+        String vin = JTT808DataPackUtil.readString(buffer);
+        if (0 == colorId) {
+            // VIN
+            JTT808Tracer.debug("vin: {}", vin);
+            dataPackRegister.setVid(vin);
+        } else {
+            // License
+            JTT808Tracer.debug("License: {}", vin);
+            dataPackRegister.setLicense(vin);
+        }
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackRegister));
+    }
+}
@@ -0,0 +1,50 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.datapack.auth.AuthCodeStore;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0003 - 终端注销<br>
+ *     设置AuthCodeStore时删除终端的鉴权码
+ *
+ * @author Aaric, created on 2017-09-15T09:21.
+ * @since 2.0
+ */
+public class RevokeDecoder implements MessageBodyDecoder {
+
+    /**
+     * 鉴权码存储，为null时不删除
+     */
+    private final AuthCodeStore authCodeStore;
+
+    public RevokeDecoder() {
+        this(null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param authCodeStore 鉴权码存储，通常由DataParserJTT808.setAuthCodeStore注册
+     */
+    public RevokeDecoder(AuthCodeStore authCodeStore) {
+        this.authCodeStore = authCodeStore;
+    }
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0003 - 终端注销");
+        // 删除鉴权码，终端需要重新注册
+        if (null != authCodeStore) {
+            authCodeStore.remove(header.getPhoneBCD());
+        }
+        // 终端注销消息体为空
+        //--注销数据
+        DataPackRevoke dataPackRevoke = new DataPackRevoke(dataPackObject);
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackRevoke));
+    }
+}
@@ -0,0 +1,34 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0A00 - 终端 RSA 公钥
+ *
+ * @author Aaric, created on 2017-09-15T11:41.
+ * @since 2.0
+ */
+public class RsaDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0A00 - 终端 RSA 公钥");
+        //--RSA数据
+        DataPackRsa dataPackRsa = new DataPackRsa(dataPackObject);
+        // 1.终端 RSA 公钥{e,n}中的 e
+        long rsaE = JTT808DataPackUtil.readDWord(buffer);
+        JTT808Tracer.debug("rsaE: {}", rsaE);
+        dataPackRsa.setE(rsaE);
+        // 2.RSA 公钥{e,n}中的 n
+        byte[] rsaN = JTT808DataPackUtil.readBytes(buffer, 128);
+        JTT808Tracer.debug("rsaN: {}", rsaN);
+        dataPackRsa.setN(rsaN);
+        //--add
+        dataPackTargetList.add(new DataPackTarget(dataPackRsa));
+    }
+}
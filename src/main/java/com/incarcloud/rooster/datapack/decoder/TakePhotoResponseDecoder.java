@@ -0,0 +1,65 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 0x0805 - 摄像头立即拍摄命令应答
+ *
+ * @author Aaric, created on 2017-09-15T11:13.
+ * @since 2.0
+ */
+public class TakePhotoResponseDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0805 - 摄像头立即拍摄命令应答");
+        //--结果数据
+        DataPackResult dataPackResult = new DataPackResult(dataPackObject);
+        // 1.应答流水号
+        int responseMsgSeq = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("responseMsgSeq: {}", responseMsgSeq);
+        dataPackResult.setPackId(responseMsgSeq);
+        // 2.结果：0：成功；1：失败；2：通道不支持
+        int mediaResult = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("mediaResult: {}", mediaResult);
+        switch (mediaResult) {
+            case 0x00:
+                // 0：成功
+                JTT808Tracer.debug("--成功");
+                break;
+            case 0x01:
+                // 1：失败
+                JTT808Tracer.debug("--失败");
+                break;
+            case 0x02:
+                // 2：通道不支持
+                JTT808Tracer.debug("--通道不支持");
+                break;
+        }
+        dataPackResult.setResultCode(mediaResult);
+        // 3.多媒体 ID 个数
+        int mediaTotal = JTT808DataPackUtil.readWord(buffer);
+        JTT808Tracer.debug("mediaTotal: {}", mediaTotal);
+        // 4.多媒体 ID 列表
+        List<Integer> itemIdList = new ArrayList<>();
+        if (0 < mediaTotal) {
+            int itemId;
+            for (int i = 0; i < mediaTotal; i++) {
+                // JTT808DataPackUtil.readBytes(buffer, 4)
+                itemId = new Long(JTT808DataPackUtil.readDWord(buffer)).intValue();
+                JTT808Tracer.debug("--{}", itemId);
+                itemIdList.add(itemId);
+            }
+        }
+        dataPackResult.setReusltItems(itemIdList);
+        //--add
+        dataPackResult.setResultName("摄像头立即拍摄命令结果");
+        dataPackTargetList.add(new DataPackTarget(dataPackResult));
+    }
+}
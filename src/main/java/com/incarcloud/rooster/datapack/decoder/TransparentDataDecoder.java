@@ -0,0 +1,91 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0900 - 数据上行透传<br>
+ *     按透传消息类型直接索引处理器数组，透传消息内容以retain的切片交给处理器，没有处理器时丢弃<br>
+ *     注册应在解析开始前完成
+ *
+ * @author Aaric, created on 2017-09-15T11:27.
+ * @since 2.0
+ */
+public class TransparentDataDecoder implements MessageBodyDecoder {
+
+    /**
+     * 处理器，数组下标为透传消息类型
+     */
+    private final TransparentDataHandler[] handlers = new TransparentDataHandler[256];
+
+    /**
+     * 注册处理器，已经存在时覆盖
+     *
+     * @param transMsgType 透传消息类型(0x00~0xFF)
+     * @param handler      处理器，null表示取消注册
+     * @return 原来的处理器，没有时返回null
+     */
+    public TransparentDataHandler register(int transMsgType, TransparentDataHandler handler) {
+        if (0 > transMsgType || 0xFF < transMsgType) {
+            throw new IllegalArgumentException("transMsgType out of range: 0x" + Integer.toHexString(transMsgType));
+        }
+        TransparentDataHandler previous = handlers[transMsgType];
+        handlers[transMsgType] = handler;
+        return previous;
+    }
+
+    /**
+     * 获得处理器
+     *
+     * @param transMsgType 透传消息类型
+     * @return 处理器，没有注册时返回null
+     */
+    public TransparentDataHandler get(int transMsgType) {
+        if (0 <= transMsgType && 0xFF >= transMsgType) {
+            return handlers[transMsgType];
+        }
+        return null;
+    }
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0900 - 数据上行透传");
+        // 1.透传消息类型
+        int transMsgType = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("transMsgType: {}", transMsgType);
+        switch (transMsgType) {
+            case 0x00:
+                // 0x00 - GNSS 模块详细定位数据
+                JTT808Tracer.debug("--GNSS 模块详细定位数据");
+                break;
+            case 0x0B:
+                // 0x0B - 道路运输证 IC 卡信息
+                JTT808Tracer.debug("--道路运输证 IC 卡信息");
+                break;
+            case 0x41:
+                // 0x41 - 串口 1 透传
+                JTT808Tracer.debug("--串口 1 透传");
+                break;
+            case 0x42:
+                // 0x42 - 串口 2 透传
+                JTT808Tracer.debug("--串口 2 透传");
+                break;
+            default:
+                // 0xF0-0xFF - 用户自定义透传消息
+        }
+        // 2.透传消息内容
+        TransparentDataHandler handler = handlers[transMsgType];
+        if (null == handler) {
+            JTT808Tracer.debug("--未注册处理器");
+            return;
+        }
+        int length = Math.max(buffer.readableBytes() - 2, 0);
+        ByteBuf payload = buffer.retainedSlice(buffer.readerIndex(), length);
+        buffer.skipBytes(length);
+        handler.handle(transMsgType, payload, header, dataPackObject, dataPackTargetList);
+    }
+}
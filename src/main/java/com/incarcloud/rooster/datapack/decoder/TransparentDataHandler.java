@@ -0,0 +1,30 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.DataPackObject;
+import com.incarcloud.rooster.datapack.DataPackTarget;
+import com.incarcloud.rooster.datapack.JTT808Header;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 数据上行透传(0x0900)的透传消息处理器<br>
+ *     按透传消息类型注册到TransparentDataDecoder，用于解析串口外设(油量、温度、胎压等)的私有数据
+ *
+ * @author Aaric, created on 2017-09-22T09:20.
+ * @since 2.0
+ */
+public interface TransparentDataHandler {
+
+    /**
+     * 处理透传消息
+     *
+     * @param transMsgType       透传消息类型
+     * @param payload            透传消息内容，引用数据帧(不复制)并已经retain，处理器负责release，可以在方法返回后继续使用
+     * @param header             消息头
+     * @param dataPackObject     基对象
+     * @param dataPackTargetList 解析结果
+     * @throws Exception
+     */
+    void handle(int transMsgType, ByteBuf payload, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception;
+}
@@ -0,0 +1,35 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import com.incarcloud.rooster.util.JTT808Tracer;
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+/**
+ * 0x0108 - 终端升级结果通知
+ *
+ * @author Aaric, created on 2017-09-15T09:49.
+ * @since 2.0
+ */
+public class UpgradeResultDecoder implements MessageBodyDecoder {
+
+    @Override
+    public void decode(ByteBuf buffer, JTT808Header header, DataPackObject dataPackObject, List<DataPackTarget> dataPackTargetList) throws Exception {
+        JTT808Tracer.debug("## 0x0108 - 终端升级结果通知");
+        //--结果数据
+        DataPackResult dataPackResult = new DataPackResult(dataPackObject);
+        // 1.升级类型：0：终端，12：道路运输证 IC 卡读卡器，52：北斗卫星定位模块
+        int upgradeType = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("upgradeType: {}", upgradeType);
+        dataPackResult.setResultType(upgradeType);
+        // 2.升级结果：0：成功，1：失败，2：取消
+        int upgradeResult = JTT808DataPackUtil.readByte(buffer);
+        JTT808Tracer.debug("upgradeResult: {}", upgradeResult);
+        dataPackResult.setResultCode(upgradeResult);
+        //-add
+        dataPackResult.setResultName("终端升级结果");
+        dataPackTargetList.add(new DataPackTarget(dataPackResult));
+    }
+}
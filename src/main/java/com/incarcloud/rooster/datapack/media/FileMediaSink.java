@@ -0,0 +1,246 @@
+package com.incarcloud.rooster.datapack.media;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * 本地文件多媒体数据存储<br>
+ *     文件路径：存储目录/终端手机号/多媒体数据ID.media，分包通过FileChannel按偏移直接写入文件，
+ *     偏移为0的分包(第1个分包)会清空同名的旧文件，未完成(abort)的文件被删除<br>
+ *     最多保持maxOpenFiles个打开的文件，超过时关闭最久未写入的文件<br>
+ *     只在打开和关闭文件时加锁，写入不加锁，不同文件并行写入
+ *
+ * @author Aaric, created on 2017-09-19T10:10.
+ * @since 2.0
+ */
+public class FileMediaSink implements MediaSink, Closeable {
+
+    /**
+     * 文件扩展名
+     */
+    public static final String FILE_SUFFIX = ".media";
+
+    private static final OpenOption[] CREATE_OPTIONS = {StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING};
+    private static final OpenOption[] APPEND_OPTIONS = {StandardOpenOption.CREATE, StandardOpenOption.WRITE};
+
+    /**
+     * 存储目录
+     */
+    private final File directory;
+
+    /**
+     * 最多打开的文件数
+     */
+    private final int maxOpenFiles;
+
+    /**
+     * 打开的文件，按最近写入的顺序排列
+     */
+    private final LinkedHashMap<String, MediaFile> files = new LinkedHashMap<>(16, 0.75F, true);
+
+    public FileMediaSink(File directory) {
+        this(directory, 64);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param directory    存储目录
+     * @param maxOpenFiles 最多打开的文件数
+     */
+    public FileMediaSink(File directory, int maxOpenFiles) {
+        if (null == directory || 0 >= maxOpenFiles) {
+            throw new IllegalArgumentException("directory or maxOpenFiles is invalid");
+        }
+        this.directory = directory;
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /**
+     * 获得多媒体文件
+     *
+     * @param deviceId 终端手机号
+     * @param mediaId  多媒体数据ID
+     * @return 文件
+     */
+    public File getFile(String deviceId, long mediaId) {
+        return new File(new File(directory, deviceId), mediaId + FILE_SUFFIX);
+    }
+
+    @Override
+    public String write(String deviceId, long mediaId, long offset, ByteBuf data) throws IOException {
+        // 1.打开文件，只在打开和关闭文件时加锁
+        MediaFile mediaFile = open(getFile(deviceId, mediaId), 0 == offset);
+
+        // 2.按偏移写入，不同文件并行写入
+        try {
+            int index = data.readerIndex();
+            int length = data.readableBytes();
+            long position = offset;
+            while (0 < length) {
+                int written = data.getBytes(index, mediaFile.channel, position, length);
+                index += written;
+                position += written;
+                length -= written;
+            }
+        } finally {
+            close(release(mediaFile));
+        }
+        return mediaFile.path;
+    }
+
+    @Override
+    public void finish(String deviceId, long mediaId) throws IOException {
+        FileChannel channel = null;
+        synchronized (this) {
+            MediaFile mediaFile = files.remove(getFile(deviceId, mediaId).getPath());
+            if (null != mediaFile) {
+                channel = mediaFile.close();
+            }
+        }
+        close(channel);
+    }
+
+    /**
+     * 关闭并删除未完成的文件
+     *
+     * @param deviceId 终端手机号
+     * @param mediaId  多媒体数据ID
+     * @throws IOException
+     */
+    @Override
+    public void abort(String deviceId, long mediaId) throws IOException {
+        File file = getFile(deviceId, mediaId);
+        finish(deviceId, mediaId);
+        Files.deleteIfExists(file.toPath());
+    }
+
+    /**
+     * 获得打开的文件，使用计数加1
+     *
+     * @param file     文件
+     * @param truncate 是否清空旧文件
+     * @return 打开的文件
+     * @throws IOException
+     */
+    private MediaFile open(File file, boolean truncate) throws IOException {
+        List<FileChannel> closed = new ArrayList<>(1);
+        MediaFile mediaFile;
+        synchronized (this) {
+            String path = file.getPath();
+            mediaFile = files.get(path);
+            if (null == mediaFile) {
+                File parent = file.getParentFile();
+                if (!parent.isDirectory() && !parent.mkdirs()) {
+                    throw new IOException("can't create directory: " + parent);
+                }
+                mediaFile = new MediaFile(path, FileChannel.open(file.toPath(), truncate ? CREATE_OPTIONS : APPEND_OPTIONS));
+                files.put(path, mediaFile);
+                closeEldest(closed);
+            }
+            mediaFile.users++;
+        }
+        for (FileChannel channel : closed) {
+            close(channel);
+        }
+        return mediaFile;
+    }
+
+    /**
+     * 使用计数减1
+     *
+     * @param mediaFile 打开的文件
+     * @return 文件已被关闭并且不再使用时返回需要关闭的FileChannel，否则返回null
+     */
+    private synchronized FileChannel release(MediaFile mediaFile) {
+        mediaFile.users--;
+        return mediaFile.closed && 0 == mediaFile.users ? mediaFile.channel : null;
+    }
+
+    /**
+     * 超过最多打开的文件数时移除最久未写入的文件，调用时持有锁
+     *
+     * @param closed 不再使用、需要关闭的FileChannel
+     */
+    private void closeEldest(List<FileChannel> closed) {
+        Iterator<MediaFile> iterator = files.values().iterator();
+        while (maxOpenFiles < files.size() && iterator.hasNext()) {
+            MediaFile mediaFile = iterator.next();
+            iterator.remove();
+            FileChannel channel = mediaFile.close();
+            if (null != channel) {
+                closed.add(channel);
+            }
+        }
+    }
+
+    private static void close(FileChannel channel) throws IOException {
+        if (null != channel) {
+            channel.close();
+        }
+    }
+
+    /**
+     * 当前打开的文件数
+     */
+    public synchronized int getOpenFiles() {
+        return files.size();
+    }
+
+    /**
+     * 关闭全部文件
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (MediaFile mediaFile : files.values()) {
+            mediaFile.channel.close();
+        }
+        files.clear();
+    }
+
+    /**
+     * 打开的文件<br>
+     *     移除时正在写入的文件等最后一次写入完成后再关闭
+     */
+    private static final class MediaFile {
+
+        private final String path;
+        private final FileChannel channel;
+
+        /**
+         * 正在写入的次数
+         */
+        private int users;
+
+        /**
+         * 已从打开的文件中移除
+         */
+        private boolean closed;
+
+        private MediaFile(String path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        /**
+         * 标记为已移除
+         *
+         * @return 没有正在写入时返回需要关闭的FileChannel，否则返回null
+         */
+        private FileChannel close() {
+            closed = true;
+            return 0 == users ? channel : null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.incarcloud.rooster.datapack.media;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+
+/**
+ * 多媒体数据存储<br>
+ *     多媒体数据上传(0x0801)的每个分包直接写入存储，不在内存中保存完整的多媒体数据<br>
+ *     同一终端的同一多媒体数据以多媒体数据ID(第1个分包中)标识，实现类需要线程安全，不同多媒体数据会被并发写入
+ *
+ * @author Aaric, created on 2017-09-19T09:30.
+ * @since 2.0
+ */
+public interface MediaSink {
+
+    /**
+     * 写入多媒体数据
+     *
+     * @param deviceId 终端手机号
+     * @param mediaId  多媒体数据ID
+     * @param offset   数据在多媒体数据中的偏移
+     * @param data     数据，直接引用数据帧(不复制)，方法返回后不再有效
+     * @return 存储位置
+     * @throws IOException
+     */
+    String write(String deviceId, long mediaId, long offset, ByteBuf data) throws IOException;
+
+    /**
+     * 最后一个分包写入完成
+     *
+     * @param deviceId 终端手机号
+     * @param mediaId  多媒体数据ID
+     * @throws IOException
+     */
+    void finish(String deviceId, long mediaId) throws IOException;
+
+    /**
+     * 多媒体数据未完成(超时或被淘汰)，不会再写入
+     *
+     * @param deviceId 终端手机号
+     * @param mediaId  多媒体数据ID
+     * @throws IOException
+     */
+    void abort(String deviceId, long mediaId) throws IOException;
+}
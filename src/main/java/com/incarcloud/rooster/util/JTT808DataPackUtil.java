@@ -2,17 +2,14 @@ package com.incarcloud.rooster.util;
 
 import com.incarcloud.rooster.datapack.*;
 import io.netty.buffer.ByteBuf;
-import io.netty.util.internal.StringUtil;
+import io.netty.util.ByteProcessor;
 
 import java.io.UnsupportedEncodingException;
-import java.math.BigDecimal;
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
+import java.util.TimeZone;
 
 /**
  * JTT808 DataPack工具类
@@ -22,6 +19,26 @@ import java.util.Locale;
  */
 public class JTT808DataPackUtil extends DataPackUtil {
 
+    /**
+     * 每个线程重复使用的位置基本信息，不指定JTT808Position的readPosition使用
+     */
+    private static final ThreadLocal<JTT808Position> LOCAL_POSITION = new ThreadLocal<JTT808Position>() {
+        @Override
+        protected JTT808Position initialValue() {
+            return new JTT808Position();
+        }
+    };
+
+    /**
+     * 每个线程重复使用的位置附加信息，不指定JTT808PositionExtras的readPositionExtra使用
+     */
+    private static final ThreadLocal<JTT808PositionExtras> LOCAL_POSITION_EXTRAS = new ThreadLocal<JTT808PositionExtras>() {
+        @Override
+        protected JTT808PositionExtras initialValue() {
+            return new JTT808PositionExtras();
+        }
+    };
+
     /**
      * 读取一个BYTE类型数据<br>
      *     1个字节
@@ -192,27 +209,90 @@ public class JTT808DataPackUtil extends DataPackUtil {
     }
 
     /**
-     * 位置数据精确度
+     * 转义还原数据帧<br>
+     *     还原规则：0x7D0x01->0x7D, 0x7D0x02->0x7E，首尾标识位原样写入<br>
+     *     两个转义字符之间的字节整段复制
+     *
+     * @param frame 转义的数据帧(包含首尾标识位)，不改变读取位置
+     * @param out   写入还原后的数据帧
      */
-    private static final int POSITION_DATA_SCALE = 6;
+    public static void unescape(ByteBuf frame, ByteBuf out) {
+        int start = frame.readerIndex();
+        int end = frame.writerIndex() - 1;
+        int i = start + 1;
+        int escape;
+        byte b;
+        // 标识位(0x7E)
+        out.writeByte(frame.getByte(start));
+        while(i < end) {
+            // 复制到下一个转义字符
+            escape = frame.indexOf(i, end, (byte) 0x7D);
+            if(-1 == escape) {
+                out.writeBytes(frame, i, end - i);
+                break;
+            }
+            out.writeBytes(frame, i, escape - i);
+            i = escape + 1;
+
+            // 转义字符
+            b = 0x7D;
+            if(i < end) {
+                if(0x01 == frame.getByte(i)) {
+                    // 0x7D0x01->0x7D
+                    i++;
+                } else if(0x02 == frame.getByte(i)) {
+                    // 0x7D0x02->0x7E
+                    b = 0x7E;
+                    i++;
+                }
+            }
+            out.writeByte(b);
+        }
+        // 标识位(0x7E)
+        out.writeByte(frame.getByte(end));
+    }
 
     /**
-     * 位置数据单位掩码
+     * 转义数据并添加首尾标识位<br>
+     *     转义规则：0x7D->0x7D0x01, 0x7E->0x7D0x02<br>
+     *     两个需要转义的字节之间的字节整段复制
+     *
+     * @param content 消息头+消息体+校验码，不改变读取位置
+     * @param out     写入转义后的数据帧
      */
-    private static final double POSITION_UNIT_MASK = 10e+5;
+    public static void escape(ByteBuf content, ByteBuf out) {
+        int i = content.readerIndex();
+        int end = content.writerIndex();
+        int n;
+        byte b;
+        // 标识位(0x7E)
+        out.writeByte(0x7E);
+        while(i < end) {
+            // 复制到下一个需要转义的字节
+            n = content.forEachByte(i, end - i, ESCAPE_PROCESSOR);
+            if(-1 == n) {
+                out.writeBytes(content, i, end - i);
+                break;
+            }
+            out.writeBytes(content, i, n - i);
+            b = content.getByte(n);
+            out.writeByte(0x7D);
+            out.writeByte(0x7E == b ? 0x02 : 0x01);
+            i = n + 1;
+        }
+        // 标识位(0x7E)
+        out.writeByte(0x7E);
+    }
 
     /**
-     * 浮点型精度补偿，保存6位小数点
-     *
-     * @param value 数值
-     * @return
+     * 查找需要转义的字节(0x7D或0x7E)
      */
-    private static BigDecimal divideScale6(BigDecimal value) {
-        if(null == value) {
-            throw new IllegalArgumentException("value is null");
+    private static final ByteProcessor ESCAPE_PROCESSOR = new ByteProcessor() {
+        @Override
+        public boolean process(byte value) throws Exception {
+            return 0x7D != value && 0x7E != value;
         }
-        return value.divide(BigDecimal.ONE, POSITION_DATA_SCALE, BigDecimal.ROUND_HALF_UP);
-    }
+    };
 
     /**
      * 读取经度数据<br>
@@ -223,20 +303,12 @@ public class JTT808DataPackUtil extends DataPackUtil {
      * @return
      */
     public static Double readLongitude(ByteBuf buffer, long statusProps) {
-        int flag = Long.valueOf((statusProps >> 3) & 0x00000001).intValue();
-        long bigInt = readDWord(buffer);
-        BigDecimal number = BigDecimal.ZERO;
-        switch (flag) {
-            case 0:
-                // 0：东经
-                number = divideScale6(new BigDecimal(bigInt / POSITION_UNIT_MASK));
-                break;
-            case 1:
-                // 1：西经
-                number = divideScale6(new BigDecimal(bigInt / POSITION_UNIT_MASK * -1));
-                break;
+        int microDegrees = buffer.readInt();
+        if(0 != (statusProps & 0x08)) {
+            // 1：西经
+            microDegrees = -microDegrees;
         }
-        return number.doubleValue();
+        return JTT808Position.toDegrees(microDegrees);
     }
 
     /**
@@ -248,20 +320,12 @@ public class JTT808DataPackUtil extends DataPackUtil {
      * @return
      */
     public static Double readLatitude(ByteBuf buffer, long statusProps) {
-        int flag = Long.valueOf((statusProps >> 2) & 0x00000001).intValue();
-        long bigInt = readDWord(buffer);
-        BigDecimal number = BigDecimal.ZERO;
-        switch (flag) {
-            case 0:
-                // 0：北纬
-                number = divideScale6(new BigDecimal(bigInt / POSITION_UNIT_MASK));
-                break;
-            case 1:
-                // 1：南纬
-                number = divideScale6(new BigDecimal(bigInt / POSITION_UNIT_MASK * -1));
-                break;
+        int microDegrees = buffer.readInt();
+        if(0 != (statusProps & 0x04)) {
+            // 1：南纬
+            microDegrees = -microDegrees;
         }
-        return number.doubleValue();
+        return JTT808Position.toDegrees(microDegrees);
     }
 
     /**
@@ -272,20 +336,136 @@ public class JTT808DataPackUtil extends DataPackUtil {
      * @return
      */
     public static Float readSpeed(ByteBuf buffer) {
-        return readWord(buffer) * 0.1F;
+        return readWord(buffer) * JTT808Position.SPEED_UNIT;
+    }
+
+    /**
+     * 无效时间(BCD码错误)
+     */
+    public static final long INVALID_TIME = Long.MIN_VALUE;
+
+    /**
+     * BCD时间的时区偏移(毫秒)，默认GMT+8，可以通过启动参数-Drooster.jtt808.timezone修改
+     */
+    private static volatile int timeZoneOffset = TimeZone.getTimeZone(System.getProperty("rooster.jtt808.timezone", "GMT+8")).getRawOffset();
+
+    /**
+     * 设置BCD时间的时区，只使用固定偏移(不考虑夏令时)
+     *
+     * @param timeZone 时区
+     */
+    public static void setTimeZone(TimeZone timeZone) {
+        timeZoneOffset = timeZone.getRawOffset();
+    }
+
+    /**
+     * 读取BCD[6]时间数据(YY-MM-DD-hh-mm-ss)
+     *
+     * @param buffer ByteBuf
+     * @return 毫秒数，BCD码错误返回INVALID_TIME
+     */
+    public static long readDateMillis(ByteBuf buffer) {
+        int year = readBCDByte(buffer);
+        int month = readBCDByte(buffer);
+        int day = readBCDByte(buffer);
+        int hour = readBCDByte(buffer);
+        int minute = readBCDByte(buffer);
+        int second = readBCDByte(buffer);
+        if(0 > (year | month | day | hour | minute | second)) {
+            return INVALID_TIME;
+        }
+        return toEpochMillis(2000 + year, month, day, hour, minute, second);
+    }
+
+    /**
+     * 读取BCD[4]日期数据(YYYYMMDD)
+     *
+     * @param buffer ByteBuf
+     * @return 毫秒数，BCD码错误返回INVALID_TIME
+     */
+    public static long readDateOnlyMillis(ByteBuf buffer) {
+        int century = readBCDByte(buffer);
+        int year = readBCDByte(buffer);
+        int month = readBCDByte(buffer);
+        int day = readBCDByte(buffer);
+        if(0 > (century | year | month | day)) {
+            return INVALID_TIME;
+        }
+        return toEpochMillis(century * 100 + year, month, day, 0, 0, 0);
+    }
+
+    /**
+     * 读取BCD[5]时间数据(hh-mm-ss-msms)
+     *
+     * @param buffer ByteBuf
+     * @return 当天的毫秒数，BCD码错误返回-1
+     */
+    public static int readTimeOfDayMillis(ByteBuf buffer) {
+        int hour = readBCDByte(buffer);
+        int minute = readBCDByte(buffer);
+        int second = readBCDByte(buffer);
+        int millisHigh = readBCDByte(buffer);
+        int millisLow = readBCDByte(buffer);
+        if(0 > (hour | minute | second | millisHigh | millisLow)) {
+            return -1;
+        }
+        return ((hour * 60 + minute) * 60 + second) * 1000 + millisHigh * 100 + millisLow;
+    }
+
+    /**
+     * 读取一个BCD字节
+     *
+     * @param buffer ByteBuf
+     * @return 0~99，BCD码错误返回-1
+     */
+    private static int readBCDByte(ByteBuf buffer) {
+        int value = buffer.readUnsignedByte();
+        int high = value >> 4;
+        int low = value & 0x0F;
+        if(9 < high || 9 < low) {
+            return -1;
+        }
+        return high * 10 + low;
+    }
+
+    /**
+     * 计算BCD时间的毫秒数<br>
+     *     超出范围的月、日、时、分、秒顺延计算，与SimpleDateFormat宽松模式一致
+     *
+     * @param year 年
+     * @param month 月(1~12)
+     * @param day 日
+     * @param hour 时
+     * @param minute 分
+     * @param second 秒
+     * @return 毫秒数
+     */
+    public static long toEpochMillis(int year, int month, int day, int hour, int minute, int second) {
+        // 1.月份顺延到年份
+        int monthIndex = month - 1;
+        year += Math.floorDiv(monthIndex, 12);
+        month = Math.floorMod(monthIndex, 12) + 1;
+        // 2.当月1日距1970-01-01的天数(公历，3月为一年的开始)
+        int y = 2 < month ? year : year - 1;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (2 < month ? month - 3 : month + 9) + 2) / 5;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long days = era * 146097L + dayOfEra - 719468 + day - 1;
+        // 3.毫秒数
+        return (((days * 24 + hour) * 60 + minute) * 60 + second) * 1000 - timeZoneOffset;
     }
 
     /**
      * 读取BCD[6]时间数据
      *
      * @param buffer ByteBuf
-     * @return
+     * @return BCD码错误返回null
      */
     public static Date readDate(ByteBuf buffer) throws ParseException {
-        String dateString = readBCD(buffer, 6);
-        if(!StringUtil.isNullOrEmpty(dateString)) {
-            DateFormat dateFormat = new SimpleDateFormat("yyMMddHHmmss", Locale.CHINA);
-            return dateFormat.parse(dateString);
+        long time = readDateMillis(buffer);
+        if(INVALID_TIME != time) {
+            return new Date(time);
         }
         return null;
     }
@@ -294,19 +474,19 @@ public class JTT808DataPackUtil extends DataPackUtil {
      * 读取BCD[4]日期数据
      *
      * @param buffer ByteBuf
-     * @return
+     * @return BCD码错误返回null
      */
     public static Date readDateOnly(ByteBuf buffer) throws ParseException {
-        String dateString = readBCD(buffer, 4);
-        if(!StringUtil.isNullOrEmpty(dateString)) {
-            DateFormat dateFormat = new SimpleDateFormat("yyyyMMdd", Locale.CHINA);
-            return dateFormat.parse(dateString);
+        long time = readDateOnlyMillis(buffer);
+        if(INVALID_TIME != time) {
+            return new Date(time);
         }
         return null;
     }
 
     /**
-     * 读取一个位置数据
+     * 读取一个位置数据<br>
+     *     位置基本信息读入当前线程重复使用的JTT808Position
      *
      * @param buffer ByteBuf
      * @param dataPackObject 基对象
@@ -315,27 +495,38 @@ public class JTT808DataPackUtil extends DataPackUtil {
      * @throws ParseException
      */
     public static DataPackPosition readPosition(ByteBuf buffer, DataPackObject dataPackObject, long statusProps) throws ParseException {
+        return readPosition(buffer, dataPackObject, statusProps, LOCAL_POSITION.get());
+    }
+
+    /**
+     * 读取一个位置数据<br>
+     *     位置基本信息先读入可重复使用的JTT808Position，批量读取时不再为每个位置创建中间对象
+     *
+     * @param buffer ByteBuf
+     * @param dataPackObject 基对象
+     * @param statusProps 状态位
+     * @param position 位置基本信息
+     * @return
+     * @throws ParseException
+     */
+    public static DataPackPosition readPosition(ByteBuf buffer, DataPackObject dataPackObject, long statusProps, JTT808Position position) throws ParseException {
         DataPackPosition dataPackPosition = new DataPackPosition(dataPackObject);
+        position.read(buffer, statusProps);
         // 1.纬度
-        double latitude = JTT808DataPackUtil.readLatitude(buffer, statusProps);
-        dataPackPosition.setLatitude(latitude);
-        JTT808DataPackUtil.debug("latitude: " + latitude);
+        dataPackPosition.setLatitude(position.getLatitude());
+        JTT808Tracer.debug("latitude: {}", position.getLatitude());
         // 2.经度
-        double longitude = JTT808DataPackUtil.readLongitude(buffer, statusProps);
-        dataPackPosition.setLongitude(longitude);
-        JTT808DataPackUtil.debug("longitude: " + longitude);
+        dataPackPosition.setLongitude(position.getLongitude());
+        JTT808Tracer.debug("longitude: {}", position.getLongitude());
         // 3.海拔高度
-        int altitude = JTT808DataPackUtil.readWord(buffer);
-        dataPackPosition.setAltitude(altitude);
-        JTT808DataPackUtil.debug("altitude: " + altitude);
+        dataPackPosition.setAltitude(position.getAltitude());
+        JTT808Tracer.debug("altitude: {}", position.getAltitude());
         // 4.速度
-        float speed = JTT808DataPackUtil.readSpeed(buffer);
-        dataPackPosition.setSpeed(speed);
-        JTT808DataPackUtil.debug("speed: " + speed);
+        dataPackPosition.setSpeed(position.getSpeed());
+        JTT808Tracer.debug("speed: {}", position.getSpeed());
         // 5.方向
-        float direction = JTT808DataPackUtil.readWord(buffer);
-        dataPackPosition.setDirection(direction);
-        JTT808DataPackUtil.debug("direction: " + direction);
+        dataPackPosition.setDirection((float) position.getDirection());
+        JTT808Tracer.debug("direction: {}", position.getDirection());
         // 6.定位方式
         int mode = 0;
         String modeDesc = "无效数据";
@@ -359,20 +550,21 @@ public class JTT808DataPackUtil extends DataPackUtil {
             mode = DataPackPosition.POSITION_MODE_GALILEO;
             modeDesc = "Galileo卫星定位";
         }
-        JTT808DataPackUtil.debug("mode: " + mode);
-        JTT808DataPackUtil.debug("modeDesc: " + modeDesc);
+        JTT808Tracer.debug("mode: {}", mode);
+        JTT808Tracer.debug("modeDesc: {}", modeDesc);
         dataPackPosition.setPositioMode(mode);
         dataPackPosition.setPositioModeDesc(modeDesc);
         // 7.定位时间
-        Date positionTime = readDate(buffer);
+        Date positionTime = position.getTime();
         dataPackPosition.setPositionTime(positionTime);
-        JTT808DataPackUtil.debug("positionTime: " + positionTime);
+        JTT808Tracer.debug("positionTime: {}", positionTime);
         return dataPackPosition;
     }
 
     /**
      * 读取位置数据附加信息，并封装返回DataPackTarget集合<br>
-     *     考虑到数据包里面包含报警数据和极值数据，所以返回DataPackTarget集合
+     *     考虑到数据包里面包含报警数据和极值数据，所以返回DataPackTarget集合，
+     *     附加信息先解析到当前线程重复使用的JTT808PositionExtras(附加信息处理器中不能再调用本方法)
      *
      * @param buffer ByteBuf
      * @param dataPackPosition 位置信息
@@ -380,189 +572,146 @@ public class JTT808DataPackUtil extends DataPackUtil {
      * @return
      */
     public static List<DataPackTarget> readPositionExtra(ByteBuf buffer, DataPackPosition dataPackPosition, int extraMsgTotal) {
+        return readPositionExtra(buffer, dataPackPosition, extraMsgTotal, LOCAL_POSITION_EXTRAS.get(), null);
+    }
+
+    /**
+     * 读取位置数据附加信息，使用指定的附加信息处理器
+     *
+     * @param buffer ByteBuf
+     * @param dataPackPosition 位置信息
+     * @param extraMsgTotal 附加信息长度
+     * @param handlers 附加信息处理器，为null时不使用
+     * @return
+     */
+    public static List<DataPackTarget> readPositionExtra(ByteBuf buffer, DataPackPosition dataPackPosition, int extraMsgTotal, PositionExtraHandlerRegistry handlers) {
+        return readPositionExtra(buffer, dataPackPosition, extraMsgTotal, LOCAL_POSITION_EXTRAS.get(), handlers);
+    }
+
+    /**
+     * 读取位置数据附加信息，并封装返回DataPackTarget集合<br>
+     *     附加信息先按ID解析到可重复使用的JTT808PositionExtras，再转换为报警数据和极值数据
+     *
+     * @param buffer ByteBuf
+     * @param dataPackPosition 位置信息
+     * @param extraMsgTotal 附加信息长度
+     * @param extras 可重复使用的附加信息
+     * @param handlers 附加信息处理器，为null时不使用
+     * @return
+     */
+    public static List<DataPackTarget> readPositionExtra(ByteBuf buffer, DataPackPosition dataPackPosition, int extraMsgTotal, JTT808PositionExtras extras, PositionExtraHandlerRegistry handlers) {
         // 声明变量
         int extraMsgId;
-        int extraMsgLength;
-        String extraMsgContent;
+        long value;
         List<DataPackTarget> dataPackTargetList = new ArrayList<>();
         DataPackPeak.Peak peak;
-        List<DataPackPeak.Peak> peakList = new ArrayList<>();
+        List<DataPackPeak.Peak> peakList = null;
         DataPackPeak dataPackPeak;
         DataPackAlarm.Alarm alarm;
-        List<DataPackAlarm.Alarm> alarmList = new ArrayList<>();
+        List<DataPackAlarm.Alarm> alarmList = null;
         DataPackAlarm dataPackAlarm;
 
         // 读取数据
-        int left = extraMsgTotal;
-        while(0 < left) {
-
-            // 1.附加信息 ID
-            extraMsgId = JTT808DataPackUtil.readByte(buffer);
-            JTT808DataPackUtil.debug("extraMsgId: " + extraMsgId);
-            // 2.附加信息长度
-            extraMsgLength = JTT808DataPackUtil.readByte(buffer);
-            JTT808DataPackUtil.debug("extraMsgLength: " + extraMsgLength);
-            // -.计算剩余
-            left -= (2 + extraMsgLength);
-
-            // 3.附加信息
-            // 3.1 判断
-            // 0x05-0x10 - 保留
-            // 0xE1-0xFF - 自定义区域
-            // 0x01 - 4 - 里程，DWORD，1/10km，对应车上里程表读数
-            if(0x01 == extraMsgId && 4 == extraMsgLength) {
-                // 单位km
-                extraMsgContent = String.valueOf(JTT808DataPackUtil.readDWord(buffer)/10);
-                peak = new DataPackPeak.Peak(extraMsgId, extraMsgContent);
-                peak.setPeakUnit("km");
-                peak.setPeakDesc("里程，对应车上里程表读数");
-                //--add
-                peakList.add(peak);
-                continue;
-            }
-            // 0x02 - 2 - 油量，WORD，1/10L，对应车上油量表读数
-            if(0x02 == extraMsgId && 2 == extraMsgLength) {
-                // 单位L
-                extraMsgContent = String.valueOf(JTT808DataPackUtil.readWord(buffer)/10);
-                peak = new DataPackPeak.Peak(extraMsgId, extraMsgContent);
-                peak.setPeakUnit("L");
-                peak.setPeakDesc("油量，对应车上油量表读数");
-                //--add
-                peakList.add(peak);
-                continue;
-            }
-            // 0x03 - 2 - 行驶记录功能获取的速度，WORD，1/10km/h
-            if(0x03 == extraMsgId && 2 == extraMsgLength) {
-                // 单位km/h
-                extraMsgContent = String.valueOf(JTT808DataPackUtil.readWord(buffer)/10);
-                peak = new DataPackPeak.Peak(extraMsgId, extraMsgContent);
-                peak.setPeakUnit("km/h");
-                peak.setPeakDesc("行驶记录功能获取的速度");
-                //--add
-                peakList.add(peak);
-                continue;
-            }
-            // 0x04 - 2 - 需要人工确认报警事件的 ID，WORD，从 1 开始计数
-            if(0x04 == extraMsgId && 2 == extraMsgLength) {
-                alarm = new DataPackAlarm.Alarm("需要人工确认报警事件的 ID");
-                alarm.setAlarmCode(String.valueOf(extraMsgId));
-                alarm.setAlarmValue(String.valueOf(JTT808DataPackUtil.readWord(buffer)));
-                //--add
-                alarmList.add(alarm);
-                continue;
-            }
-            // 0x11 - 1 或 5 - 超速报警附加信息见 表 28
-            if(0x11 == extraMsgId && (1 == extraMsgLength || 5 == extraMsgLength)) {
-                alarm = new DataPackAlarm.Alarm("超速报警");
-                alarm.setAlarmCode(String.valueOf(extraMsgId));
-                switch (extraMsgLength) {
-                    case 1:
+        extras.read(buffer, extraMsgTotal, handlers, dataPackPosition, dataPackTargetList);
+
+        // 转换数据
+        for(int i = 0; i < extras.size(); i++) {
+            extraMsgId = extras.getId(i);
+            value = extras.getValue(extraMsgId);
+            JTT808Tracer.debug("extraMsgId: {}", extraMsgId);
+            switch (extraMsgId) {
+                case JTT808PositionExtras.MILEAGE:
+                    // 0x01 - 4 - 里程，DWORD，1/10km，对应车上里程表读数，单位km
+                    peak = new DataPackPeak.Peak(extraMsgId, String.valueOf(value/10));
+                    peak.setPeakUnit("km");
+                    peak.setPeakDesc("里程，对应车上里程表读数");
+                    break;
+                case JTT808PositionExtras.FUEL:
+                    // 0x02 - 2 - 油量，WORD，1/10L，对应车上油量表读数，单位L
+                    peak = new DataPackPeak.Peak(extraMsgId, String.valueOf(value/10));
+                    peak.setPeakUnit("L");
+                    peak.setPeakDesc("油量，对应车上油量表读数");
+                    break;
+                case JTT808PositionExtras.RECORD_SPEED:
+                    // 0x03 - 2 - 行驶记录功能获取的速度，WORD，1/10km/h，单位km/h
+                    peak = new DataPackPeak.Peak(extraMsgId, String.valueOf(value/10));
+                    peak.setPeakUnit("km/h");
+                    peak.setPeakDesc("行驶记录功能获取的速度");
+                    break;
+                case JTT808PositionExtras.ALARM_EVENT_ID:
+                    // 0x04 - 2 - 需要人工确认报警事件的 ID，WORD，从 1 开始计数
+                    alarm = new DataPackAlarm.Alarm("需要人工确认报警事件的 ID");
+                    alarm.setAlarmCode(String.valueOf(extraMsgId));
+                    alarm.setAlarmValue(String.valueOf(value));
+                    alarmList = addAlarm(alarmList, alarm);
+                    continue;
+                case JTT808PositionExtras.OVERSPEED_ALARM:
+                    // 0x11 - 1 或 5 - 超速报警附加信息见 表 28
+                    alarm = new DataPackAlarm.Alarm("超速报警");
+                    alarm.setAlarmCode(String.valueOf(extraMsgId));
+                    if(1 == extras.getLength(extraMsgId)) {
                         // 0：无特定位置
-                        alarm.setAlarmValue(String.valueOf(JTT808DataPackUtil.readByte(buffer)));
-                        break;
-                    case 2:
+                        alarm.setAlarmValue(String.valueOf(value));
+                    } else {
                         // 1：圆形区域；2：矩形区域；3：多边形区域；4：路段
-                        StringBuffer stringBuffer = new StringBuffer();
-                        stringBuffer.append(JTT808DataPackUtil.readByte(buffer));
-                        stringBuffer.append("-");
-                        stringBuffer.append(JTT808DataPackUtil.readDWord(buffer));
-                        alarm.setAlarmValue(stringBuffer.toString());
-                        break;
-                }
-                alarm.setAlarmDesc("【位置类型：0：无特定位置；1：圆形区域；2：矩形区域；3：多边形区域；4：路段】－【区域或路段 ID】");
-                //--add
-                alarmList.add(alarm);
-                continue;
-            }
-            // 0x12 - 6 - 进出区域/路线报警附加信息见 表 29
-            if(0x12 == extraMsgId && 6 == extraMsgLength) {
-                alarm = new DataPackAlarm.Alarm("进出区域/路线报警");
-                alarm.setAlarmCode(String.valueOf(extraMsgId));
-                StringBuffer stringBuffer = new StringBuffer();
-                stringBuffer.append(JTT808DataPackUtil.readByte(buffer));
-                stringBuffer.append("-");
-                stringBuffer.append(JTT808DataPackUtil.readDWord(buffer));
-                stringBuffer.append("-");
-                stringBuffer.append(JTT808DataPackUtil.readByte(buffer));
-                alarm.setAlarmValue(stringBuffer.toString());
-                alarm.setAlarmDesc("【位置类型：0：无特定位置；1：圆形区域；2：矩形区域；3：多边形区域；4：路段】－【区域或路段 ID】-【方向：0：进；1：出】");
-                //--add
-                alarmList.add(alarm);
-                continue;
-            }
-            // 0x13 - 7 - 路段行驶时间不足/过长报警附加信息见 表 30
-            if(0x13 == extraMsgId && 7 == extraMsgLength) {
-                alarm = new DataPackAlarm.Alarm("路段行驶时间不足/过长报警");
-                alarm.setAlarmCode(String.valueOf(extraMsgId));
-                StringBuffer stringBuffer = new StringBuffer();
-                stringBuffer.append(JTT808DataPackUtil.readDWord(buffer));
-                stringBuffer.append("-");
-                stringBuffer.append(JTT808DataPackUtil.readWord(buffer));
-                stringBuffer.append("-");
-                stringBuffer.append(JTT808DataPackUtil.readByte(buffer));
-                alarm.setAlarmValue(stringBuffer.toString());
-                alarm.setAlarmDesc("【路段 ID】-【路段行驶时间:=单位为秒（s）】-【结果：0：不足；1：过长】");
-                //--add
-                alarmList.add(alarm);
-                continue;
-            }
-            // 0x25 - 4 - 扩展车辆信号状态位，定义见 表 31
-            if(0x25 == extraMsgId && 4 == extraMsgLength) {
-                // TODO 表 31 扩展车辆信号状态位
-                JTT808DataPackUtil.debug("车辆信号状态: " + JTT808DataPackUtil.readBytes(buffer, 4));
-                continue;
-            }
-            // 0x2A - 2 - IO状态位，定义见 表 32
-            if(0x2A == extraMsgId && 2 == extraMsgLength) {
-                // TODO 表 32 IO 状态位
-                JTT808DataPackUtil.debug("IO状态: " + JTT808DataPackUtil.readBytes(buffer, 2));
-                continue;
-            }
-            // 0x2B - 4 - 模拟量，bit0-15，AD0；bit16-31，AD1。
-            if(0x2B == extraMsgId && 4 == extraMsgLength) {
-                // bit16-31，AD1
-                peak = new DataPackPeak.Peak();
-                peak.setPeakId(extraMsgId);
-                peak.setPeakName("AD1");
-                peak.setPeakValue(String.valueOf(JTT808DataPackUtil.readWord(buffer)));
-                //--add
-                peakList.add(peak);
-                // bit0-15，AD0
-                peak = new DataPackPeak.Peak();
-                peak.setPeakId(extraMsgId);
-                peak.setPeakName("AD0");
-                peak.setPeakValue(String.valueOf(JTT808DataPackUtil.readWord(buffer)));
-                //--add
-                peakList.add(peak);
-                continue;
-            }
-            // 0x30 - 1 - BYTE，无线通信网络信号强度
-            if(0x30 == extraMsgId && 1 == extraMsgLength) {
-                peak = new DataPackPeak.Peak();
-                peak.setPeakId(extraMsgId);
-                peak.setPeakName("无线通信网络信号强度");
-                peak.setPeakValue(String.valueOf(JTT808DataPackUtil.readByte(buffer)));
-                //--add
-                peakList.add(peak);
-                continue;
-            }
-            // 0x31 - 1 - BYTE，GNSS 定位卫星数
-            if(0x31 == extraMsgId && 1 == extraMsgLength) {
-                peak = new DataPackPeak.Peak();
-                peak.setPeakId(extraMsgId);
-                peak.setPeakName("GNSS 定位卫星数");
-                peak.setPeakValue(String.valueOf(JTT808DataPackUtil.readByte(buffer)));
-                //--add
-                peakList.add(peak);
-                continue;
-            }
-
-            // 无法解析，直接释放
-            JTT808DataPackUtil.readBytes(buffer, extraMsgLength);
+                        alarm.setAlarmValue((value >>> 32) + "-" + (value & 0xFFFFFFFFL));
+                    }
+                    alarm.setAlarmDesc("【位置类型：0：无特定位置；1：圆形区域；2：矩形区域；3：多边形区域；4：路段】－【区域或路段 ID】");
+                    alarmList = addAlarm(alarmList, alarm);
+                    continue;
+                case JTT808PositionExtras.AREA_ALARM:
+                    // 0x12 - 6 - 进出区域/路线报警附加信息见 表 29
+                    alarm = new DataPackAlarm.Alarm("进出区域/路线报警");
+                    alarm.setAlarmCode(String.valueOf(extraMsgId));
+                    alarm.setAlarmValue((value >>> 40) + "-" + ((value >>> 8) & 0xFFFFFFFFL) + "-" + (value & 0xFF));
+                    alarm.setAlarmDesc("【位置类型：0：无特定位置；1：圆形区域；2：矩形区域；3：多边形区域；4：路段】－【区域或路段 ID】-【方向：0：进；1：出】");
+                    alarmList = addAlarm(alarmList, alarm);
+                    continue;
+                case JTT808PositionExtras.ROUTE_TIME_ALARM:
+                    // 0x13 - 7 - 路段行驶时间不足/过长报警附加信息见 表 30
+                    alarm = new DataPackAlarm.Alarm("路段行驶时间不足/过长报警");
+                    alarm.setAlarmCode(String.valueOf(extraMsgId));
+                    alarm.setAlarmValue((value >>> 24) + "-" + ((value >>> 8) & 0xFFFF) + "-" + (value & 0xFF));
+                    alarm.setAlarmDesc("【路段 ID】-【路段行驶时间:=单位为秒（s）】-【结果：0：不足；1：过长】");
+                    alarmList = addAlarm(alarmList, alarm);
+                    continue;
+                case JTT808PositionExtras.ANALOG:
+                    // 0x2B - 4 - 模拟量，bit16-31，AD1
+                    peak = new DataPackPeak.Peak();
+                    peak.setPeakId(extraMsgId);
+                    peak.setPeakName("AD1");
+                    peak.setPeakValue(String.valueOf(extras.getAnalog1()));
+                    peakList = addPeak(peakList, peak);
+                    // bit0-15，AD0
+                    peak = new DataPackPeak.Peak();
+                    peak.setPeakId(extraMsgId);
+                    peak.setPeakName("AD0");
+                    peak.setPeakValue(String.valueOf(extras.getAnalog0()));
+                    break;
+                case JTT808PositionExtras.SIGNAL_STRENGTH:
+                    // 0x30 - 1 - BYTE，无线通信网络信号强度
+                    peak = new DataPackPeak.Peak();
+                    peak.setPeakId(extraMsgId);
+                    peak.setPeakName("无线通信网络信号强度");
+                    peak.setPeakValue(String.valueOf(value));
+                    break;
+                case JTT808PositionExtras.SATELLITES:
+                    // 0x31 - 1 - BYTE，GNSS 定位卫星数
+                    peak = new DataPackPeak.Peak();
+                    peak.setPeakId(extraMsgId);
+                    peak.setPeakName("GNSS 定位卫星数");
+                    peak.setPeakValue(String.valueOf(value));
+                    break;
+                default:
+                    // 0x25 - 扩展车辆信号状态位、0x2A - IO状态位，只保存在附加信息中
+                    continue;
+            }
+            //--add
+            peakList = addPeak(peakList, peak);
         }
 
         // 组装报警数据
-        if(null != alarmList && 0 < alarmList.size()) {
+        if(null != alarmList) {
             dataPackAlarm = new DataPackAlarm(dataPackPosition);
             dataPackAlarm.setAlarmList(alarmList);
             dataPackAlarm.setPosition(dataPackPosition);
@@ -570,7 +719,7 @@ public class JTT808DataPackUtil extends DataPackUtil {
         }
 
         // 组装极值数据
-        if(null != peakList && 0 < peakList.size()) {
+        if(null != peakList) {
             dataPackPeak = new DataPackPeak(dataPackPosition);
             dataPackPeak.setPeakList(peakList);
             dataPackTargetList.add(new DataPackTarget(dataPackPeak));
@@ -579,6 +728,22 @@ public class JTT808DataPackUtil extends DataPackUtil {
         return dataPackTargetList;
     }
 
+    private static List<DataPackAlarm.Alarm> addAlarm(List<DataPackAlarm.Alarm> alarmList, DataPackAlarm.Alarm alarm) {
+        if(null == alarmList) {
+            alarmList = new ArrayList<>();
+        }
+        alarmList.add(alarm);
+        return alarmList;
+    }
+
+    private static List<DataPackPeak.Peak> addPeak(List<DataPackPeak.Peak> peakList, DataPackPeak.Peak peak) {
+        if(null == peakList) {
+            peakList = new ArrayList<>();
+        }
+        peakList.add(peak);
+        return peakList;
+    }
+
     /**
      * 查询long类型数据的位位索引数据
      *
@@ -595,144 +760,28 @@ public class JTT808DataPackUtil extends DataPackUtil {
 
     /**
      * 报警标志详情<br>
-     *     参考“表 23 位置基本信息数据格式”
+     *     参考“表 23 位置基本信息数据格式”，返回按位索引的报警标志视图(JTT808AlarmFlags)，读取元素时才创建报警对象<br>
+     *     返回的集合不可修改，需要修改时复制为新的集合
      *
      * @param alarmProps 报警标志属性
-     * @return 报警集合
+     * @return 报警集合(不可修改)，没有已定义的报警时返回null
      */
     public static List<DataPackAlarm.Alarm> detailAlarmProps(long alarmProps) {
-        List<DataPackAlarm.Alarm> alarmList = null;
-        if(0 != alarmProps) {
-            alarmList = new ArrayList<>();
-            // 0 -> 1：紧急报警，触动报警开关后触发
-            if(queryLongBitContent(alarmProps, 0)) {
-                alarmList.add(new DataPackAlarm.Alarm("紧急报警，触动报警开关后触发", 0, "收到应答后清零"));
-            }
-            // 1 -> 1：超速报警
-            if(queryLongBitContent(alarmProps, 1)) {
-                alarmList.add(new DataPackAlarm.Alarm("超速报警", 1, "标志维持至报警条件解除"));
-            }
-            // 2 -> 1：疲劳驾驶
-            if(queryLongBitContent(alarmProps, 2)) {
-                alarmList.add(new DataPackAlarm.Alarm("疲劳驾驶", 2, "标志维持至报警条件解除"));
-            }
-            // 3 -> 1：危险预警
-            if(queryLongBitContent(alarmProps, 3)) {
-                alarmList.add(new DataPackAlarm.Alarm("危险预警", 3, "收到应答后清零"));
-            }
-            // 4 -> 1：GNSS 模块发生故障
-            if(queryLongBitContent(alarmProps, 4)) {
-                alarmList.add(new DataPackAlarm.Alarm("GNSS 模块发生故障", 4, "志维持至报警条件解除"));
-            }
-            // 5 -> 1：GNSS 天线未接或被剪断
-            if(queryLongBitContent(alarmProps, 5)) {
-                alarmList.add(new DataPackAlarm.Alarm("GNSS 天线未接或被剪断", 5, "标志维持至报警条件解除"));
-            }
-            // 6 -> 1：GNSS 天线短路
-            if(queryLongBitContent(alarmProps, 6)) {
-                alarmList.add(new DataPackAlarm.Alarm("GNSS 天线短路", 6, "标志维持至报警条件解除"));
-            }
-            // 7 -> 1：终端主电源欠压
-            if(queryLongBitContent(alarmProps, 7)) {
-                alarmList.add(new DataPackAlarm.Alarm("终端主电源欠压", 7, "标志维持至报警条件解除"));
-            }
-            // 8 -> 1：终端主电源掉电
-            if(queryLongBitContent(alarmProps, 8)) {
-                alarmList.add(new DataPackAlarm.Alarm("终端主电源掉电", 8, "标志维持至报警条件解除"));
-            }
-            // 9 -> 1：终端 LCD 或显示器故障
-            if(queryLongBitContent(alarmProps, 9)) {
-                alarmList.add(new DataPackAlarm.Alarm("终端 LCD 或显示器故障", 9, "标志维持至报警条件解除"));
-            }
-            // 10 -> 1：TTS 模块故障
-            if(queryLongBitContent(alarmProps, 10)) {
-                alarmList.add(new DataPackAlarm.Alarm("TTS 模块故障", 10, "标志维持至报警条件解除"));
-            }
-            // 11 -> 1：摄像头故障
-            if(queryLongBitContent(alarmProps, 11)) {
-                alarmList.add(new DataPackAlarm.Alarm("摄像头故障", 11, "标志维持至报警条件解除"));
-            }
-            // 12 -> 1：道路运输证 IC 卡模块故障
-            if(queryLongBitContent(alarmProps, 12)) {
-                alarmList.add(new DataPackAlarm.Alarm("道路运输证 IC 卡模块故障", 12, "标志维持至报警条件解除"));
-            }
-            // 13 -> 1：超速预警
-            if(queryLongBitContent(alarmProps, 13)) {
-                alarmList.add(new DataPackAlarm.Alarm("超速预警", 13, "标志维持至报警条件解除"));
-            }
-            // 14 -> 1：疲劳驾驶预警
-            if(queryLongBitContent(alarmProps, 14)) {
-                alarmList.add(new DataPackAlarm.Alarm("疲劳驾驶预警", 14, "标志维持至报警条件解除"));
-            }
-            // 18 -> 1：当天累计驾驶超时
-            if(queryLongBitContent(alarmProps, 18)) {
-                alarmList.add(new DataPackAlarm.Alarm("当天累计驾驶超时", 18, "标志维持至报警条件解除"));
-            }
-            // 19 -> 1：超时停车
-            if(queryLongBitContent(alarmProps, 19)) {
-                alarmList.add(new DataPackAlarm.Alarm("超时停车", 19, "标志维持至报警条件解除"));
-            }
-            // 20 -> 1：进出区域
-            if(queryLongBitContent(alarmProps, 20)) {
-                alarmList.add(new DataPackAlarm.Alarm("进出区域", 20, "收到应答后清零"));
-            }
-            // 21 -> 1：进出路线
-            if(queryLongBitContent(alarmProps, 21)) {
-                alarmList.add(new DataPackAlarm.Alarm("进出路线", 21, "收到应答后清零"));
-            }
-            // 22 -> 1：路段行驶时间不足/过长
-            if(queryLongBitContent(alarmProps, 22)) {
-                alarmList.add(new DataPackAlarm.Alarm("路段行驶时间不足/过长", 22, "收到应答后清零"));
-            }
-            // 23 -> 1：路线偏离报警
-            if(queryLongBitContent(alarmProps, 23)) {
-                alarmList.add(new DataPackAlarm.Alarm("路线偏离报警", 23, "标志维持至报警条件解除"));
-            }
-            // 24 -> 1：车辆 VSS 故障
-            if(queryLongBitContent(alarmProps, 24)) {
-                alarmList.add(new DataPackAlarm.Alarm("车辆 VSS 故障", 24, "标志维持至报警条件解除"));
-            }
-            // 25 -> 1：车辆油量异常
-            if(queryLongBitContent(alarmProps, 25)) {
-                alarmList.add(new DataPackAlarm.Alarm("车辆油量异常", 25, "标志维持至报警条件解除"));
-            }
-            // 26 -> 1：车辆被盗(通过车辆防盗器)
-            if(queryLongBitContent(alarmProps, 26)) {
-                alarmList.add(new DataPackAlarm.Alarm("车辆被盗(通过车辆防盗器)", 26, "标志维持至报警条件解除"));
-            }
-            // 27 -> 1：车辆非法点火
-            if(queryLongBitContent(alarmProps, 27)) {
-                alarmList.add(new DataPackAlarm.Alarm("车辆非法点火", 27, "收到应答后清零"));
-            }
-            // 28 -> 1：车辆非法位移
-            if(queryLongBitContent(alarmProps, 28)) {
-                alarmList.add(new DataPackAlarm.Alarm("车辆非法位移", 28, "收到应答后清零"));
-            }
-            // 29 -> 1：碰撞预警
-            if(queryLongBitContent(alarmProps, 29)) {
-                alarmList.add(new DataPackAlarm.Alarm("碰撞预警", 29, "标志维持至报警条件解除"));
-            }
-            // 30 -> 1：侧翻预警
-            if(queryLongBitContent(alarmProps, 30)) {
-                alarmList.add(new DataPackAlarm.Alarm("侧翻预警", 30, "标志维持至报警条件解除"));
-            }
-            // 31 -> 1：非法开门报警（终端未设置区域时，不判断非法开门）
-            if(queryLongBitContent(alarmProps, 31)) {
-                alarmList.add(new DataPackAlarm.Alarm("非法开门报警（终端未设置区域时，不判断非法开门）", 31, "收到应答后清零"));
-            }
+        if(0 != (alarmProps & JTT808AlarmFlags.DEFINED_MASK)) {
+            return new JTT808AlarmFlags(alarmProps);
         }
-        return alarmList;
+        return null;
     }
 
     /**
-     * 打印调试信息，调试完成后设置false
+     * 打印调试信息
      *
      * @param string 字符串
+     * @deprecated 使用JTT808Tracer，参数在输出时才格式化
      */
+    @Deprecated
     public static void debug(String string) {
-        if(true) {
-            System.out.println(string);
-        }
+        JTT808Tracer.debug(string);
     }
 
     protected JTT808DataPackUtil() {
@@ -0,0 +1,185 @@
+package com.incarcloud.rooster.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.DatatypeConverter;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JTT808解析跟踪<br>
+ *     1.总开关：启动参数-Drooster.jtt808.trace=true，默认关闭，关闭时ENABLED为常量false，跟踪调用被JIT消除<br>
+ *     2.输出：SLF4J(logger名称com.incarcloud.rooster.util.JTT808Tracer)，DEBUG级别，参数在输出时才格式化<br>
+ *     3.过滤：可以指定只跟踪某些消息ID和某些终端，不指定时跟踪全部，运行时修改立即生效
+ *
+ * @author Aaric, created on 2017-09-13T10:05.
+ * @since 2.0
+ */
+public final class JTT808Tracer {
+
+    /**
+     * 总开关
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("rooster.jtt808.trace");
+
+    private static final Logger logger = LoggerFactory.getLogger(JTT808Tracer.class);
+
+    /**
+     * 跟踪的消息ID，为空时跟踪全部
+     */
+    private static final Set<Integer> msgIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 跟踪的终端手机号，为空时跟踪全部
+     */
+    private static final Set<String> deviceIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 当前线程正在处理的消息是否需要跟踪
+     */
+    private static final ThreadLocal<Boolean> active = new ThreadLocal<>();
+
+    private JTT808Tracer() {
+    }
+
+    /**
+     * 跟踪指定消息ID
+     *
+     * @param msgId 消息ID
+     */
+    public static void traceMsgId(int msgId) {
+        msgIds.add(msgId);
+    }
+
+    /**
+     * 跟踪指定终端
+     *
+     * @param deviceId 终端手机号(12位)
+     */
+    public static void traceDevice(String deviceId) {
+        deviceIds.add(deviceId);
+    }
+
+    /**
+     * 清除消息ID和终端过滤条件
+     */
+    public static void clear() {
+        msgIds.clear();
+        deviceIds.clear();
+    }
+
+    /**
+     * 开始处理一个数据帧，根据消息头判断是否跟踪
+     *
+     * @param frame 转义还原的数据帧(包含起始标识位)，不改变读取位置
+     */
+    public static void begin(ByteBuf frame) {
+        if(ENABLED) {
+            int start = frame.readerIndex();
+            begin(frame.getUnsignedShort(start + 1), ByteBufUtil.hexDump(frame, start + 5, 6));
+        }
+    }
+
+    /**
+     * 开始处理一条消息，根据消息ID和终端判断是否跟踪
+     *
+     * @param msgId 消息ID，小于0时不按消息ID过滤
+     * @param deviceId 终端手机号
+     */
+    public static void begin(int msgId, String deviceId) {
+        if(ENABLED) {
+            active.set(logger.isDebugEnabled()
+                    && (0 > msgId || msgIds.isEmpty() || msgIds.contains(msgId))
+                    && (deviceIds.isEmpty() || deviceIds.contains(deviceId)));
+        }
+    }
+
+    /**
+     * 结束当前消息的处理
+     */
+    public static void end() {
+        if(ENABLED) {
+            active.remove();
+        }
+    }
+
+    /**
+     * 是否输出跟踪信息<br>
+     *     begin/end之外只在没有过滤条件时输出
+     *
+     * @return true/false
+     */
+    public static boolean isActive() {
+        if(ENABLED) {
+            Boolean value = active.get();
+            if(null != value) {
+                return value;
+            }
+            return logger.isDebugEnabled() && msgIds.isEmpty() && deviceIds.isEmpty();
+        }
+        return false;
+    }
+
+    /**
+     * 输出跟踪信息
+     *
+     * @param message 信息
+     */
+    public static void debug(String message) {
+        if(ENABLED && isActive()) {
+            logger.debug(message);
+        }
+    }
+
+    /**
+     * 输出跟踪信息
+     *
+     * @param format 格式，参数占位符为{}
+     * @param arg 参数
+     */
+    public static void debug(String format, Object arg) {
+        if(ENABLED && isActive()) {
+            logger.debug(format, arg);
+        }
+    }
+
+    /**
+     * 输出跟踪信息，整型参数关闭时不装箱
+     *
+     * @param format 格式，参数占位符为{}
+     * @param arg 参数
+     */
+    public static void debug(String format, long arg) {
+        if(ENABLED && isActive()) {
+            logger.debug(format, arg);
+        }
+    }
+
+    /**
+     * 输出跟踪信息
+     *
+     * @param format 格式，参数占位符为{}
+     * @param arg1 参数1
+     * @param arg2 参数2
+     */
+    public static void debug(String format, Object arg1, Object arg2) {
+        if(ENABLED && isActive()) {
+            logger.debug(format, arg1, arg2);
+        }
+    }
+
+    /**
+     * 输出跟踪信息，字节数组以十六进制字符串输出
+     *
+     * @param format 格式，参数占位符为{}
+     * @param bytes 字节数组
+     */
+    public static void debugHex(String format, byte[] bytes) {
+        if(ENABLED && isActive()) {
+            logger.debug(format, DatatypeConverter.printHexBinary(bytes));
+        }
+    }
+}
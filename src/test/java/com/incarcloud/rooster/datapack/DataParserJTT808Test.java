@@ -1,7 +1,9 @@
 package com.incarcloud.rooster.datapack;
 
+import com.incarcloud.rooster.util.JTT808TrafficGenerator;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.util.ReferenceCountUtil;
 import org.junit.*;
@@ -14,6 +16,9 @@ import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * DataParserJTT808Test
@@ -90,6 +95,16 @@ public class DataParserJTT808Test {
         Assert.assertNotEquals(0L, parser.extractBody(dataPack).size());
     }
 
+    @Test
+    public void testExtractBodyFromBase64() {
+        // 不携带转义还原数据帧的数据包，从Base64数据还原
+        DataPack dataPack = parser.extract(buffer).get(2);
+        DataPack base64Pack = new DataPack(DataParserJTT808.PROTOCOL_GROUP, DataParserJTT808.PROTOCOL_NAME, DataParserJTT808.PROTOCOL_VERSION);
+        base64Pack.setBuf(Unpooled.wrappedBuffer(Base64.getDecoder().decode(dataPack.getDataB64())));
+        Assert.assertEquals(parser.extractBody(dataPack).size(), parser.extractBody(base64Pack).size());
+        Assert.assertEquals(ByteBufUtil.hexDump(parser.createResponse(dataPack, ERespReason.OK)), ByteBufUtil.hexDump(parser.createResponse(base64Pack, ERespReason.OK)));
+    }
+
     @Test
     @Ignore
     public void testExtractBodyForJPEG() throws Exception {
@@ -134,4 +149,100 @@ public class DataParserJTT808Test {
         Assert.assertEquals("013300312707", metaMap.get("deviceId"));
         ReferenceCountUtil.release(buffer);
     }
+    @Test
+    public void testExtractBodies() throws Exception {
+        JTT808TrafficGenerator generator = new JTT808TrafficGenerator(20);
+        ByteBuf trafficBuffer = Unpooled.buffer();
+        generator.generate(trafficBuffer, 400);
+        DataParserJTT808 parserJTT808 = new DataParserJTT808();
+        List<DataPack> dataPackList = parserJTT808.extract(trafficBuffer);
+
+        // 逐个解析
+        List<String> expectedList = new ArrayList<>();
+        for (DataPack dataPack : dataPackList) {
+            for (DataPackTarget target : parserJTT808.extractBody(dataPack)) {
+                expectedList.add(target.getDataPackObject().getDeviceId() + ":" + target.getDataPackObject().getPackId());
+            }
+        }
+
+        // 批量解析
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        parserJTT808.setExecutor(executor, 4);
+        List<String> actualList = new ArrayList<>();
+        for (List<DataPackTarget> dataPackTargetList : parserJTT808.extractBodies(dataPackList)) {
+            for (DataPackTarget target : dataPackTargetList) {
+                actualList.add(target.getDataPackObject().getDeviceId() + ":" + target.getDataPackObject().getPackId());
+            }
+        }
+        Assert.assertEquals(expectedList, actualList);
+
+        // 同一终端按顺序处理
+        Map<String, List<String>> deviceMap = new ConcurrentHashMap<>();
+        parserJTT808.extractBodies(dataPackList, dataPackTargetList -> {
+            for (DataPackTarget target : dataPackTargetList) {
+                String deviceId = target.getDataPackObject().getDeviceId();
+                deviceMap.computeIfAbsent(deviceId, key -> new ArrayList<>()).add(deviceId + ":" + target.getDataPackObject().getPackId());
+            }
+        });
+        Assert.assertEquals(20, deviceMap.size());
+        for (Map.Entry<String, List<String>> entry : deviceMap.entrySet()) {
+            List<String> deviceList = new ArrayList<>();
+            for (String item : expectedList) {
+                if (item.startsWith(entry.getKey() + ":")) {
+                    deviceList.add(item);
+                }
+            }
+            Assert.assertEquals(deviceList, entry.getValue());
+        }
+        executor.shutdown();
+        trafficBuffer.release();
+    }
+    @Test
+    public void testCreateResponses() {
+        JTT808TrafficGenerator generator = new JTT808TrafficGenerator(5);
+        ByteBuf trafficBuffer = Unpooled.buffer();
+        generator.generate(trafficBuffer, 20);
+        DataParserJTT808 parserJTT808 = new DataParserJTT808();
+        List<DataPack> dataPackList = parserJTT808.extract(trafficBuffer);
+
+        // 逐个应答
+        ByteBuf expected = Unpooled.buffer();
+        for (DataPack dataPack : dataPackList) {
+            ByteBuf responseBuf = parserJTT808.createResponse(dataPack, ERespReason.OK);
+            expected.writeBytes(responseBuf);
+            parserJTT808.destroyResponse(responseBuf);
+        }
+
+        // 批量应答
+        ByteBuf responseBuf = parserJTT808.createResponses(dataPackList, ERespReason.OK, PooledByteBufAllocator.DEFAULT);
+        Assert.assertEquals(ByteBufUtil.hexDump(expected), ByteBufUtil.hexDump(responseBuf));
+        Assert.assertEquals(responseBuf.capacity(), responseBuf.readableBytes());
+        parserJTT808.destroyResponse(responseBuf);
+        expected.release();
+        trafficBuffer.release();
+    }
+
+    @Test
+    public void testCreateResponsesSkipInvalid() {
+        ByteBuf heartbeat = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E});
+        DataParserJTT808 parserJTT808 = new DataParserJTT808();
+        List<DataPack> dataPackList = parserJTT808.extract(heartbeat);
+        Assert.assertEquals(1, dataPackList.size());
+
+        // 只有标识位和校验码的数据包不能应答，不影响其他数据包
+        ByteBuf shortFrame = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x7E});
+        DataPackJTT808 invalid = new DataPackJTT808();
+        invalid.setBuf(shortFrame);
+        invalid.setFrame(shortFrame);
+        dataPackList.add(0, invalid);
+        Assert.assertNull(parserJTT808.createResponse(invalid, ERespReason.OK));
+
+        ByteBuf expected = parserJTT808.createResponse(dataPackList.get(1), ERespReason.OK);
+        ByteBuf responseBuf = parserJTT808.createResponses(dataPackList, ERespReason.OK, PooledByteBufAllocator.DEFAULT);
+        Assert.assertEquals(ByteBufUtil.hexDump(expected), ByteBufUtil.hexDump(responseBuf));
+        parserJTT808.destroyResponse(responseBuf);
+        parserJTT808.destroyResponse(expected);
+        shortFrame.release();
+        heartbeat.release();
+    }
 }
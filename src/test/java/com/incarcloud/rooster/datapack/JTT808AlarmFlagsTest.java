@@ -0,0 +1,64 @@
+package com.incarcloud.rooster.datapack;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * JTT808AlarmFlagsTest
+ *
+ * @author Aaric, created on 2017-09-16T15:00.
+ * @since 2.0
+ */
+public class JTT808AlarmFlagsTest {
+
+    @Test
+    public void testGet() {
+        // 位1超速报警，位5GNSS天线未接，位16保留，位31非法开门
+        JTT808AlarmFlags alarmFlags = new JTT808AlarmFlags(0x80010022L);
+        Assert.assertEquals(3, alarmFlags.size());
+        Assert.assertTrue(alarmFlags.isSet(5));
+        Assert.assertFalse(alarmFlags.isSet(16));
+        Assert.assertEquals("超速报警", alarmFlags.get(0).getAlarmName());
+        Assert.assertEquals("GNSS 天线未接或被剪断", alarmFlags.get(1).getAlarmName());
+        Assert.assertEquals(JTT808AlarmFlags.getDescriptor(31).getName(), alarmFlags.get(2).getAlarmName());
+        Assert.assertSame(alarmFlags.get(1), alarmFlags.get(1));
+    }
+
+    @Test
+    public void testReserved() {
+        Assert.assertNull(JTT808AlarmFlags.getDescriptor(15));
+        Assert.assertEquals(0, new JTT808AlarmFlags(0x00038000L).size());
+        Assert.assertEquals(29, new JTT808AlarmFlags(0xFFFFFFFFL).size());
+    }
+
+    @Test
+    public void testGetOutOfBounds() {
+        JTT808AlarmFlags alarmFlags = new JTT808AlarmFlags(0x00000022L);
+        try {
+            alarmFlags.get(2);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+            Assert.assertSame(IndexOutOfBoundsException.class, e.getClass());
+        }
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        JTT808AlarmFlags alarmFlags = new JTT808AlarmFlags(0x80000022L);
+        Assert.assertNotNull(alarmFlags.get(0));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(alarmFlags);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            JTT808AlarmFlags copy = (JTT808AlarmFlags) in.readObject();
+            Assert.assertEquals(alarmFlags.getFlags(), copy.getFlags());
+            Assert.assertEquals("超速报警", copy.get(0).getAlarmName());
+        }
+    }
+}
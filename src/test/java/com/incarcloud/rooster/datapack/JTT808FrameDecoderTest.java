@@ -0,0 +1,142 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JTT808FrameDecoderTest
+ *
+ * @author Aaric, created on 2017-09-06T16:40.
+ * @since 2.0
+ */
+public class JTT808FrameDecoderTest {
+
+    /**
+     * 心跳包
+     */
+    private static final byte[] HEARTBEAT = {0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E};
+
+    @Test
+    public void testDecode() {
+        EmbeddedChannel channel = new EmbeddedChannel(new JTT808FrameDecoder(), new JTT808FrameUnescaper(), new JTT808BodyDecoder());
+
+        // 心跳包分两次到达，前面有无效数据
+        channel.writeInbound(Unpooled.wrappedBuffer(new byte[]{0x01, 0x02, 0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33}));
+        Assert.assertNull(channel.readInbound());
+        channel.writeInbound(Unpooled.wrappedBuffer(new byte[]{0x00, 0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E}));
+
+        // 心跳数据
+        Object target = channel.readInbound();
+        Assert.assertTrue(target instanceof DataPackTarget);
+        Assert.assertTrue(((DataPackTarget) target).getDataPackObject() instanceof DataPackHeartbeat);
+
+        // 平台通用应答
+        ByteBuf response = channel.readOutbound();
+        Assert.assertEquals("7E800100050133003127071BFF1BFF000200A57E", ByteBufUtil.hexDump(response).toUpperCase());
+        ReferenceCountUtil.release(response);
+
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testDecodeInvalid() {
+        EmbeddedChannel channel = new EmbeddedChannel(new JTT808FrameDecoder(), new JTT808FrameUnescaper());
+
+        // 校验码错误
+        channel.writeInbound(Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC6, 0x7E}));
+        Assert.assertNull(channel.readInbound());
+
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testDecodeResync() {
+        EmbeddedChannel channel = new EmbeddedChannel(new JTT808FrameDecoder(), new JTT808FrameUnescaper());
+
+        // 无效数据帧的结束标识位是后面心跳包的起始标识位，与extract()结果一致
+        ByteBuf buffer = Unpooled.buffer(32);
+        buffer.writeBytes(new byte[]{0x7E, 0x01, 0x02, 0x04});
+        buffer.writeBytes(HEARTBEAT);
+        Assert.assertEquals(1, new DataParserJTT808().extract(buffer.duplicate()).size());
+        channel.writeInbound(buffer);
+
+        JTT808Frame frame = channel.readInbound();
+        Assert.assertNotNull(frame);
+        Assert.assertEquals(HEARTBEAT.length, frame.content().readableBytes());
+        frame.release();
+        Assert.assertNull(channel.readInbound());
+
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testDecodeOversized() {
+        JTT808FrameDecoder frameDecoder = new JTT808FrameDecoder();
+        EmbeddedChannel channel = new EmbeddedChannel(frameDecoder, new JTT808FrameUnescaper(), new JTT808BodyDecoder(new DataParserJTT808(), false));
+
+        // 超长数据帧没有结束标识位，同一次到达的心跳包仍然解码
+        ByteBuf buffer = Unpooled.buffer(5016);
+        buffer.writeByte(0x7E);
+        for (int i = 0; i < 5000; i++) {
+            buffer.writeByte(0x01);
+        }
+        buffer.writeBytes(HEARTBEAT);
+        channel.writeInbound(buffer);
+
+        Object target = channel.readInbound();
+        Assert.assertTrue(target instanceof DataPackTarget);
+        Assert.assertTrue(((DataPackTarget) target).getDataPackObject() instanceof DataPackHeartbeat);
+        Assert.assertEquals(1, frameDecoder.getOversizedFrames());
+        Assert.assertEquals(5001, frameDecoder.getDiscardedBytes());
+
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testDecodeMaxFrameLength() {
+        EmbeddedChannel channel = new EmbeddedChannel(new JTT808FrameDecoder(16384), new JTT808FrameUnescaper());
+
+        // 超过默认最大长度的数据帧：消息ID 0x0900，消息体5000字节
+        byte[] frame = new byte[1 + 12 + 5000 + 1 + 1];
+        frame[0] = 0x7E;
+        frame[1] = 0x09;
+        frame[3] = 0x03;
+        frame[4] = (byte) 0xFF;
+        for (int i = 13; i < 13 + 5000; i++) {
+            frame[i] = 0x01;
+        }
+        byte check = 0x00;
+        for (int i = 1; i < frame.length - 2; i++) {
+            check ^= frame[i];
+        }
+        frame[frame.length - 2] = check;
+        frame[frame.length - 1] = 0x7E;
+        channel.writeInbound(Unpooled.wrappedBuffer(frame));
+
+        JTT808Frame decoded = channel.readInbound();
+        Assert.assertNotNull(decoded);
+        Assert.assertEquals(frame.length, decoded.content().readableBytes());
+        decoded.release();
+
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testEncodeResponse() {
+        EmbeddedChannel channel = new EmbeddedChannel(new JTT808Encoder());
+        DataPack dataPack = new DataParserJTT808().extract(Unpooled.wrappedBuffer(HEARTBEAT)).get(0);
+
+        // 平台通用应答直接编码到输出缓冲区
+        Assert.assertTrue(channel.writeOutbound(new JTT808Encoder.Response(dataPack, ERespReason.OK)));
+        ByteBuf response = channel.readOutbound();
+        Assert.assertEquals("7E800100050133003127071BFF1BFF000200A57E", ByteBufUtil.hexDump(response).toUpperCase());
+        ReferenceCountUtil.release(response);
+
+        Assert.assertFalse(channel.finish());
+    }
+}
@@ -0,0 +1,201 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * JTT808FrameScannerTest
+ *
+ * @author Aaric, created on 2017-09-04T10:05.
+ * @since 2.0
+ */
+public class JTT808FrameScannerTest {
+
+    @Test
+    public void testScan() {
+        // 心跳包
+        ByteBuf buffer = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E});
+        JTT808FrameScanner scanner = new JTT808FrameScanner();
+        Assert.assertEquals(14, scanner.scan(buffer, 0));
+        Assert.assertTrue(scanner.isValid());
+        Assert.assertEquals(13, scanner.getLength());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testScanEscaped() {
+        // 心跳包，流水号0x007E转义为0x007D02
+        ByteBuf buffer = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x00, 0x7D, 0x02, 0x5F, 0x7E});
+        JTT808FrameScanner scanner = new JTT808FrameScanner();
+        Assert.assertEquals(15, scanner.scan(buffer, 0));
+        Assert.assertTrue(scanner.isValid());
+        Assert.assertEquals(13, scanner.getLength());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testScanInvalid() {
+        // 校验码错误
+        ByteBuf buffer = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC6, 0x7E});
+        JTT808FrameScanner scanner = new JTT808FrameScanner();
+        Assert.assertEquals(14, scanner.scan(buffer, 0));
+        Assert.assertFalse(scanner.isValid());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testScanShort() {
+        // 只有校验码，没有消息头
+        ByteBuf buffer = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x7E});
+        JTT808FrameScanner scanner = new JTT808FrameScanner();
+        Assert.assertEquals(2, scanner.scan(buffer, 0));
+        Assert.assertFalse(scanner.isValid());
+        Assert.assertEquals(0, new DataParserJTT808().extract(buffer).size());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testScanIncomplete() {
+        // 数据不完整
+        ByteBuf buffer = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00});
+        JTT808FrameScanner scanner = new JTT808FrameScanner();
+        Assert.assertEquals(-1, scanner.scan(buffer, 0));
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testScanResume() {
+        // 心跳包分两次到达
+        ByteBuf buffer = Unpooled.buffer(32);
+        buffer.writeBytes(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x00, 0x7D});
+        JTT808FrameScanner scanner = new JTT808FrameScanner();
+        Assert.assertEquals(-1, scanner.scan(buffer, 0));
+        buffer.writeBytes(new byte[]{0x02, 0x5F, 0x7E});
+        Assert.assertEquals(15, scanner.scan(buffer, 0));
+        Assert.assertTrue(scanner.isValid());
+        Assert.assertEquals(13, scanner.getLength());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testExtractResume() {
+        ByteBuf buffer = Unpooled.buffer(32);
+        DataParserJTT808 parser = new DataParserJTT808();
+        buffer.writeBytes(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00});
+        Assert.assertEquals(0, parser.extract(buffer).size());
+        Assert.assertEquals(0, buffer.readerIndex());
+        buffer.writeBytes(new byte[]{0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E});
+        Assert.assertEquals(1, parser.extract(buffer).size());
+        Assert.assertFalse(buffer.isReadable());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testExtractShared() {
+        // 两个连接共享解析器，各自使用扫描器，心跳包交替分两次到达
+        DataParserJTT808 parser = new DataParserJTT808();
+        JTT808FrameScanner scanner1 = parser.newFrameScanner();
+        JTT808FrameScanner scanner2 = parser.newFrameScanner();
+        ByteBuf buffer1 = Unpooled.buffer(32);
+        ByteBuf buffer2 = Unpooled.buffer(32);
+        buffer1.writeBytes(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00});
+        buffer2.writeBytes(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27});
+        Assert.assertEquals(0, parser.extract(buffer1, scanner1).size());
+        Assert.assertEquals(0, parser.extract(buffer2, scanner2).size());
+        buffer1.writeBytes(new byte[]{0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E});
+        buffer2.writeBytes(new byte[]{0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E});
+        Assert.assertEquals(1, parser.extract(buffer1, scanner1).size());
+        Assert.assertEquals(1, parser.extract(buffer2, scanner2).size());
+        Assert.assertEquals(0, scanner1.getDiscardedBytes() + scanner2.getDiscardedBytes());
+        ReferenceCountUtil.release(buffer1);
+        ReferenceCountUtil.release(buffer2);
+    }
+
+    @Test
+    public void testExtractOversized() {
+        ByteBuf buffer = Unpooled.buffer(64);
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setMaxFrameLength(16);
+
+        // 无效数据和超长数据帧
+        buffer.writeBytes(new byte[]{0x01, 0x02, 0x7E, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0A, 0x0B, 0x0C, 0x0D, 0x0E, 0x0F, 0x10});
+        Assert.assertEquals(0, parser.extract(buffer).size());
+        Assert.assertFalse(buffer.isReadable());
+        Assert.assertEquals(1, parser.getOversizedFrames());
+        Assert.assertEquals(19, parser.getDiscardedBytes());
+
+        // 超长数据帧剩余部分，后面紧跟心跳包
+        buffer.writeBytes(new byte[]{0x11, 0x12, 0x7E});
+        buffer.writeBytes(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E});
+        Assert.assertEquals(1, parser.extract(buffer).size());
+        Assert.assertFalse(buffer.isReadable());
+        Assert.assertEquals(22, parser.getDiscardedBytes());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testExtractOversizedFollowed() {
+        // 超长数据帧没有结束标识位，同一次到达的心跳包仍然解析
+        ByteBuf buffer = Unpooled.buffer(5016);
+        DataParserJTT808 parser = new DataParserJTT808();
+        buffer.writeByte(0x7E);
+        for (int i = 0; i < 5000; i++) {
+            buffer.writeByte(0x01);
+        }
+        buffer.writeBytes(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E});
+        Assert.assertEquals(1, parser.extract(buffer).size());
+        Assert.assertFalse(buffer.isReadable());
+        Assert.assertEquals(1, parser.getOversizedFrames());
+        Assert.assertEquals(5001, parser.getDiscardedBytes());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testScanWords() {
+        // 随机长数据帧，包含需要转义的字节
+        Random random = new Random(808);
+        for (int n = 0; n < 200; n++) {
+            byte[] content = new byte[random.nextInt(300) + JTT808FrameScanner.MIN_LENGTH];
+            random.nextBytes(content);
+            byte check = 0x00;
+            for (int i = 0; i < content.length - 1; i++) {
+                check ^= content[i];
+            }
+            content[content.length - 1] = check;
+
+            // 转义
+            ByteBuf buffer = Unpooled.buffer(content.length * 2 + 2);
+            buffer.writeByte(0x7E);
+            for (byte b : content) {
+                if (0x7E == b) {
+                    buffer.writeByte(0x7D).writeByte(0x02);
+                } else if (0x7D == b) {
+                    buffer.writeByte(0x7D).writeByte(0x01);
+                } else {
+                    buffer.writeByte(b);
+                }
+            }
+            buffer.writeByte(0x7E);
+
+            JTT808FrameScanner scanner = new JTT808FrameScanner();
+            Assert.assertEquals(buffer.writerIndex() - 1, scanner.scan(buffer, 0));
+            Assert.assertTrue(scanner.isValid());
+            Assert.assertEquals(content.length, scanner.getLength());
+
+            // 修改一个字节后校验失败
+            int index = 1 + random.nextInt(buffer.writerIndex() - 2);
+            byte b = buffer.getByte(index);
+            if (0x7D != b && 0x7D != buffer.getByte(index - 1) && 0x7E != (b ^ 0x01) && 0x7D != (b ^ 0x01)) {
+                buffer.setByte(index, b ^ 0x01);
+                Assert.assertEquals(buffer.writerIndex() - 1, scanner.scan(buffer, 0));
+                Assert.assertFalse(scanner.isValid());
+            }
+            ReferenceCountUtil.release(buffer);
+        }
+    }
+}
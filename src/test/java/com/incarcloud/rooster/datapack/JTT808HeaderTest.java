@@ -0,0 +1,64 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JTT808HeaderTest
+ *
+ * @author Aaric, created on 2017-09-14T11:20.
+ * @since 2.0
+ */
+public class JTT808HeaderTest {
+
+    @Test
+    public void testRead() {
+        ByteBuf buffer = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E});
+        JTT808Header header = JTT808Header.peek(buffer);
+        Assert.assertNotNull(header);
+        Assert.assertEquals(0x0002, header.getMsgId());
+        Assert.assertEquals(0, header.getMsgLength());
+        Assert.assertFalse(header.isSubPack());
+        Assert.assertEquals("013300312707", header.getDeviceId());
+        Assert.assertEquals(13300312707L, header.getPhone());
+        Assert.assertEquals(0x1BFF, header.getMsgSeq());
+        Assert.assertEquals(0, buffer.readerIndex());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testReadEscaped() {
+        // 流水号0x007E转义为0x007D02
+        ByteBuf buffer = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x00, 0x7D, 0x02, 0x5F, 0x7E});
+        JTT808Header header = JTT808Header.peek(buffer);
+        Assert.assertNotNull(header);
+        Assert.assertEquals("013300312707", header.getDeviceId());
+        Assert.assertEquals(0x007E, header.getMsgSeq());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testReadSubPack() {
+        // 多媒体数据上传，10包中的第1包
+        ByteBuf buffer = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x08, 0x01, 0x23, 0x24, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x00, 0x2A, 0x00, 0x0A, 0x00, 0x01, 0x00, 0x00});
+        JTT808Header header = new JTT808Header();
+        Assert.assertTrue(header.read(buffer));
+        Assert.assertEquals(0x0801, header.getMsgId());
+        Assert.assertEquals(0x0324, header.getMsgLength());
+        Assert.assertTrue(header.isSubPack());
+        Assert.assertEquals(0x002A, header.getMsgSeq());
+        Assert.assertEquals(10, header.getSubPackTotal());
+        Assert.assertEquals(1, header.getSubPackIndex());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testReadIncomplete() {
+        ByteBuf buffer = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00});
+        Assert.assertNull(JTT808Header.peek(buffer));
+        ReferenceCountUtil.release(buffer);
+    }
+}
@@ -0,0 +1,85 @@
+package com.incarcloud.rooster.datapack;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JTT808PositionExtrasTest
+ *
+ * @author Aaric, created on 2017-09-22T16:00.
+ * @since 2.0
+ */
+public class JTT808PositionExtrasTest {
+
+    @Test
+    public void testRead() {
+        ByteBuf buffer = Unpooled.buffer();
+        buffer.writeByte(0x01).writeByte(4).writeInt(0xFFFFFFF0);
+        buffer.writeByte(0x02).writeByte(2).writeShort(523);
+        buffer.writeByte(0x05).writeByte(3).writeMedium(1);
+        buffer.writeByte(0x11).writeByte(5).writeByte(2).writeInt(7);
+        buffer.writeByte(0x2B).writeByte(4).writeShort(300).writeShort(100);
+        buffer.writeByte(0x31).writeByte(2).writeShort(9);
+        buffer.writeByte(0x30).writeByte(1).writeByte(25);
+        int extraMsgTotal = buffer.readableBytes();
+        buffer.writeShort(0);
+
+        JTT808PositionExtras extras = new JTT808PositionExtras();
+        extras.read(buffer, extraMsgTotal);
+        Assert.assertEquals(2, buffer.readableBytes());
+        Assert.assertEquals(5, extras.size());
+        Assert.assertEquals(0xFFFFFFF0L, extras.getMileage());
+        Assert.assertEquals(523, extras.getFuel());
+        Assert.assertEquals(2L << 32 | 7, extras.getValue(JTT808PositionExtras.OVERSPEED_ALARM));
+        Assert.assertEquals(300, extras.getAnalog1());
+        Assert.assertEquals(100, extras.getAnalog0());
+        Assert.assertEquals(25, extras.getSignalStrength());
+        // 保留ID、长度错误时跳过
+        Assert.assertFalse(extras.has(0x05));
+        Assert.assertFalse(extras.has(JTT808PositionExtras.SATELLITES));
+        Assert.assertEquals(JTT808PositionExtras.SIGNAL_STRENGTH, extras.getId(4));
+
+        // 重复使用
+        buffer.clear();
+        buffer.writeByte(0x31).writeByte(1).writeByte(12);
+        extras.read(buffer, buffer.readableBytes());
+        Assert.assertEquals(1, extras.size());
+        Assert.assertEquals(12, extras.getSatellites());
+        Assert.assertFalse(extras.has(JTT808PositionExtras.MILEAGE));
+        buffer.release();
+    }
+
+    @Test
+    public void testHandler() {
+        final List<String> valueList = new ArrayList<>();
+        PositionExtraHandlerRegistry handlers = new PositionExtraHandlerRegistry();
+        handlers.register(0xE1, new PositionExtraHandler() {
+            @Override
+            public void handle(int extraMsgId, ByteBuf value, DataPackPosition dataPackPosition, List<DataPackTarget> dataPackTargetList) {
+                valueList.add(ByteBufUtil.hexDump(value));
+            }
+        });
+        ByteBuf buffer = Unpooled.buffer();
+        buffer.writeByte(0xE1).writeByte(3).writeMedium(0x0A0B0C);
+        // 长度超出剩余数据
+        buffer.writeByte(0x01).writeByte(4).writeShort(1);
+        JTT808PositionExtras extras = new JTT808PositionExtras();
+        extras.read(buffer, buffer.readableBytes(), handlers, null, null);
+        Assert.assertEquals(0, buffer.readableBytes());
+        Assert.assertEquals(0, extras.size());
+        Assert.assertEquals(1, valueList.size());
+        Assert.assertEquals("0a0b0c", valueList.get(0));
+
+        // 不传入注册表时不使用处理器
+        buffer.readerIndex(0);
+        extras.read(buffer, buffer.readableBytes());
+        Assert.assertEquals(1, valueList.size());
+        buffer.release();
+    }
+}
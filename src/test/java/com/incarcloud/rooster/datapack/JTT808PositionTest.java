@@ -0,0 +1,57 @@
+package com.incarcloud.rooster.datapack;
+
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JTT808PositionTest
+ *
+ * @author Aaric, created on 2017-09-16T10:30.
+ * @since 2.0
+ */
+public class JTT808PositionTest {
+
+    @Test
+    public void testRead() {
+        // 纬度30.526148，经度114.344592，高程21m，速度60.5km/h，方向90，时间2017-08-25 14:44:16
+        ByteBuf buffer = Unpooled.buffer(JTT808Position.LENGTH);
+        buffer.writeInt(30526148).writeInt(114344592).writeShort(21).writeShort(605).writeShort(90);
+        buffer.writeBytes(new byte[]{0x17, 0x08, 0x25, 0x14, 0x44, 0x16});
+        JTT808Position position = new JTT808Position();
+        position.read(buffer, 0x00000003);
+        Assert.assertEquals(30526148, position.getLatitudeMicros());
+        Assert.assertEquals(114344592, position.getLongitudeMicros());
+        Assert.assertEquals(30.526148, position.getLatitude(), 0);
+        Assert.assertEquals(114.344592, position.getLongitude(), 0);
+        Assert.assertEquals(21, position.getAltitude());
+        Assert.assertEquals(605, position.getSpeedTenths());
+        Assert.assertEquals(60.5F, position.getSpeed(), 0.0001F);
+        Assert.assertEquals(90, position.getDirection());
+        Assert.assertEquals(1503643456000L, position.getTimeMillis());
+        Assert.assertEquals(1503643456000L, position.getTime().getTime());
+        Assert.assertFalse(buffer.isReadable());
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testReadSouthWest() {
+        ByteBuf buffer = Unpooled.buffer(JTT808Position.LENGTH);
+        buffer.writeInt(33868820).writeInt(151209290).writeShort(0).writeShort(0).writeShort(0);
+        buffer.writeBytes(new byte[]{0x17, 0x1A, 0x25, 0x14, 0x44, 0x16});
+        JTT808Position position = new JTT808Position();
+        // 状态位bit2南纬，bit3西经
+        position.read(buffer, 0x0000000C);
+        Assert.assertEquals(-33868820, position.getLatitudeMicros());
+        Assert.assertEquals(-151209290, position.getLongitudeMicros());
+        Assert.assertEquals(-33.86882, position.getLatitude(), 0);
+        Assert.assertEquals(-151.20929, position.getLongitude(), 0);
+        // 月份0x1A不是BCD码
+        Assert.assertEquals(JTT808DataPackUtil.INVALID_TIME, position.getTimeMillis());
+        Assert.assertNull(position.getTime());
+        ReferenceCountUtil.release(buffer);
+    }
+}
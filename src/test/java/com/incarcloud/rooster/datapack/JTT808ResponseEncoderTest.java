@@ -0,0 +1,72 @@
+package com.incarcloud.rooster.datapack;
+
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import io.netty.buffer.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JTT808ResponseEncoderTest
+ *
+ * @author Aaric, created on 2017-09-23T11:00.
+ * @since 2.0
+ */
+public class JTT808ResponseEncoderTest {
+
+    /**
+     * 转义还原的请求数据帧：终端手机号和流水号包含需要转义的字节
+     */
+    private static ByteBuf frame(int msgId, int msgSeq) {
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeByte(0x7E).writeShort(msgId).writeShort(0x0407).writeBytes(new byte[]{0x01, 0x7E, 0x00, 0x7D, 0x27, 0x07}).writeShort(msgSeq);
+        frame.writeBytes(new byte[]{0x7E, 0x7D, 0x01, 0x02, 0x03, 0x04, 0x05});
+        byte check = 0;
+        for (int i = 1; i < frame.writerIndex(); i++) {
+            check ^= frame.getByte(i);
+        }
+        return frame.writeByte(check).writeByte(0x7E);
+    }
+
+    private static String encode(int msgId, int msgSeq, ERespReason reason, ByteBufAllocator allocator) {
+        ByteBuf response = JTT808ResponseEncoder.encode(frame(msgId, msgSeq), reason, null, allocator);
+        Assert.assertEquals(response.capacity(), response.readableBytes());
+        String hex = ByteBufUtil.hexDump(response);
+        response.release();
+        return hex;
+    }
+
+    @Test
+    public void testEncode() {
+        ByteBufAllocator[] allocators = {UnpooledByteBufAllocator.DEFAULT, PooledByteBufAllocator.DEFAULT};
+        for (ByteBufAllocator allocator : allocators) {
+            // 平台通用应答
+            Assert.assertEquals("7e80010005017d02007d0127077d017d027d017d02000200a47e", encode(0x0002, 0x7D7E, ERespReason.OK, allocator));
+            Assert.assertEquals("7e80010005017d02007d01270712341234020001a57e", encode(0x0200, 0x1234, ERespReason.Failed, allocator));
+            // 多媒体数据上传：多媒体ID+重传包总数+通用应答
+            Assert.assertEquals("7e80010005017d02007d012707007d027d027d0100007d02080100ac7e", encode(0x0801, 0x007E, ERespReason.OK, allocator));
+            // 终端注册应答
+            Assert.assertEquals("7e81000003017d02007d0127077d027d017d027d0101a17e", encode(0x0100, 0x7E7D, ERespReason.Failed, allocator));
+        }
+    }
+
+    @Test
+    public void testEncodeAuthCode() {
+        byte[] authCode = "incar~}".getBytes();
+        ByteBuf response = JTT808ResponseEncoder.encode(frame(0x0100, 0x0001), ERespReason.OK, authCode, UnpooledByteBufAllocator.DEFAULT);
+        ByteBuf content = Unpooled.buffer();
+        JTT808DataPackUtil.unescape(response, content);
+        // 标识位+消息头(12)+消息体(3+7)+检验码+标识位
+        Assert.assertEquals(1 + 12 + 3 + authCode.length + 1 + 1, content.readableBytes());
+        Assert.assertEquals(0x8100, content.getUnsignedShort(1));
+        Assert.assertEquals(3 + authCode.length, content.getUnsignedShort(3));
+        byte check = 0;
+        for (int i = 1; i < content.writerIndex() - 1; i++) {
+            check ^= content.getByte(i);
+        }
+        Assert.assertEquals(0, check);
+        Assert.assertEquals("incar~}", content.toString(16, authCode.length, StandardCharsets.US_ASCII));
+        response.release();
+    }
+}
@@ -0,0 +1,152 @@
+package com.incarcloud.rooster.datapack;
+
+import com.incarcloud.rooster.util.JTT808TrafficGenerator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * JTT808SubPackAssemblerTest
+ *
+ * @author Aaric, created on 2017-09-18T14:30.
+ * @since 2.0
+ */
+public class JTT808SubPackAssemblerTest {
+
+    private ByteBuf buffer;
+    private List<DataPack> dataPackList;
+
+    @Before
+    public void begin() {
+        // 多媒体数据上传，分3包，每包100字节数据
+        JTT808TrafficGenerator generator = new JTT808TrafficGenerator(1);
+        generator.setMix(0, 0, 0, 1, 0);
+        generator.setMediaSubPacks(3);
+        generator.setMediaPackLength(100);
+        buffer = Unpooled.buffer();
+        generator.generate(buffer, 3);
+        dataPackList = new DataParserJTT808().extract(buffer);
+        Assert.assertEquals(3, dataPackList.size());
+    }
+
+    @After
+    public void end() {
+        buffer.release();
+    }
+
+    @Test
+    public void testAssemble() {
+        JTT808SubPackAssembler assembler = new JTT808SubPackAssembler(1024 * 1024, 10000, 3);
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setSubPackAssembler(assembler);
+
+        Assert.assertEquals(0, parser.extractBody(dataPackList.get(0)).size());
+        Assert.assertEquals(0, parser.extractBody(dataPackList.get(1)).size());
+        Assert.assertEquals(1, assembler.getPendingMessages());
+
+        DataPackMedia dataPackMedia = null;
+        for (DataPackTarget target : parser.extractBody(dataPackList.get(2))) {
+            if (target.getDataPackObject() instanceof DataPackMedia) {
+                dataPackMedia = (DataPackMedia) target.getDataPackObject();
+            }
+        }
+        Assert.assertNotNull(dataPackMedia);
+        Assert.assertEquals(300, Base64.getDecoder().decode(dataPackMedia.getData()).length);
+        Assert.assertEquals(0, assembler.getPendingMessages());
+        Assert.assertEquals(0, assembler.getPendingBytes());
+        Assert.assertEquals(1, assembler.getAssembledMessages());
+        assembler.close();
+    }
+
+    @Test
+    public void testReissue() {
+        JTT808SubPackAssembler assembler = new JTT808SubPackAssembler(1024 * 1024, 10000, 3);
+        List<ByteBuf> commandList = new ArrayList<>();
+        assembler.setReissueHandler((deviceId, command) -> commandList.add(command));
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setSubPackAssembler(assembler);
+
+        // 第2包丢失，收到最后一包后立即请求补传
+        parser.extractBody(dataPackList.get(0));
+        parser.extractBody(dataPackList.get(2));
+        Assert.assertEquals(1, commandList.size());
+        ByteBuf command = commandList.get(0);
+        Assert.assertEquals(0x8003, command.getUnsignedShort(1));
+        // 消息体长度3+2*1，重传包总数1，包ID为WORD
+        Assert.assertEquals(5, command.getUnsignedShort(3) & 0x03FF);
+        Assert.assertEquals(1, command.getUnsignedByte(15));
+        Assert.assertEquals(2, command.getUnsignedShort(16));
+        command.release();
+
+        // 补传后合并
+        Assert.assertEquals(2, parser.extractBody(dataPackList.get(1)).size());
+        assembler.close();
+    }
+
+    @Test
+    public void testReissueUnlocked() {
+        // 补传分包请求在释放锁之后发送
+        JTT808SubPackAssembler assembler = new JTT808SubPackAssembler(1024 * 1024, 10000, 3);
+        List<Boolean> lockList = new ArrayList<>();
+        assembler.setReissueHandler((deviceId, command) -> {
+            lockList.add(Thread.holdsLock(assembler));
+            command.release();
+        });
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setSubPackAssembler(assembler);
+        parser.extractBody(dataPackList.get(0));
+        parser.extractBody(dataPackList.get(2));
+        Assert.assertEquals(1, lockList.size());
+        Assert.assertFalse(lockList.get(0));
+        Assert.assertEquals(1, assembler.getReissueRequests());
+        assembler.close();
+    }
+
+    @Test
+    public void testEvict() {
+        JTT808SubPackAssembler assembler = new JTT808SubPackAssembler(200, 10000, 3);
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setSubPackAssembler(assembler);
+        parser.extractBody(dataPackList.get(0));
+        Assert.assertEquals(1, assembler.getPendingMessages());
+        parser.extractBody(dataPackList.get(1));
+        Assert.assertEquals(0, assembler.getPendingMessages());
+        Assert.assertEquals(1, assembler.getEvictedMessages());
+        assembler.close();
+    }
+
+    @Test
+    public void testExpire() throws InterruptedException {
+        JTT808SubPackAssembler assembler = new JTT808SubPackAssembler(1024 * 1024, 200, 0);
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setSubPackAssembler(assembler);
+        parser.extractBody(dataPackList.get(0));
+        Assert.assertEquals(1, assembler.getPendingMessages());
+        Thread.sleep(1000);
+        Assert.assertEquals(0, assembler.getPendingMessages());
+        Assert.assertEquals(1, assembler.getExpiredMessages());
+        assembler.close();
+    }
+
+    @Test
+    public void testRejectTotal() {
+        // 分包总数65535，分包引用超过内存上限
+        JTT808SubPackAssembler assembler = new JTT808SubPackAssembler(64 * 1024, 10000, 3);
+        ByteBuf frame = Unpooled.copiedBuffer(((DataPackJTT808) dataPackList.get(0)).getFrame());
+        frame.setShort(13, 0xFFFF);
+        JTT808Header header = JTT808Header.peek(frame);
+        Assert.assertEquals(0xFFFF, header.getSubPackTotal());
+        Assert.assertNull(assembler.offer(header, frame.slice(1 + header.getLength(), frame.writerIndex() - 1 - header.getLength())));
+        Assert.assertEquals(0, assembler.getPendingMessages());
+        Assert.assertEquals(0, assembler.getPendingBytes());
+        frame.release();
+        assembler.close();
+    }
+}
@@ -0,0 +1,141 @@
+package com.incarcloud.rooster.datapack.auth;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.datapack.decoder.AuthenticationDecoder;
+import com.incarcloud.rooster.datapack.decoder.IgnoredMessageDecoder;
+import com.incarcloud.rooster.datapack.decoder.MessageBodyDecoder;
+import com.incarcloud.rooster.datapack.decoder.MessageBodyDecoderRegistry;
+import com.incarcloud.rooster.datapack.decoder.RevokeDecoder;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * AuthCodeStoreTest
+ *
+ * @author Aaric, created on 2017-09-24T14:00.
+ * @since 2.0
+ */
+public class AuthCodeStoreTest {
+
+    private static final byte[] PHONE = {0x01, 0x33, 0x00, 0x31, 0x27, 0x07};
+
+    /**
+     * 数据帧：消息头+消息体+检验码，转义并添加标识位
+     */
+    private static DataPack frame(int msgId, byte[] body) {
+        ByteBuf message = Unpooled.buffer();
+        message.writeShort(msgId).writeShort(body.length).writeBytes(PHONE).writeShort(1).writeBytes(body);
+        byte check = 0;
+        for (int i = 0; i < message.writerIndex(); i++) {
+            check ^= message.getByte(i);
+        }
+        message.writeByte(check);
+        ByteBuf frame = Unpooled.buffer();
+        JTT808DataPackUtil.escape(message, frame);
+        return new DataParserJTT808().extract(frame).get(0);
+    }
+
+    @Test
+    public void testPutAndRemove() {
+        AuthCodeStore store = new AuthCodeStore(60000);
+        for (long phone = 0; phone < 10000; phone++) {
+            store.put(phone << 8, String.valueOf(phone).getBytes());
+        }
+        Assert.assertEquals(10000, store.size());
+        for (long phone = 0; phone < 10000; phone += 2) {
+            Assert.assertTrue(store.remove(phone << 8));
+        }
+        Assert.assertEquals(5000, store.size());
+        for (long phone = 0; phone < 10000; phone++) {
+            Assert.assertEquals(1 == phone % 2, store.verify(phone << 8, String.valueOf(phone).getBytes()));
+        }
+        Assert.assertFalse(store.verify(1L << 8, "2".getBytes()));
+    }
+
+    @Test
+    public void testExpire() throws InterruptedException {
+        AuthCodeStore store = new AuthCodeStore(20);
+        store.put(1, "1".getBytes());
+        store.put(2, "2".getBytes());
+        Assert.assertNotNull(store.get(1));
+        Thread.sleep(50);
+        Assert.assertNull(store.get(1));
+        store.purge();
+        Assert.assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testGenerate() {
+        byte[] authCode = new RandomAuthCodeGenerator().generate(0);
+        Assert.assertEquals(RandomAuthCodeGenerator.LENGTH, authCode.length);
+        UUID uuid = UUID.fromString(new String(authCode));
+        Assert.assertEquals(4, uuid.version());
+        Assert.assertEquals(new String(authCode), uuid.toString());
+    }
+
+    @Test
+    public void testAuthenticate() {
+        AuthCodeStore store = new AuthCodeStore(60000);
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setAuthCodeStore(store);
+        // 默认注册表不受影响
+        Assert.assertFalse(new DataParserJTT808().extractBody(frame(0x0102, "incar".getBytes())).get(0).getDataPackObject() instanceof DataPackVerifiedAuthentication);
+
+        // 终端注册应答：应答流水号(2)+结果(1)+鉴权码
+        ByteBuf response = parser.createResponse(frame(0x0100, new byte[]{0x00, 0x2C}), ERespReason.OK);
+        ByteBuf content = Unpooled.buffer();
+        JTT808DataPackUtil.unescape(response, content);
+        byte[] authCode = new byte[RandomAuthCodeGenerator.LENGTH];
+        content.getBytes(1 + 12 + 3, authCode);
+        Assert.assertArrayEquals(authCode, store.get(0x013300312707L));
+
+        List<DataPackTarget> dataPackTargetList = parser.extractBody(frame(0x0102, authCode));
+        Assert.assertTrue(((DataPackVerifiedAuthentication) dataPackTargetList.get(0).getDataPackObject()).isVerified());
+        dataPackTargetList = parser.extractBody(frame(0x0102, "incar".getBytes()));
+        Assert.assertFalse(((DataPackVerifiedAuthentication) dataPackTargetList.get(0).getDataPackObject()).isVerified());
+
+        // 终端注销后鉴权码失效
+        parser.extractBody(frame(0x0003, new byte[0]));
+        Assert.assertNull(store.get(0x013300312707L));
+        dataPackTargetList = parser.extractBody(frame(0x0102, authCode));
+        Assert.assertFalse(((DataPackVerifiedAuthentication) dataPackTargetList.get(0).getDataPackObject()).isVerified());
+        response.release();
+    }
+
+    @Test
+    public void testUnsetStore() {
+        // 自定义注册表中的终端鉴权和终端注销解码器在取消存储后恢复
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        MessageBodyDecoder authDecoder = new IgnoredMessageDecoder("0x0102 - 终端鉴权");
+        registry.register(0x0102, authDecoder);
+        registry.disable(0x0003);
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setDecoderRegistry(registry);
+
+        // 没有设置存储时不修改注册表
+        parser.setAuthCodeStore(null);
+        Assert.assertSame(authDecoder, registry.get(0x0102));
+        Assert.assertNull(registry.get(0x0003));
+
+        parser.setAuthCodeStore(new AuthCodeStore(60000));
+        Assert.assertTrue(registry.get(0x0102) instanceof AuthenticationDecoder);
+        Assert.assertTrue(registry.get(0x0003) instanceof RevokeDecoder);
+        parser.setAuthCodeStore(new AuthCodeStore(60000));
+        parser.setAuthCodeStore(null);
+        Assert.assertSame(authDecoder, registry.get(0x0102));
+        Assert.assertNull(registry.get(0x0003));
+
+        // 更换注册表时原来的注册表同样恢复
+        parser.setAuthCodeStore(new AuthCodeStore(60000));
+        MessageBodyDecoderRegistry other = MessageBodyDecoderRegistry.createDefault();
+        parser.setDecoderRegistry(other);
+        Assert.assertSame(authDecoder, registry.get(0x0102));
+        Assert.assertTrue(other.get(0x0102) instanceof AuthenticationDecoder);
+    }
+}
@@ -0,0 +1,87 @@
+package com.incarcloud.rooster.datapack.can;
+
+import com.incarcloud.rooster.datapack.DataPackCanBatch;
+import com.incarcloud.rooster.datapack.DataPackTarget;
+import com.incarcloud.rooster.datapack.DataParserJTT808;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CanSignalExtractorTest
+ *
+ * @author Aaric, created on 2017-09-21T14:10.
+ * @since 2.0
+ */
+public class CanSignalExtractorTest {
+
+    private static final byte[] PHONE = {0x01, 0x33, 0x00, 0x31, 0x27, 0x07};
+
+    private static final byte[] DATA = {0x12, 0x34, 0x56, 0x78, (byte) 0x9A, (byte) 0xBC, (byte) 0xDE, (byte) 0xF0};
+
+    private final CanSignalExtractor extractor = new CanSignalExtractor(Arrays.asList(
+            new CanSignal("intel16", 0x100, 0, 16, false, false, 1, 0),
+            new CanSignal("other", 0x200, 0, 8, false, false, 1, 0),
+            new CanSignal("motorola16", 0x100, 7, 16, true, false, 1, 0),
+            new CanSignal("motorola12", 0x100, 3, 12, true, false, 1, 0),
+            new CanSignal("signed", 0x100, 56, 8, false, true, 0.5, 10),
+            new CanSignal("intel8", 0x100, 4, 8, false, false, 1, 0)));
+
+    @Test
+    public void testExtract() {
+        double[] values = new double[extractor.size()];
+        Arrays.fill(values, Double.NaN);
+        Assert.assertEquals(5, extractor.extract(0x100, DATA, 0, values));
+        Assert.assertEquals(0x3412, values[extractor.indexOf("intel16")], 0);
+        Assert.assertEquals(0x1234, values[extractor.indexOf("motorola16")], 0);
+        Assert.assertEquals(0x234, values[extractor.indexOf("motorola12")], 0);
+        Assert.assertEquals(-16 * 0.5 + 10, values[extractor.indexOf("signed")], 0);
+        Assert.assertEquals(0x41, values[extractor.indexOf("intel8")], 0);
+        Assert.assertTrue(Double.isNaN(values[extractor.indexOf("other")]));
+        Assert.assertEquals(0, extractor.extract(0x300, DATA, 0, values));
+    }
+
+    @Test
+    public void testExtractBatch() {
+        // 0x0705 - CAN 总线数据上传，扩展帧、通道标志位不影响匹配
+        ByteBuf message = Unpooled.buffer();
+        message.writeShort(0x0705).writeShort(2 + 5 + 3 * 12).writeBytes(PHONE).writeShort(1);
+        message.writeShort(3).writeBytes(new byte[]{0x10, 0x20, 0x30, 0x01, 0x23});
+        message.writeInt(0x200 | DataPackCanBatch.FLAG_EXTENDED).writeBytes(DATA);
+        message.writeInt(0x300).writeBytes(DATA);
+        message.writeInt(0x100 | DataPackCanBatch.FLAG_CHANNEL).writeBytes(DATA);
+        byte check = 0;
+        for (int i = 0; i < message.writerIndex(); i++) {
+            check ^= message.getByte(i);
+        }
+        message.writeByte(check);
+        ByteBuf frame = Unpooled.buffer();
+        JTT808DataPackUtil.escape(message, frame);
+        DataParserJTT808 parser = new DataParserJTT808();
+        List<DataPackTarget> dataPackTargetList = parser.extractBody(parser.extract(frame).get(0));
+        Assert.assertEquals(1, dataPackTargetList.size());
+        DataPackCanBatch batch = (DataPackCanBatch) dataPackTargetList.get(0).getDataPackObject();
+        Assert.assertEquals(3, batch.size());
+        Assert.assertEquals(((10 * 60 + 20) * 60 + 30) * 1000 + 123, batch.getReceiveTime());
+        Assert.assertEquals(1, batch.getChannel(2));
+        Assert.assertTrue(batch.isExtended(0));
+        Assert.assertEquals(0x100, batch.getCanId(2));
+
+        double[] values = new double[extractor.size()];
+        Assert.assertEquals(2, extractor.extract(batch, values));
+        Assert.assertEquals(0x12, values[extractor.indexOf("other")], 0);
+        Assert.assertEquals(0x1234, values[extractor.indexOf("motorola16")], 0);
+        message.release();
+        frame.release();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfFrame() {
+        new CanSignalExtractor(Arrays.asList(new CanSignal("bad", 0x100, 60, 8, false, false, 1, 0)));
+    }
+}
@@ -0,0 +1,90 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CompressedDataDecoderTest
+ *
+ * @author Aaric, created on 2017-09-20T10:30.
+ * @since 2.0
+ */
+public class CompressedDataDecoderTest {
+
+    private static final byte[] PHONE = {0x01, 0x33, 0x00, 0x31, 0x27, 0x07};
+
+    /**
+     * 消息：消息头+消息体
+     */
+    private static ByteBuf message(int msgId, int msgSeq, ByteBuf body) {
+        ByteBuf message = Unpooled.buffer();
+        message.writeShort(msgId).writeShort(body.readableBytes()).writeBytes(PHONE).writeShort(msgSeq);
+        return message.writeBytes(body);
+    }
+
+    /**
+     * 数据帧：消息+检验码，转义并添加标识位
+     */
+    private static DataPack frame(ByteBuf message) {
+        byte check = 0;
+        for (int i = message.readerIndex(); i < message.writerIndex(); i++) {
+            check ^= message.getByte(i);
+        }
+        message.writeByte(check);
+        ByteBuf frame = Unpooled.buffer();
+        JTT808DataPackUtil.escape(message, frame);
+        List<DataPack> dataPackList = new DataParserJTT808().extract(frame);
+        Assert.assertEquals(1, dataPackList.size());
+        return dataPackList.get(0);
+    }
+
+    private static DataPack compressed(int repeat) throws IOException {
+        // 心跳+位置信息汇报
+        ByteBuf position = Unpooled.buffer();
+        position.writeInt(0).writeInt(0x00000003).writeInt(30526148).writeInt(114344592).writeShort(21).writeShort(605).writeShort(90);
+        position.writeBytes(new byte[]{0x17, 0x08, 0x25, 0x14, 0x44, 0x16});
+        ByteBuf messages = Unpooled.buffer();
+        messages.writeBytes(message(0x0002, 1, Unpooled.EMPTY_BUFFER));
+        messages.writeBytes(message(0x0200, 2, position));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            for (int i = 0; i < repeat; i++) {
+                gzip.write(messages.array(), messages.arrayOffset(), messages.readableBytes());
+            }
+        }
+        byte[] gzipBytes = bytes.toByteArray();
+        ByteBuf body = Unpooled.buffer();
+        body.writeInt(gzipBytes.length).writeBytes(gzipBytes);
+        return frame(message(0x0901, 3, body));
+    }
+
+    @Test
+    public void testDecode() throws IOException {
+        List<DataPackTarget> dataPackTargetList = new DataParserJTT808().extractBody(compressed(1));
+        Assert.assertEquals(2, dataPackTargetList.size());
+        Assert.assertTrue(dataPackTargetList.get(0).getDataPackObject() instanceof DataPackHeartbeat);
+        DataPackPosition dataPackPosition = (DataPackPosition) dataPackTargetList.get(1).getDataPackObject();
+        Assert.assertEquals(30.526148, dataPackPosition.getLatitude(), 0);
+        Assert.assertEquals(114.344592, dataPackPosition.getLongitude(), 0);
+    }
+
+    @Test
+    public void testMaxInflatedLength() throws IOException {
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        registry.register(0x0901, new CompressedDataDecoder(registry, 1024));
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setDecoderRegistry(registry);
+        Assert.assertEquals(20, parser.extractBody(compressed(10)).size());
+        Assert.assertEquals(0, parser.extractBody(compressed(100)).size());
+    }
+}
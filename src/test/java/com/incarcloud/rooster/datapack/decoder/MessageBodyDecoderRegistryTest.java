@@ -0,0 +1,82 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.DataPack;
+import com.incarcloud.rooster.datapack.DataPackHeartbeat;
+import com.incarcloud.rooster.datapack.DataPackTarget;
+import com.incarcloud.rooster.datapack.DataParserJTT808;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * MessageBodyDecoderRegistryTest
+ *
+ * @author Aaric, created on 2017-09-15T13:40.
+ * @since 2.0
+ */
+public class MessageBodyDecoderRegistryTest {
+
+    private ByteBuf buffer;
+    private DataPack dataPack;
+
+    @Before
+    public void begin() {
+        // 心跳包
+        buffer = Unpooled.wrappedBuffer(new byte[]{0x7E, 0x00, 0x02, 0x00, 0x00, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x1B, (byte) 0xFF, (byte) 0xC5, 0x7E});
+        List<DataPack> dataPackList = new DataParserJTT808().extract(buffer);
+        Assert.assertEquals(1, dataPackList.size());
+        dataPack = dataPackList.get(0);
+    }
+
+    @After
+    public void end() {
+        ReferenceCountUtil.release(buffer);
+    }
+
+    @Test
+    public void testDefault() {
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.getDefault();
+        Assert.assertTrue(registry.get(0x0002) instanceof HeartbeatDecoder);
+        Assert.assertTrue(registry.get(0x0200) instanceof PositionDecoder);
+        Assert.assertNull(registry.get(0x0F00));
+        Assert.assertNull(registry.get(0x8001));
+    }
+
+    @Test
+    public void testRegister() {
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        MessageBodyDecoder previous = registry.register(0x0002, (buffer, header, dataPackObject, dataPackTargetList) -> {
+            Assert.assertEquals("013300312707", header.getDeviceId());
+            Assert.assertEquals(0x1BFF, header.getMsgSeq());
+        });
+        Assert.assertTrue(previous instanceof HeartbeatDecoder);
+
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setDecoderRegistry(registry);
+        Assert.assertEquals(0, parser.extractBody(dataPack).size());
+    }
+
+    @Test
+    public void testDisable() {
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setDecoderRegistry(registry);
+        List<DataPackTarget> dataPackTargetList = parser.extractBody(dataPack);
+        Assert.assertEquals(1, dataPackTargetList.size());
+        Assert.assertTrue(dataPackTargetList.get(0).getDataPackObject() instanceof DataPackHeartbeat);
+
+        registry.disable(0x0002);
+        Assert.assertEquals(0, parser.extractBody(dataPack).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterOutOfRange() {
+        MessageBodyDecoderRegistry.createDefault().register(0x8001, new IgnoredMessageDecoder("0x8001"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.util.JTT808TrafficGenerator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PositionBatchDecoderTest
+ *
+ * @author Aaric, created on 2017-09-17T10:20.
+ * @since 2.0
+ */
+public class PositionBatchDecoderTest {
+
+    @Test
+    public void testColumnar() {
+        // 只生成定位数据批量上传，每批10个位置
+        JTT808TrafficGenerator generator = new JTT808TrafficGenerator(1);
+        generator.setMix(0, 0, 1, 0, 0);
+        generator.setBatchSize(10);
+        ByteBuf buffer = Unpooled.buffer();
+        generator.generate(buffer, 1);
+        DataPack dataPack = new DataParserJTT808().extract(buffer).get(0);
+
+        // 逐个位置输出
+        List<DataPackPosition> positionList = new ArrayList<>();
+        for (DataPackTarget target : new DataParserJTT808().extractBody(dataPack)) {
+            if (target.getDataPackObject() instanceof DataPackPosition) {
+                positionList.add((DataPackPosition) target.getDataPackObject());
+            }
+        }
+        Assert.assertEquals(10, positionList.size());
+
+        // 列式输出
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        registry.register(0x0704, new PositionBatchDecoder(true));
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setDecoderRegistry(registry);
+        List<DataPackTarget> dataPackTargetList = parser.extractBody(dataPack);
+        Assert.assertEquals(1, dataPackTargetList.size());
+        DataPackPositionBatch batch = (DataPackPositionBatch) dataPackTargetList.get(0).getDataPackObject();
+        Assert.assertEquals(10, batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Assert.assertEquals(positionList.get(i).getLatitude(), JTT808Position.toDegrees(batch.getLatitude()[i]), 0);
+            Assert.assertEquals(positionList.get(i).getLongitude(), JTT808Position.toDegrees(batch.getLongitude()[i]), 0);
+            Assert.assertEquals(positionList.get(i).getPositionTime().getTime(), batch.getTime()[i]);
+        }
+        buffer.release();
+    }
+}
@@ -0,0 +1,76 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * PositionDecoderTest
+ *
+ * @author Aaric, created on 2017-09-24T15:20.
+ * @since 2.0
+ */
+public class PositionDecoderTest {
+
+    private ByteBuf buffer;
+    private DataPack dataPack;
+
+    @Before
+    public void begin() {
+        // 位置信息汇报：GNSS天线未接(位5)
+        buffer = Unpooled.buffer();
+        buffer.writeByte(0x7E);
+        buffer.writeBytes(new byte[]{0x02, 0x00, 0x00, 0x1C, 0x01, 0x33, 0x00, 0x31, 0x27, 0x07, 0x00, 0x01});
+        buffer.writeInt(0x00000020);
+        buffer.writeInt(0x00000002);
+        buffer.writeInt(31234567);
+        buffer.writeInt(121234567);
+        buffer.writeShort(10);
+        buffer.writeShort(600);
+        buffer.writeShort(90);
+        buffer.writeBytes(new byte[]{0x17, 0x09, 0x24, 0x15, 0x20, 0x00});
+        byte check = 0x00;
+        for (int i = 1; i < buffer.writerIndex(); i++) {
+            check ^= buffer.getByte(i);
+        }
+        buffer.writeByte(check);
+        buffer.writeByte(0x7E);
+        List<DataPack> dataPackList = new DataParserJTT808().extract(buffer);
+        Assert.assertEquals(1, dataPackList.size());
+        dataPack = dataPackList.get(0);
+    }
+
+    @After
+    public void end() {
+        buffer.release();
+    }
+
+    @Test
+    public void testAlarm() {
+        DataPackAlarm dataPackAlarm = null;
+        for (DataPackTarget target : new DataParserJTT808().extractBody(dataPack)) {
+            if (target.getDataPackObject() instanceof DataPackAlarm) {
+                dataPackAlarm = (DataPackAlarm) target.getDataPackObject();
+            }
+        }
+        Assert.assertNotNull(dataPackAlarm);
+    }
+
+    @Test
+    public void testAlarmMask() {
+        // 不需要GNSS天线报警，不输出DataPackAlarm
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        registry.register(0x0200, new PositionDecoder(JTT808AlarmFlags.DEFINED_MASK & ~(1 << 5)));
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setDecoderRegistry(registry);
+        List<DataPackTarget> dataPackTargetList = parser.extractBody(dataPack);
+        Assert.assertEquals(1, dataPackTargetList.size());
+        Assert.assertTrue(dataPackTargetList.get(0).getDataPackObject() instanceof DataPackPosition);
+    }
+}
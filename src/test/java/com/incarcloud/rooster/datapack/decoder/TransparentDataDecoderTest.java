@@ -0,0 +1,68 @@
+package com.incarcloud.rooster.datapack.decoder;
+
+import com.incarcloud.rooster.datapack.DataPack;
+import com.incarcloud.rooster.datapack.DataParserJTT808;
+import com.incarcloud.rooster.util.JTT808DataPackUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TransparentDataDecoderTest
+ *
+ * @author Aaric, created on 2017-09-22T10:05.
+ * @since 2.0
+ */
+public class TransparentDataDecoderTest {
+
+    private static final byte[] PHONE = {0x01, 0x33, 0x00, 0x31, 0x27, 0x07};
+
+    /**
+     * 数据上行透传数据帧
+     */
+    private static DataPack transparent(int transMsgType, byte[] content) {
+        ByteBuf message = Unpooled.buffer();
+        message.writeShort(0x0900).writeShort(1 + content.length).writeBytes(PHONE).writeShort(1);
+        message.writeByte(transMsgType).writeBytes(content);
+        byte check = 0;
+        for (int i = 0; i < message.writerIndex(); i++) {
+            check ^= message.getByte(i);
+        }
+        message.writeByte(check);
+        ByteBuf frame = Unpooled.buffer();
+        JTT808DataPackUtil.escape(message, frame);
+        return new DataParserJTT808().extract(frame).get(0);
+    }
+
+    @Test
+    public void testHandle() {
+        List<String> payloadList = new ArrayList<>();
+        TransparentDataDecoder decoder = new TransparentDataDecoder();
+        decoder.register(0x41, (transMsgType, payload, header, dataPackObject, dataPackTargetList) -> {
+            Assert.assertEquals(0x41, transMsgType);
+            payloadList.add(ByteBufUtil.hexDump(payload));
+            // 数据帧在解析结束前仍然有效
+            Assert.assertFalse(payload.release());
+        });
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        registry.register(0x0900, decoder);
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setDecoderRegistry(registry);
+
+        // 包含需要转义的0x7E
+        Assert.assertEquals(0, parser.extractBody(transparent(0x41, new byte[]{0x01, 0x7E, 0x02})).size());
+        Assert.assertEquals(0, parser.extractBody(transparent(0x42, new byte[]{0x03})).size());
+        Assert.assertEquals(1, payloadList.size());
+        Assert.assertEquals("017e02", payloadList.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterOutOfRange() {
+        new TransparentDataDecoder().register(0x100, null);
+    }
+}
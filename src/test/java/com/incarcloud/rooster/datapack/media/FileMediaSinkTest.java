@@ -0,0 +1,235 @@
+package com.incarcloud.rooster.datapack.media;
+
+import com.incarcloud.rooster.datapack.*;
+import com.incarcloud.rooster.datapack.decoder.MediaDataDecoder;
+import com.incarcloud.rooster.datapack.decoder.MessageBodyDecoderRegistry;
+import com.incarcloud.rooster.util.JTT808TrafficGenerator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * FileMediaSinkTest
+ *
+ * @author Aaric, created on 2017-09-19T14:20.
+ * @since 2.0
+ */
+public class FileMediaSinkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ByteBuf buffer;
+    private List<DataPack> dataPackList;
+
+    @Before
+    public void begin() {
+        // 多媒体数据上传，分3包，每包100字节数据
+        JTT808TrafficGenerator generator = new JTT808TrafficGenerator(1);
+        generator.setMix(0, 0, 0, 1, 0);
+        generator.setMediaSubPacks(3);
+        generator.setMediaPackLength(100);
+        buffer = Unpooled.buffer();
+        generator.generate(buffer, 3);
+        dataPackList = new DataParserJTT808().extract(buffer);
+    }
+
+    @After
+    public void end() {
+        buffer.release();
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        // 1.Base64保存的多媒体数据
+        DataParserJTT808 parser = new DataParserJTT808();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (DataPack dataPack : dataPackList) {
+            for (DataPackTarget target : parser.extractBody(dataPack)) {
+                if (target.getDataPackObject() instanceof DataPackMedia) {
+                    expected.write(Base64.getDecoder().decode(((DataPackMedia) target.getDataPackObject()).getData()));
+                }
+            }
+        }
+
+        // 2.写入文件
+        FileMediaSink mediaSink = new FileMediaSink(folder.getRoot());
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        registry.register(0x0801, new MediaDataDecoder(mediaSink));
+        parser.setDecoderRegistry(registry);
+        DataPackMediaFile dataPackMediaFile = null;
+        for (DataPack dataPack : dataPackList) {
+            for (DataPackTarget target : parser.extractBody(dataPack)) {
+                if (target.getDataPackObject() instanceof DataPackMediaFile) {
+                    dataPackMediaFile = (DataPackMediaFile) target.getDataPackObject();
+                    Assert.assertNull(dataPackMediaFile.getData());
+                }
+            }
+        }
+        Assert.assertNotNull(dataPackMediaFile);
+        Assert.assertTrue(dataPackMediaFile.isComplete());
+        Assert.assertEquals(200, dataPackMediaFile.getOffset());
+        // 文件以多媒体数据ID命名
+        Assert.assertEquals("1" + FileMediaSink.FILE_SUFFIX, new File(dataPackMediaFile.getLocation()).getName());
+        Assert.assertEquals(0, mediaSink.getOpenFiles());
+        Assert.assertArrayEquals(expected.toByteArray(), Files.readAllBytes(new File(dataPackMediaFile.getLocation()).toPath()));
+        mediaSink.close();
+    }
+
+    @Test
+    public void testWriteOutOfOrder() throws Exception {
+        // 1.Base64保存的多媒体数据
+        DataParserJTT808 parser = new DataParserJTT808();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (DataPack dataPack : dataPackList) {
+            for (DataPackTarget target : parser.extractBody(dataPack)) {
+                if (target.getDataPackObject() instanceof DataPackMedia) {
+                    expected.write(Base64.getDecoder().decode(((DataPackMedia) target.getDataPackObject()).getData()));
+                }
+            }
+        }
+
+        // 2.按第3、1、2包的顺序到达
+        FileMediaSink mediaSink = new FileMediaSink(folder.getRoot());
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        registry.register(0x0801, new MediaDataDecoder(mediaSink));
+        parser.setDecoderRegistry(registry);
+        DataPackMediaFile last = extractMediaFile(parser, dataPackList.get(2));
+        Assert.assertNull(last.getLocation());
+        Assert.assertEquals(-1, last.getOffset());
+        Assert.assertFalse(last.isComplete());
+        DataPackMediaFile first = extractMediaFile(parser, dataPackList.get(0));
+        Assert.assertEquals(0, first.getOffset());
+        Assert.assertFalse(first.isComplete());
+        DataPackMediaFile middle = extractMediaFile(parser, dataPackList.get(1));
+        Assert.assertEquals(100, middle.getOffset());
+        Assert.assertTrue(middle.isComplete());
+        Assert.assertEquals(0, mediaSink.getOpenFiles());
+        Assert.assertArrayEquals(expected.toByteArray(), Files.readAllBytes(new File(middle.getLocation()).toPath()));
+        mediaSink.close();
+    }
+
+    @Test
+    public void testWriteMissing() throws Exception {
+        // 第2包丢失，收到最后一包后仍未完成
+        FileMediaSink mediaSink = new FileMediaSink(folder.getRoot());
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        registry.register(0x0801, new MediaDataDecoder(mediaSink));
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setDecoderRegistry(registry);
+        Assert.assertFalse(extractMediaFile(parser, dataPackList.get(0)).isComplete());
+        DataPackMediaFile last = extractMediaFile(parser, dataPackList.get(2));
+        Assert.assertEquals(-1, last.getOffset());
+        Assert.assertFalse(last.isComplete());
+        Assert.assertEquals(1, mediaSink.getOpenFiles());
+        mediaSink.close();
+    }
+
+    @Test
+    public void testWriteExpired() throws Exception {
+        // 第1包写入后超时，放弃并删除未完成的文件
+        FileMediaSink mediaSink = new FileMediaSink(folder.getRoot());
+        MediaDataDecoder decoder = new MediaDataDecoder(mediaSink, 10);
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        registry.register(0x0801, decoder);
+        DataParserJTT808 parser = new DataParserJTT808();
+        parser.setDecoderRegistry(registry);
+        DataPackMediaFile first = extractMediaFile(parser, dataPackList.get(0));
+        Assert.assertTrue(new File(first.getLocation()).exists());
+        Assert.assertEquals(1, mediaSink.getOpenFiles());
+        Thread.sleep(50);
+        decoder.expire();
+        Assert.assertEquals(0, mediaSink.getOpenFiles());
+        Assert.assertFalse(new File(first.getLocation()).exists());
+
+        // 超时后到达的分包不再完成
+        Assert.assertFalse(extractMediaFile(parser, dataPackList.get(1)).isComplete());
+        Assert.assertFalse(extractMediaFile(parser, dataPackList.get(2)).isComplete());
+        mediaSink.close();
+    }
+
+    @Test
+    public void testWriteConcurrent() throws Exception {
+        // 8个终端各2个多媒体数据，4个线程交错解析分包，最多打开2个文件
+        JTT808TrafficGenerator generator = new JTT808TrafficGenerator(8);
+        generator.setMix(0, 0, 0, 1, 0);
+        generator.setMediaSubPacks(3);
+        generator.setMediaPackLength(100);
+        ByteBuf mediaBuffer = Unpooled.buffer();
+        generator.generate(mediaBuffer, 48);
+        List<DataPack> mediaList = new DataParserJTT808().extract(mediaBuffer);
+        Assert.assertEquals(48, mediaList.size());
+
+        // 1.Base64保存的多媒体数据，每3个分包为一个多媒体数据
+        DataParserJTT808 parser = new DataParserJTT808();
+        byte[][] expected = new byte[16][];
+        for (int i = 0; i < expected.length; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (int j = 0; j < 3; j++) {
+                for (DataPackTarget target : parser.extractBody(mediaList.get(i * 3 + j))) {
+                    if (target.getDataPackObject() instanceof DataPackMedia) {
+                        out.write(Base64.getDecoder().decode(((DataPackMedia) target.getDataPackObject()).getData()));
+                    }
+                }
+            }
+            expected[i] = out.toByteArray();
+        }
+
+        // 2.并发写入文件
+        FileMediaSink mediaSink = new FileMediaSink(folder.getRoot(), 2);
+        MessageBodyDecoderRegistry registry = MessageBodyDecoderRegistry.createDefault();
+        registry.register(0x0801, new MediaDataDecoder(mediaSink));
+        DataParserJTT808 fileParser = new DataParserJTT808();
+        fileParser.setDecoderRegistry(registry);
+        DataPackMediaFile[] results = new DataPackMediaFile[mediaList.size()];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int first = t;
+            threads[t] = new Thread(() -> {
+                for (int i = first; i < results.length; i += threads.length) {
+                    results[i] = extractMediaFile(fileParser, mediaList.get(i));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // 3.全部完成，文件内容与Base64一致
+        int complete = 0;
+        for (int i = 0; i < expected.length; i++) {
+            String location = null;
+            for (int j = 0; j < 3; j++) {
+                DataPackMediaFile result = results[i * 3 + j];
+                if (null != result.getLocation()) {
+                    location = result.getLocation();
+                }
+                if (result.isComplete()) {
+                    complete++;
+                }
+            }
+            Assert.assertArrayEquals(expected[i], Files.readAllBytes(new File(location).toPath()));
+        }
+        Assert.assertEquals(16, complete);
+        Assert.assertEquals(0, mediaSink.getOpenFiles());
+        mediaSink.close();
+        mediaBuffer.release();
+    }
+
+    private static DataPackMediaFile extractMediaFile(DataParserJTT808 parser, DataPack dataPack) {
+        for (DataPackTarget target : parser.extractBody(dataPack)) {
+            if (target.getDataPackObject() instanceof DataPackMediaFile) {
+                return (DataPackMediaFile) target.getDataPackObject();
+            }
+        }
+        return null;
+    }
+}
@@ -1,6 +1,7 @@
 package com.incarcloud.rooster.util;
 
 import com.incarcloud.rooster.datapack.DataPackAlarm;
+import io.netty.buffer.Unpooled;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -20,4 +21,14 @@ public class JTT808DataPackUtilTest {
         List<DataPackAlarm.Alarm> alarmList = JTT808DataPackUtil.detailAlarmProps(alarmProps);
         Assert.assertEquals(14L, alarmList.size());
     }
+
+    @Test
+    public void testReadDateMillis() {
+        // 2017-08-25 14:44:16(GMT+8)
+        Assert.assertEquals(1503643456000L, JTT808DataPackUtil.readDateMillis(Unpooled.wrappedBuffer(new byte[]{0x17, 0x08, 0x25, 0x14, 0x44, 0x16})));
+        // 2020-02-29(GMT+8)
+        Assert.assertEquals(1582905600000L, JTT808DataPackUtil.readDateOnlyMillis(Unpooled.wrappedBuffer(new byte[]{0x20, 0x20, 0x02, 0x29})));
+        // 非BCD码
+        Assert.assertEquals(JTT808DataPackUtil.INVALID_TIME, JTT808DataPackUtil.readDateMillis(Unpooled.wrappedBuffer(new byte[]{0x17, 0x08, 0x25, 0x14, 0x4F, 0x16})));
+    }
 }
@@ -0,0 +1,542 @@
+package com.incarcloud.rooster.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * JTT808终端数据模拟生成器<br>
+ *     模拟N个终端按比例上报心跳(0x0002)、位置信息(0x0200，带附加信息)、定位数据批量上传(0x0704)、
+ *     分包多媒体数据(0x0801)和异常数据(校验码错误、数据帧截断、无效数据、非法转义)，
+ *     终端轮流上报，每轮所有终端上报完成后模拟时钟前进1秒<br>
+ *     随机种子相同时生成的数据完全相同，非线程安全
+ *
+ * @author Aaric, created on 2017-09-12T09:30.
+ * @since 2.0
+ */
+public class JTT808TrafficGenerator {
+
+    /**
+     * 消息类型：心跳
+     */
+    public static final int HEARTBEAT = 0;
+
+    /**
+     * 消息类型：位置信息汇报
+     */
+    public static final int POSITION = 1;
+
+    /**
+     * 消息类型：定位数据批量上传
+     */
+    public static final int POSITION_BATCH = 2;
+
+    /**
+     * 消息类型：分包多媒体数据上传
+     */
+    public static final int MEDIA = 3;
+
+    /**
+     * 消息类型：异常数据
+     */
+    public static final int MALFORMED = 4;
+
+    /**
+     * 起始终端手机号
+     */
+    private static final long BASE_PHONE = 13300000000L;
+
+    /**
+     * 模拟时钟起始时间：2017-09-01 00:00:00(GMT+8)
+     */
+    private static final long BASE_TIME = 1504195200L;
+
+    /**
+     * 位置信息汇报消息体长度(基本信息+附加信息)
+     */
+    private static final int POSITION_LENGTH = 28 + 6 + 4 + 4 + 6 + 4 + 6 + 3 + 3;
+
+    /**
+     * 消息体最大长度(消息体属性bit0~9)
+     */
+    private static final int MAX_BODY_LENGTH = 0x03FF;
+
+    /**
+     * 终端手机号(BCD[6])
+     */
+    private final byte[][] phones;
+
+    /**
+     * 终端消息流水号
+     */
+    private final int[] msgSeqs;
+
+    /**
+     * 终端多媒体数据ID
+     */
+    private final long[] mediaIds;
+
+    /**
+     * 终端累计里程(1/10km)
+     */
+    private final int[] mileages;
+
+    private final Random random;
+
+    /**
+     * 消息类型累计权重
+     */
+    private final int[] mix = new int[5];
+
+    /**
+     * 每个0x0704消息的位置数据项个数
+     */
+    private int batchSize = 10;
+
+    /**
+     * 每个多媒体数据的分包数
+     */
+    private int mediaSubPacks = 4;
+
+    /**
+     * 每个多媒体子包的数据长度
+     */
+    private int mediaPackLength = 512;
+
+    /**
+     * 消息头+消息体+校验码缓冲区
+     */
+    private final ByteBuf content = Unpooled.buffer(MAX_BODY_LENGTH + 32);
+
+    /**
+     * 消息体缓冲区
+     */
+    private final ByteBuf body = Unpooled.buffer(MAX_BODY_LENGTH + 1);
+
+    /**
+     * 多媒体数据缓冲区
+     */
+    private byte[] mediaData = new byte[mediaPackLength];
+
+    /**
+     * 当前时间的BCD码(YY-MM-DD-hh-mm-ss)
+     */
+    private final byte[] timeBCD = new byte[6];
+
+    private final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT+8"));
+
+    /**
+     * 模拟时钟(秒)
+     */
+    private long clock = BASE_TIME - 1;
+
+    /**
+     * 下一个上报的终端
+     */
+    private int terminal;
+
+    private long frames;
+    private long malformedFrames;
+    private long bytes;
+
+    public JTT808TrafficGenerator(int terminals) {
+        this(terminals, 808L);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param terminals 终端数量
+     * @param seed 随机种子
+     */
+    public JTT808TrafficGenerator(int terminals, long seed) {
+        if(0 >= terminals) {
+            throw new IllegalArgumentException("terminals must be positive: " + terminals);
+        }
+        this.phones = new byte[terminals][];
+        this.msgSeqs = new int[terminals];
+        this.mediaIds = new long[terminals];
+        this.mileages = new int[terminals];
+        this.random = new Random(seed);
+        for (int i = 0; i < terminals; i++) {
+            List<Byte> phoneList = JTT808DataPackUtil.getBCDByteList(String.format("%012d", BASE_PHONE + i));
+            phones[i] = new byte[phoneList.size()];
+            for (int j = 0; j < phones[i].length; j++) {
+                phones[i][j] = phoneList.get(j);
+            }
+            mileages[i] = random.nextInt(100000);
+        }
+        setMix(10, 70, 10, 5, 5);
+        tick();
+    }
+
+    /**
+     * 设置消息类型比例(权重)
+     *
+     * @param heartbeat 心跳
+     * @param position 位置信息汇报
+     * @param positionBatch 定位数据批量上传
+     * @param media 分包多媒体数据上传
+     * @param malformed 异常数据
+     */
+    public void setMix(int heartbeat, int position, int positionBatch, int media, int malformed) {
+        int[] weights = {heartbeat, position, positionBatch, media, malformed};
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if(0 > weights[i]) {
+                throw new IllegalArgumentException("weight must not be negative: " + weights[i]);
+            }
+            total += weights[i];
+            mix[i] = total;
+        }
+        if(0 == total) {
+            throw new IllegalArgumentException("weights are all zero");
+        }
+    }
+
+    /**
+     * 设置每个0x0704消息的位置数据项个数
+     *
+     * @param batchSize 位置数据项个数，消息体不能超过1023字节
+     */
+    public void setBatchSize(int batchSize) {
+        if(0 >= batchSize || MAX_BODY_LENGTH < 3 + batchSize * (2 + POSITION_LENGTH)) {
+            throw new IllegalArgumentException("batchSize out of range: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 设置每个多媒体数据的分包数
+     *
+     * @param mediaSubPacks 分包数
+     */
+    public void setMediaSubPacks(int mediaSubPacks) {
+        if(0 >= mediaSubPacks || 0xFFFF < mediaSubPacks) {
+            throw new IllegalArgumentException("mediaSubPacks out of range: " + mediaSubPacks);
+        }
+        this.mediaSubPacks = mediaSubPacks;
+    }
+
+    /**
+     * 设置每个多媒体子包的数据长度
+     *
+     * @param mediaPackLength 数据长度，第1个子包的消息体(36字节多媒体头+数据)不能超过1023字节
+     */
+    public void setMediaPackLength(int mediaPackLength) {
+        if(0 >= mediaPackLength || MAX_BODY_LENGTH < 36 + mediaPackLength) {
+            throw new IllegalArgumentException("mediaPackLength out of range: " + mediaPackLength);
+        }
+        this.mediaPackLength = mediaPackLength;
+        this.mediaData = new byte[mediaPackLength];
+    }
+
+    /**
+     * 生成下一个终端的一条消息<br>
+     *     分包多媒体数据一次写入全部子包
+     *
+     * @param out 输出
+     * @return 写入的有效数据帧数
+     */
+    public int generate(ByteBuf out) {
+        // 1.消息类型
+        int type = 0;
+        int r = random.nextInt(mix[mix.length - 1]);
+        while(r >= mix[type]) {
+            type++;
+        }
+
+        // 2.生成数据
+        int writerIndex = out.writerIndex();
+        int count = 1;
+        switch (type) {
+            case HEARTBEAT:
+                body.clear();
+                writeFrame(out, 0x0002, 0, 0);
+                break;
+            case POSITION:
+                body.clear();
+                writePosition(body, true);
+                writeFrame(out, 0x0200, 0, 0);
+                break;
+            case POSITION_BATCH:
+                writePositionBatch(out);
+                break;
+            case MEDIA:
+                writeMedia(out);
+                count = mediaSubPacks;
+                break;
+            default:
+                writeMalformed(out);
+                count = 0;
+                malformedFrames++;
+        }
+        frames += count;
+        bytes += out.writerIndex() - writerIndex;
+
+        // 3.下一个终端
+        if(++terminal == phones.length) {
+            terminal = 0;
+            tick();
+        }
+        return count;
+    }
+
+    /**
+     * 生成指定数量的有效数据帧
+     *
+     * @param out 输出
+     * @param count 有效数据帧数，最后一条多媒体数据可能使实际数量略多
+     * @return 写入的有效数据帧数
+     */
+    public long generate(ByteBuf out, long count) {
+        long total = 0;
+        while(total < count) {
+            total += generate(out);
+        }
+        return total;
+    }
+
+    /**
+     * 生成指定数量的有效数据帧并写入文件
+     *
+     * @param file 文件，已存在时覆盖
+     * @param count 有效数据帧数
+     * @return 写入的字节数
+     * @throws IOException
+     */
+    public long writeTo(File file, long count) throws IOException {
+        long total = 0;
+        long written = 0;
+        ByteBuf chunk = Unpooled.buffer(64 * 1024);
+        try (FileOutputStream outputStream = new FileOutputStream(file);
+             FileChannel channel = outputStream.getChannel()) {
+            while(total < count) {
+                total += generate(chunk);
+                if(60 * 1024 <= chunk.readableBytes() || total >= count) {
+                    while(chunk.isReadable()) {
+                        written += chunk.readBytes(channel, chunk.readableBytes());
+                    }
+                    chunk.clear();
+                }
+            }
+        } finally {
+            chunk.release();
+        }
+        return written;
+    }
+
+    /**
+     * 写入位置信息汇报消息体
+     *
+     * @param out 输出
+     * @param extra 是否包含附加信息
+     */
+    private void writePosition(ByteBuf out, boolean extra) {
+        // 1.报警标志位，大约1%有报警
+        out.writeInt(0 == random.nextInt(100) ? 1 << random.nextInt(32) : 0);
+        // 2.状态位：ACC开、定位、使用GPS和北斗定位
+        out.writeInt(0x000C0003);
+        // 3.纬度、经度(上海附近)
+        out.writeInt(31230000 + random.nextInt(200000) - 100000);
+        out.writeInt(121470000 + random.nextInt(200000) - 100000);
+        // 4.高程、速度(1/10km/h)、方向
+        out.writeShort(random.nextInt(100));
+        out.writeShort(random.nextInt(1200));
+        out.writeShort(random.nextInt(360));
+        // 5.时间
+        out.writeBytes(timeBCD);
+        if(extra) {
+            // 6.附加信息：里程、油量、行驶记录速度、扩展车辆信号状态位、IO状态位、模拟量、信号强度、卫星数
+            mileages[terminal] += random.nextInt(3);
+            out.writeByte(0x01).writeByte(4).writeInt(mileages[terminal]);
+            out.writeByte(0x02).writeByte(2).writeShort(random.nextInt(1000));
+            out.writeByte(0x03).writeByte(2).writeShort(random.nextInt(1200));
+            out.writeByte(0x25).writeByte(4).writeInt(random.nextInt(0x4000));
+            out.writeByte(0x2A).writeByte(2).writeShort(random.nextInt(4));
+            out.writeByte(0x2B).writeByte(4).writeInt(random.nextInt());
+            out.writeByte(0x30).writeByte(1).writeByte(random.nextInt(32));
+            out.writeByte(0x31).writeByte(1).writeByte(random.nextInt(20));
+        }
+    }
+
+    /**
+     * 写入定位数据批量上传
+     */
+    private void writePositionBatch(ByteBuf out) {
+        body.clear();
+        // 数据项个数、位置数据类型(正常位置批量汇报或盲区补报)
+        body.writeShort(batchSize);
+        body.writeByte(random.nextInt(2));
+        for (int i = 0; i < batchSize; i++) {
+            body.writeShort(POSITION_LENGTH);
+            writePosition(body, true);
+        }
+        writeFrame(out, 0x0704, 0, 0);
+    }
+
+    /**
+     * 写入分包多媒体数据
+     */
+    private void writeMedia(ByteBuf out) {
+        long mediaId = ++mediaIds[terminal];
+        for (int i = 1; i <= mediaSubPacks; i++) {
+            body.clear();
+            if(1 == i) {
+                // 多媒体ID、类型(图像)、格式(JPEG)、事件(定时动作)、通道、位置基本信息
+                body.writeInt((int) mediaId);
+                body.writeByte(0x00).writeByte(0x00).writeByte(0x01).writeByte(0x01);
+                writePosition(body, false);
+            }
+            random.nextBytes(mediaData);
+            body.writeBytes(mediaData);
+            writeFrame(out, 0x0801, mediaSubPacks, i);
+        }
+    }
+
+    /**
+     * 写入异常数据
+     */
+    private void writeMalformed(ByteBuf out) {
+        int start = out.writerIndex();
+        switch (random.nextInt(4)) {
+            case 0:
+                // 1.校验码错误
+                body.clear();
+                writeFrame(out, 0x0002, 0, 0, 1 + random.nextInt(255));
+                break;
+            case 1:
+                // 2.数据帧截断，没有结束标识位
+                body.clear();
+                writePosition(body, true);
+                writeFrame(out, 0x0200, 0, 0);
+                out.writerIndex(start + 1 + random.nextInt(out.writerIndex() - start - 1));
+                break;
+            case 2:
+                // 3.数据帧之间的无效数据
+                int length = 1 + random.nextInt(32);
+                byte b;
+                for (int i = 0; i < length; i++) {
+                    b = (byte) random.nextInt(256);
+                    out.writeByte(0x7E == b ? 0x00 : b);
+                }
+                break;
+            default:
+                // 4.非法转义(0x7D后面不是0x01或0x02)
+                body.clear();
+                writeFrame(out, 0x0002, 0, 0);
+                out.setByte(start + 5, 0x7D);
+                out.setByte(start + 6, 0x03);
+        }
+    }
+
+    /**
+     * 写入数据帧：消息头+body+校验码，转义并添加首尾标识位
+     *
+     * @param out 输出
+     * @param msgId 消息ID
+     * @param subPackTotal 消息总包数，0表示不分包
+     * @param subPackIndex 包序号
+     */
+    private void writeFrame(ByteBuf out, int msgId, int subPackTotal, int subPackIndex) {
+        writeFrame(out, msgId, subPackTotal, subPackIndex, 0);
+    }
+
+    /**
+     * 写入数据帧
+     *
+     * @param out 输出
+     * @param msgId 消息ID
+     * @param subPackTotal 消息总包数，0表示不分包
+     * @param subPackIndex 包序号
+     * @param checkMask 校验码掩码，非0时生成校验码错误的数据帧
+     */
+    private void writeFrame(ByteBuf out, int msgId, int subPackTotal, int subPackIndex, int checkMask) {
+        // 1.消息头
+        content.clear();
+        content.writeShort(msgId);
+        content.writeShort((body.readableBytes() & MAX_BODY_LENGTH) | (0 < subPackTotal ? 0x2000 : 0));
+        content.writeBytes(phones[terminal]);
+        content.writeShort(msgSeqs[terminal]);
+        msgSeqs[terminal] = (msgSeqs[terminal] + 1) & 0xFFFF;
+        if(0 < subPackTotal) {
+            content.writeShort(subPackTotal);
+            content.writeShort(subPackIndex);
+        }
+
+        // 2.消息体
+        content.writeBytes(body, body.readerIndex(), body.readableBytes());
+
+        // 3.校验码
+        int check = 0;
+        for (int i = 0; i < content.writerIndex(); i++) {
+            check ^= content.getByte(i);
+        }
+        content.writeByte(check ^ checkMask);
+
+        // 4.转义
+        JTT808DataPackUtil.escape(content, out);
+    }
+
+    /**
+     * 模拟时钟前进1秒，更新时间BCD码
+     */
+    private void tick() {
+        clock++;
+        calendar.setTimeInMillis(clock * 1000);
+        timeBCD[0] = bcd(calendar.get(Calendar.YEAR) % 100);
+        timeBCD[1] = bcd(calendar.get(Calendar.MONTH) + 1);
+        timeBCD[2] = bcd(calendar.get(Calendar.DAY_OF_MONTH));
+        timeBCD[3] = bcd(calendar.get(Calendar.HOUR_OF_DAY));
+        timeBCD[4] = bcd(calendar.get(Calendar.MINUTE));
+        timeBCD[5] = bcd(calendar.get(Calendar.SECOND));
+    }
+
+    private static byte bcd(int value) {
+        return (byte) ((value / 10) << 4 | value % 10);
+    }
+
+    /**
+     * 有效数据帧数
+     *
+     * @return 数量
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * 异常数据条数
+     *
+     * @return 数量
+     */
+    public long getMalformedFrames() {
+        return malformedFrames;
+    }
+
+    /**
+     * 已生成的字节数
+     *
+     * @return 字节数
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * 终端数量
+     *
+     * @return 数量
+     */
+    public int getTerminals() {
+        return phones.length;
+    }
+}
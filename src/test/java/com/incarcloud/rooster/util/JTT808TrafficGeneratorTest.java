@@ -0,0 +1,59 @@
+package com.incarcloud.rooster.util;
+
+import com.incarcloud.rooster.datapack.DataPack;
+import com.incarcloud.rooster.datapack.DataParserJTT808;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * JTT808TrafficGeneratorTest
+ *
+ * @author Aaric, created on 2017-09-12T14:20.
+ * @since 2.0
+ */
+public class JTT808TrafficGeneratorTest {
+
+    @Test
+    public void testGenerate() {
+        JTT808TrafficGenerator generator = new JTT808TrafficGenerator(100);
+        generator.setMix(10, 70, 10, 10, 0);
+        ByteBuf buffer = Unpooled.buffer();
+        long frames = generator.generate(buffer, 2000);
+
+        DataParserJTT808 parser = new DataParserJTT808();
+        List<DataPack> dataPackList = parser.extract(buffer);
+        Assert.assertEquals(frames, dataPackList.size());
+        Assert.assertEquals(0, parser.getDiscardedBytes());
+        Assert.assertEquals(generator.getBytes(), buffer.writerIndex());
+        buffer.release();
+    }
+
+    @Test
+    public void testGenerateMalformed() {
+        JTT808TrafficGenerator generator = new JTT808TrafficGenerator(100);
+        ByteBuf buffer = Unpooled.buffer();
+        long frames = generator.generate(buffer, 2000);
+        Assert.assertNotEquals(0, generator.getMalformedFrames());
+
+        // 异常数据全部丢弃，有效数据帧不受影响
+        DataParserJTT808 parser = new DataParserJTT808();
+        Assert.assertEquals(frames, parser.extract(buffer).size());
+        Assert.assertNotEquals(0, parser.getDiscardedBytes());
+        buffer.release();
+    }
+
+    @Test
+    public void testWriteTo() throws Exception {
+        File file = File.createTempFile("jtt808", ".bin");
+        file.deleteOnExit();
+        JTT808TrafficGenerator generator = new JTT808TrafficGenerator(10);
+        long bytes = generator.writeTo(file, 500);
+        Assert.assertEquals(generator.getBytes(), bytes);
+        Assert.assertEquals(bytes, file.length());
+    }
+}